@@ -0,0 +1,151 @@
+package co.infinum.princeofversions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generates update configurations and requirement checkers used by benchmarks.
+ */
+final class BenchmarkConfigs {
+
+    /**
+     * Key of the custom requirement which selects update for a device segment.
+     */
+    static final String SEGMENT_KEY = "segment";
+
+    static final int DEVICE_SDK = 28;
+
+    static final int INSTALLED_VERSION = 100;
+
+    private BenchmarkConfigs() {
+    }
+
+    /**
+     * Size of generated configuration.
+     */
+    enum Size {
+        /**
+         * One update without requirements and without metadata.
+         */
+        SMALL(1, 0),
+        /**
+         * Dozens of segment updates with a bit of metadata.
+         */
+        MEDIUM(24, 8),
+        /**
+         * Hundreds of segment updates and large metadata.
+         */
+        LARGE(240, 64);
+
+        private final int updates;
+
+        private final int metaEntries;
+
+        Size(int updates, int metaEntries) {
+            this.updates = updates;
+            this.metaEntries = metaEntries;
+        }
+    }
+
+    /**
+     * Creates configuration in which only the last update matches device segment, so every update has to be evaluated.
+     *
+     * @param size Size of the configuration.
+     * @return JSON configuration.
+     */
+    static String json(Size size) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"ios\": {\"minimum_version\": \"1.2.3\"},\n  \"android2\": [");
+        for (int i = 0; i < size.updates; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\n    {\n      \"required_version\": ").append(INSTALLED_VERSION + i)
+                .append(",\n      \"last_version_available\": ").append(INSTALLED_VERSION + i + 1)
+                .append(",\n      \"notify_last_version_frequency\": \"ONCE\"");
+            if (size.updates > 1) {
+                json.append(",\n      \"requirements\": {\"required_os_version\": \"21\", \"").append(SEGMENT_KEY).append("\": \"")
+                    .append(segment(i)).append("\"}");
+            }
+            if (size.metaEntries > 0) {
+                json.append(",\n      \"meta\": {");
+                appendMeta(json, i, size.metaEntries / 2);
+                json.append('}');
+            }
+            json.append("\n    }");
+        }
+        json.append("\n  ],\n  \"meta\": {");
+        appendMeta(json, -1, size.metaEntries);
+        json.append("}\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Creates requirement checkers which accept only the last update of given configuration size.
+     *
+     * @param size Size of the configuration.
+     * @return Checkers by requirement key.
+     */
+    static Map<String, RequirementChecker> checkers(Size size) {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new PrinceOfVersionsDefaultRequirementsChecker(
+            new PrinceOfVersionsDefaultRequirementsChecker.ApplicationVersionProvider() {
+                @Override
+                public int provide() {
+                    return DEVICE_SDK;
+                }
+            }
+        ));
+        final String deviceSegment = segment(size.updates - 1);
+        checkers.put(SEGMENT_KEY, new RequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                return deviceSegment.equals(value);
+            }
+        });
+        return checkers;
+    }
+
+    static ApplicationConfiguration appConfig() {
+        return new ApplicationConfiguration() {
+            @Override
+            public int version() {
+                return INSTALLED_VERSION;
+            }
+
+            @Override
+            public int sdkVersionCode() {
+                return DEVICE_SDK;
+            }
+        };
+    }
+
+    static String segment(int index) {
+        return "segment-" + index;
+    }
+
+    /**
+     * Returns number of device segments in configuration of given size.
+     *
+     * @param size Size of the configuration.
+     * @return Number of segments.
+     */
+    static int segmentCount(Size size) {
+        return size.updates;
+    }
+
+    private static void appendMeta(StringBuilder json, int owner, int entries) {
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("\"key").append(i).append("\": ");
+            if (i % 4 == 3) {
+                json.append("{\"title\": \"Update ").append(owner).append("\", \"urls\": [\"https://example.com/").append(owner)
+                    .append('/').append(i).append("\"], \"enabled\": true}");
+            } else {
+                json.append("\"value of meta entry ").append(i).append(" for update ").append(owner).append('"');
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package co.infinum.princeofversions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluation of one configuration for a million device profiles spread over all segments of the configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CohortEvaluatorBenchmark {
+
+    private static final int PROFILES = 1000000;
+
+    @Param({"MEDIUM", "LARGE"})
+    public String size;
+
+    private CohortEvaluator evaluator;
+
+    private List<PrinceOfVersionsConfig> updates;
+
+    private List<DeviceProfile> profiles;
+
+    @Setup
+    public void setUp() throws Throwable {
+        BenchmarkConfigs.Size configSize = BenchmarkConfigs.Size.valueOf(size);
+        updates = new ArrayList<>();
+        for (StreamingJsonConfigurationParser.Candidate candidate
+            : StreamingJsonConfigurationParser.parseCandidates(BenchmarkConfigs.json(configSize))) {
+            updates.add(candidate.config);
+        }
+        evaluator = new CohortEvaluator.Builder()
+            .addRequirementsChecker(BenchmarkConfigs.SEGMENT_KEY, new CohortRequirementChecker() {
+                @Override
+                public boolean checkRequirements(String value, DeviceProfile profile) {
+                    return value.equals(profile.getRequirementInput(BenchmarkConfigs.SEGMENT_KEY));
+                }
+            })
+            .build();
+
+        List<String> segments = new ArrayList<>();
+        for (int i = 0; i < BenchmarkConfigs.segmentCount(configSize); i++) {
+            segments.add(BenchmarkConfigs.segment(i));
+        }
+        profiles = new ArrayList<>(PROFILES);
+        for (int i = 0; i < PROFILES; i++) {
+            String segment = segments.get(i % segments.size());
+            profiles.add(new DeviceProfile(
+                BenchmarkConfigs.INSTALLED_VERSION + i % segments.size(),
+                BenchmarkConfigs.DEVICE_SDK - i % 2 * 10,
+                Collections.singletonMap(BenchmarkConfigs.SEGMENT_KEY, segment)
+            ));
+        }
+    }
+
+    @Benchmark
+    public CohortReport counts() {
+        return evaluator.evaluate(updates, profiles.iterator());
+    }
+
+    @Benchmark
+    public CohortReport results() {
+        return evaluator.evaluate(updates, profiles.iterator(), true);
+    }
+}
@@ -0,0 +1,70 @@
+package co.infinum.princeofversions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of configurations of different sizes with both JSON parsers and the binary parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigurationParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public String size;
+
+    private String content;
+
+    private String binaryContent;
+
+    private ByteBuffer binaryBuffer;
+
+    private JsonConfigurationParser jsonParser;
+
+    private StreamingJsonConfigurationParser streamingParser;
+
+    private BinaryConfigurationParser binaryParser;
+
+    @Setup
+    public void setUp() {
+        BenchmarkConfigs.Size configSize = BenchmarkConfigs.Size.valueOf(size);
+        content = BenchmarkConfigs.json(configSize);
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(BenchmarkConfigs.checkers(configSize));
+        jsonParser = new JsonConfigurationParser(processor);
+        streamingParser = new StreamingJsonConfigurationParser(processor);
+        binaryParser = new BinaryConfigurationParser(processor);
+        byte[] binary = BinaryConfigurationEncoder.encode(content);
+        binaryContent = new String(binary, BinaryConfigurationEncoder.CHARSET);
+        binaryBuffer = ByteBuffer.wrap(binary);
+    }
+
+    @Benchmark
+    public PrinceOfVersionsConfig jsonParser() throws Throwable {
+        return jsonParser.parse(content);
+    }
+
+    @Benchmark
+    public PrinceOfVersionsConfig streamingParser() throws Throwable {
+        return streamingParser.parse(content);
+    }
+
+    @Benchmark
+    public PrinceOfVersionsConfig binaryParser() throws Throwable {
+        return binaryParser.parse(binaryContent);
+    }
+
+    @Benchmark
+    public PrinceOfVersionsConfig binaryParserFromBuffer() throws Throwable {
+        return binaryParser.parse(binaryBuffer);
+    }
+}
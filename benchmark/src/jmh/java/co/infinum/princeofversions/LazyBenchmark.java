@@ -0,0 +1,85 @@
+package co.infinum.princeofversions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reflective {@link Lazy#create(Class, Callable)} proxy with direct {@link Lazy#get()} access, used by the default storage
+ * to read preferences.
+ * <p>
+ * Per-call benchmarks measure access to an already created value. First-call benchmarks create a new lazy value and read it once;
+ * run them with {@code -bm ss} to see the cost of proxy class generation in a fresh JVM.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LazyBenchmark {
+
+    private static final String KEY = "PrinceOfVersions_LastNotifiedUpdate";
+
+    private static final Callable<Preferences> CREATOR = new Callable<Preferences>() {
+        @Override
+        public Preferences call() {
+            return new MapPreferences();
+        }
+    };
+
+    private Preferences proxy;
+
+    private Lazy<Preferences> holder;
+
+    @Setup
+    public void setUp() {
+        proxy = Lazy.create(Preferences.class, CREATOR);
+        holder = new Lazy<>(CREATOR);
+        proxy.getString(KEY, null);
+        holder.get().getString(KEY, null);
+    }
+
+    @Benchmark
+    public String proxyCall() {
+        return proxy.getString(KEY, null);
+    }
+
+    @Benchmark
+    public String holderCall() {
+        return holder.get().getString(KEY, null);
+    }
+
+    @Benchmark
+    public String proxyFirstCall() {
+        return Lazy.create(Preferences.class, CREATOR).getString(KEY, null);
+    }
+
+    @Benchmark
+    public String holderFirstCall() {
+        return new Lazy<>(CREATOR).get().getString(KEY, null);
+    }
+
+    /**
+     * Subset of {@code SharedPreferences} used by the default storage.
+     */
+    public interface Preferences {
+
+        String getString(String key, String defaultValue);
+    }
+
+    private static final class MapPreferences implements Preferences {
+
+        private final String value = "100";
+
+        @Override
+        public String getString(String key, String defaultValue) {
+            return KEY.equals(key) ? value : defaultValue;
+        }
+    }
+}
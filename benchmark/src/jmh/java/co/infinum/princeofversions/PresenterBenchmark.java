@@ -0,0 +1,70 @@
+package co.infinum.princeofversions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Measures the whole update check, from loading configuration to the update result, using in-memory loader and storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresenterBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public String size;
+
+    private PresenterImpl presenter;
+
+    private Loader loader;
+
+    private ApplicationConfiguration appConfig;
+
+    @Setup
+    public void setUp() {
+        BenchmarkConfigs.Size configSize = BenchmarkConfigs.Size.valueOf(size);
+        final String content = BenchmarkConfigs.json(configSize);
+        // every load returns a new instance, as a real loader would, so parsing is never skipped
+        loader = new Loader() {
+            @Override
+            public String load() {
+                return new String(content);
+            }
+        };
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(BenchmarkConfigs.checkers(configSize));
+        presenter = new PresenterImpl(new InteractorImpl(new JsonConfigurationParser(processor)), new InMemoryStorage());
+        appConfig = BenchmarkConfigs.appConfig();
+    }
+
+    @Benchmark
+    public UpdateResult run() throws Throwable {
+        return presenter.run(loader, appConfig);
+    }
+
+    private static final class InMemoryStorage implements Storage {
+
+        @Nullable
+        private Integer version;
+
+        @Nullable
+        @Override
+        public Integer lastNotifiedVersion(@Nullable Integer defaultValue) {
+            return version != null ? version : defaultValue;
+        }
+
+        @Override
+        public void rememberLastNotifiedVersion(@Nullable Integer version) {
+            this.version = version;
+        }
+    }
+}
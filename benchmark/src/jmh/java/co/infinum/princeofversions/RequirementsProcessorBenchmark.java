@@ -0,0 +1,51 @@
+package co.infinum.princeofversions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluation of requirements of a single update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequirementsProcessorBenchmark {
+
+    private PrinceOfVersionsRequirementsProcessor processor;
+
+    private Map<String, String> satisfied;
+
+    private Map<String, String> notSatisfied;
+
+    @Setup
+    public void setUp() {
+        processor = new PrinceOfVersionsRequirementsProcessor(BenchmarkConfigs.checkers(BenchmarkConfigs.Size.LARGE));
+
+        satisfied = new HashMap<>();
+        satisfied.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "21");
+        satisfied.put(BenchmarkConfigs.SEGMENT_KEY, "segment-239");
+
+        notSatisfied = new HashMap<>();
+        notSatisfied.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "21");
+        notSatisfied.put(BenchmarkConfigs.SEGMENT_KEY, "segment-0");
+    }
+
+    @Benchmark
+    public boolean satisfied() {
+        return processor.areRequirementsSatisfied(satisfied);
+    }
+
+    @Benchmark
+    public boolean notSatisfied() {
+        return processor.areRequirementsSatisfied(notSatisfied);
+    }
+}
@@ -0,0 +1,43 @@
+package co.infinum.princeofversions;
+
+/**
+ * Requirement checker which delivers its result asynchronously, e.g. after reading a file or querying a content provider.
+ * <p>
+ * Checks of all asynchronous requirements of all updates in configuration are started at the same time, so slow checks run in
+ * parallel. The first feasible update is still selected in the order in which updates are written in configuration. Every checker has
+ * a timeout and a verdict which is used when the check times out, see {@code addAsyncRequirementChecker} of
+ * {@code PrinceOfVersions.Builder} or {@link PrinceOfVersionsEngine.Builder}.
+ * </p>
+ */
+public interface AsyncRequirementChecker {
+
+    /**
+     * Starts checking the requirement. Result has to be delivered to the callback exactly once, on any thread.
+     * Method should return without waiting for the result.
+     *
+     * @param value    Value of the requirement we are checking
+     * @param callback Callback which receives the result
+     * @throws Throwable in case of any error, in which case requirement is not satisfied
+     */
+    void checkRequirements(String value, Callback callback) throws Throwable;
+
+    /**
+     * Receives result of the requirement check.
+     */
+    interface Callback {
+
+        /**
+         * Called when check is done.
+         *
+         * @param satisfied true if requirement is satisfied
+         */
+        void onResult(boolean satisfied);
+
+        /**
+         * Called when check failed, in which case requirement is not satisfied.
+         *
+         * @param error Cause of the failure
+         */
+        void onError(Throwable error);
+    }
+}
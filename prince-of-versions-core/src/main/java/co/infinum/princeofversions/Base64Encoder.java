@@ -0,0 +1,43 @@
+package co.infinum.princeofversions;
+
+/**
+ * Encodes bytes into Base64 text (RFC 4648, with padding and without line breaks).
+ * Neither {@code android.util.Base64} nor {@code java.util.Base64} is available on all supported platforms, so encoder is part of the
+ * library.
+ */
+final class Base64Encoder {
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private static final int GROUP_BYTES = 3;
+
+    private static final int GROUP_CHARS = 4;
+
+    private static final int BITS_PER_CHAR = 6;
+
+    private static final int CHAR_MASK = 0x3f;
+
+    private static final int BYTE_MASK = 0xff;
+
+    private Base64Encoder() {
+    }
+
+    static String encode(byte[] bytes) {
+        StringBuilder text = new StringBuilder((bytes.length + GROUP_BYTES - 1) / GROUP_BYTES * GROUP_CHARS);
+        for (int i = 0; i < bytes.length; i += GROUP_BYTES) {
+            int length = Math.min(GROUP_BYTES, bytes.length - i);
+            int group = 0;
+            for (int j = 0; j < GROUP_BYTES; j++) {
+                group = (group << Byte.SIZE) | (j < length ? bytes[i + j] & BYTE_MASK : 0);
+            }
+            for (int j = 0; j < GROUP_CHARS; j++) {
+                if (j <= length) {
+                    text.append(ALPHABET[(group >> (BITS_PER_CHAR * (GROUP_CHARS - 1 - j))) & CHAR_MASK]);
+                } else {
+                    text.append('=');
+                }
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,373 @@
+package co.infinum.princeofversions;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class converts JSON update configuration into compact binary configuration, e.g. on a server which publishes both formats.
+ * <p>
+ * Binary configuration has the same content as the JSON one, but it is read without parsing text:
+ * </p>
+ * <ul>
+ * <li>all strings (metadata and requirement keys and values) are written once, in a table at the start, and referred to by index,</li>
+ * <li>numbers are written as variable-length integers,</li>
+ * <li>every update is prefixed with its length, so an update whose requirements are not satisfied is skipped in constant time.</li>
+ * </ul>
+ * <p>
+ * Binary configuration is checked with a parser set by {@code withBinaryConfiguration(true)} of {@code PrinceOfVersions.Builder} or
+ * {@link PrinceOfVersionsEngine.Builder}. Loaders pass it to the parser as text decoded with {@link #CHARSET}, which maps every byte to
+ * one character.
+ * </p>
+ * <p>
+ * Unlike JSON configuration, which reports an invalid update only if it gets selected, invalid configuration is rejected as a whole
+ * when it is converted.
+ * </p>
+ */
+public final class BinaryConfigurationEncoder {
+
+    /**
+     * Charset which decodes binary configuration into text without loss, one character per byte.
+     */
+    public static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+    /**
+     * First bytes of every binary configuration: "PVB" followed by version of the format.
+     */
+    static final byte[] MAGIC = {'P', 'V', 'B', 1};
+
+    static final int FLAG_REQUIREMENTS = 1;
+
+    static final int FLAG_MANDATORY_VERSION = 1 << 1;
+
+    static final int FLAG_OPTIONAL_VERSION = 1 << 2;
+
+    static final int FLAG_NOTIFICATION = 1 << 3;
+
+    static final int FLAG_NOTIFICATION_ALWAYS = 1 << 4;
+
+    static final int FLAG_META = 1 << 5;
+
+    /**
+     * Index of absent value in metadata, indexes of present values are shifted by one.
+     */
+    static final int NULL_VALUE = 0;
+
+    private static final String ANDROID_FALLBACK_KEY = "android";
+
+    private static final String ANDROID_KEY = "android2";
+
+    private static final String MINIMUM_VERSION = "required_version";
+
+    private static final String LATEST_VERSION = "last_version_available";
+
+    private static final String NOTIFICATION = "notify_last_version_frequency";
+
+    private static final String META = "meta";
+
+    private static final String NOTIFICATION_ALWAYS = "always";
+
+    private static final String REQUIREMENTS = "requirements";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int VARINT_BITS = 7;
+
+    private static final int VARINT_MASK = 0x7F;
+
+    private static final int VARINT_CONTINUATION = 0x80;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private BinaryConfigurationEncoder() {
+    }
+
+    /**
+     * Converts JSON configuration into binary configuration.
+     *
+     * @param json JSON configuration.
+     * @return Binary configuration.
+     * @throws IllegalArgumentException if JSON is not valid configuration.
+     */
+    public static byte[] encode(String json) {
+        return new BinaryConfigurationEncoder().encodeConfiguration(json);
+    }
+
+    /**
+     * Converts JSON configuration into binary configuration decoded with {@link #CHARSET}, as loaders return it.
+     *
+     * @param json JSON configuration.
+     * @return Binary configuration as text.
+     * @throws IllegalArgumentException if JSON is not valid configuration.
+     */
+    public static String encodeToString(String json) {
+        return new String(encode(json), CHARSET);
+    }
+
+    private byte[] encodeConfiguration(String json) {
+        JsonTokenReader reader = new JsonTokenReader(json);
+        if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+            throw new IllegalArgumentException("Config resource is not a JSON object");
+        }
+        reader.beginObject();
+        Output rootMeta = null;
+        boolean metaFound = false;
+        List<Output> updates = null;
+        int fallbackStart = -1;
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (META.equals(key) && !metaFound) {
+                metaFound = true;
+                rootMeta = reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT ? writeMeta(reader) : skip(reader);
+            } else if (ANDROID_KEY.equals(key) && updates == null && reader.peek() != JsonTokenReader.Token.NULL) {
+                updates = readUpdates(reader);
+            } else if (ANDROID_FALLBACK_KEY.equals(key) && fallbackStart < 0 && reader.peek() != JsonTokenReader.Token.NULL) {
+                fallbackStart = reader.valueStart();
+                reader.skipValue();
+            } else {
+                reader.skipValue();
+            }
+        }
+        if (updates == null) {
+            if (fallbackStart < 0) {
+                throw new IllegalStateException("Config resource does not contain android key");
+            }
+            updates = readUpdates(new JsonTokenReader(json, fallbackStart));
+        }
+
+        Output out = new Output();
+        out.writeBytes(MAGIC, MAGIC.length);
+        out.writeVarint(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(UTF_8);
+            out.writeVarint(bytes.length);
+            out.writeBytes(bytes, bytes.length);
+        }
+        if (rootMeta != null) {
+            out.writeBytes(rootMeta.bytes, rootMeta.length);
+        } else {
+            out.writeVarint(0);
+        }
+        out.writeVarint(updates.size());
+        for (Output update : updates) {
+            out.writeVarint(update.length);
+            out.writeBytes(update.bytes, update.length);
+        }
+        return Arrays.copyOf(out.bytes, out.length);
+    }
+
+    private List<Output> readUpdates(JsonTokenReader reader) {
+        List<Output> updates = new ArrayList<>();
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+                    throw new IllegalArgumentException("Every update in " + ANDROID_KEY + " array should be JSON object");
+                }
+                updates.add(writeUpdate(reader));
+            }
+            reader.endArray();
+            if (updates.isEmpty()) {
+                throw new IllegalArgumentException("JSON doesn't contain any feasible update. Check JSON update format!");
+            }
+        } else if (token == JsonTokenReader.Token.BEGIN_OBJECT) {
+            updates.add(writeUpdate(reader));
+        } else {
+            throw new IllegalArgumentException("Value of " + ANDROID_KEY + " should be JSON array or object");
+        }
+        return updates;
+    }
+
+    /**
+     * Writes one update: flags, requirements, versions and metadata. Requirements come first, so update which is not satisfied is
+     * skipped without reading the rest of it.
+     */
+    private Output writeUpdate(JsonTokenReader reader) {
+        int flags = 0;
+        Integer mandatoryVersion = null;
+        Integer optionalVersion = null;
+        Output requirements = null;
+        Output meta = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (MINIMUM_VERSION.equals(key)) {
+                mandatoryVersion = readVersion(reader, key);
+            } else if (LATEST_VERSION.equals(key)) {
+                optionalVersion = readVersion(reader, key);
+            } else if (NOTIFICATION.equals(key)) {
+                flags &= ~(FLAG_NOTIFICATION | FLAG_NOTIFICATION_ALWAYS);
+                flags |= readNotification(reader);
+            } else if (REQUIREMENTS.equals(key)) {
+                requirements = reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT ? writeRequirements(reader) : skip(reader);
+            } else if (META.equals(key) && reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT) {
+                meta = writeMeta(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Output out = new Output();
+        flags |= requirements != null ? FLAG_REQUIREMENTS : 0;
+        flags |= mandatoryVersion != null ? FLAG_MANDATORY_VERSION : 0;
+        flags |= optionalVersion != null ? FLAG_OPTIONAL_VERSION : 0;
+        flags |= meta != null ? FLAG_META : 0;
+        out.writeVarint(flags);
+        if (requirements != null) {
+            out.writeBytes(requirements.bytes, requirements.length);
+        }
+        if (mandatoryVersion != null) {
+            out.writeVarint(zigZag(mandatoryVersion));
+        }
+        if (optionalVersion != null) {
+            out.writeVarint(zigZag(optionalVersion));
+        }
+        if (meta != null) {
+            out.writeBytes(meta.bytes, meta.length);
+        }
+        return out;
+    }
+
+    @Nullable
+    private static Integer readVersion(JsonTokenReader reader, String key) {
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        String text = token == JsonTokenReader.Token.NUMBER ? reader.nextString() : reader.nextRawValue();
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException invalid) {
+            throw new IllegalArgumentException("In update configuration " + key + " it should be int, but the actual value is " + text);
+        }
+    }
+
+    private static int readNotification(JsonTokenReader reader) {
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.NULL) {
+            reader.nextNull();
+            return 0;
+        } else if (token == JsonTokenReader.Token.STRING) {
+            boolean always = reader.nextString().equalsIgnoreCase(NOTIFICATION_ALWAYS);
+            return always ? FLAG_NOTIFICATION | FLAG_NOTIFICATION_ALWAYS : FLAG_NOTIFICATION;
+        }
+        throw new IllegalArgumentException("In update configuration " + NOTIFICATION + " it should be String, but the actual value is "
+            + reader.nextRawValue());
+    }
+
+    /**
+     * Writes requirements as number of entries followed by indexes of keys and values. Requirements with null value are left out.
+     */
+    private Output writeRequirements(JsonTokenReader reader) {
+        List<String> entries = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            String value = JsonMetadata.readString(reader);
+            if (value != null) {
+                entries.add(key);
+                entries.add(value);
+            }
+        }
+        reader.endObject();
+        Output out = new Output();
+        out.writeVarint(entries.size() / 2);
+        for (int i = 0; i < entries.size(); i += 2) {
+            out.writeVarint(index(entries.get(i)));
+            out.writeVarint(index(entries.get(i + 1)));
+        }
+        return out;
+    }
+
+    /**
+     * Writes metadata as number of entries followed by indexes of keys and values, where null value is {@link #NULL_VALUE}.
+     * Key which appears again replaces the value of the previous one.
+     */
+    private Output writeMeta(JsonTokenReader reader) {
+        CompactMap.Builder entries = new CompactMap.Builder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            entries.put(reader.nextName(), JsonMetadata.readString(reader));
+        }
+        reader.endObject();
+        CompactMap meta = entries.build();
+        Output out = new Output();
+        out.writeVarint(meta.size());
+        for (Map.Entry<String, String> entry : meta.entrySet()) {
+            out.writeVarint(index(entry.getKey()));
+            out.writeVarint(entry.getValue() != null ? index(entry.getValue()) + 1 : NULL_VALUE);
+        }
+        return out;
+    }
+
+    @Nullable
+    private static Output skip(JsonTokenReader reader) {
+        reader.skipValue();
+        return null;
+    }
+
+    private int index(String string) {
+        Integer index = indexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            indexes.put(string, index);
+            strings.add(string);
+        }
+        return index;
+    }
+
+    /**
+     * Maps signed integer to unsigned one, so small negative numbers are written in few bytes too.
+     */
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> (Integer.SIZE - 1));
+    }
+
+    /**
+     * Growable array of written bytes.
+     */
+    private static final class Output {
+
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+        private int length;
+
+        void writeVarint(int value) {
+            int remaining = value;
+            while ((remaining & ~VARINT_MASK) != 0) {
+                writeByte((remaining & VARINT_MASK) | VARINT_CONTINUATION);
+                remaining >>>= VARINT_BITS;
+            }
+            writeByte(remaining);
+        }
+
+        void writeBytes(byte[] source, int count) {
+            ensureCapacity(count);
+            System.arraycopy(source, 0, bytes, length, count);
+            length += count;
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+        }
+
+        private void ensureCapacity(int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package co.infinum.princeofversions;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_MANDATORY_VERSION;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_META;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_NOTIFICATION;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_NOTIFICATION_ALWAYS;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_OPTIONAL_VERSION;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_REQUIREMENTS;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.MAGIC;
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.NULL_VALUE;
+
+/**
+ * This class represents parser for binary configuration created by {@link BinaryConfigurationEncoder}.
+ * <p>
+ * Updates are evaluated in the order they are written, the same as in JSON configuration. Only requirements of evaluated updates and
+ * the selected update are read, other updates are skipped by their length. Strings are decoded only when they are used, so strings of
+ * skipped updates are never decoded. When asynchronous requirement checkers are installed, requirements of all updates are read first,
+ * so their checks can run in parallel.
+ * </p>
+ * <p>
+ * Binary configuration is small and parsed quickly, so when it is parsed from a stream, the whole stream is read first.
+ * </p>
+ */
+final class BinaryConfigurationParser implements StreamingConfigurationParser {
+
+    private static final int VARINT_BITS = 7;
+
+    private static final int VARINT_MASK = 0x7F;
+
+    private static final int VARINT_CONTINUATION = 0x80;
+
+    /**
+     * Minimum number of bytes of a map entry, which is a pair of indexes.
+     */
+    private static final int PAIR_BYTES = 2;
+
+    /**
+     * Minimum number of bytes of an update, which are its length and flags.
+     */
+    private static final int UPDATE_BYTES = 2;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final PrinceOfVersionsRequirementsProcessor requirementsProcessor;
+
+    BinaryConfigurationParser(PrinceOfVersionsRequirementsProcessor requirementsProcessor) {
+        this.requirementsProcessor = requirementsProcessor;
+    }
+
+    /**
+     * Parses binary configuration which was decoded with {@link BinaryConfigurationEncoder#CHARSET}.
+     *
+     * @param value Binary configuration as text.
+     * @return Parsed configuration.
+     * @throws Throwable if content is not valid configuration or requirements are not satisfied.
+     */
+    @Override
+    public PrinceOfVersionsConfig parse(String value) throws Throwable {
+        return parse(ByteBuffer.wrap(value.getBytes(BinaryConfigurationEncoder.CHARSET)));
+    }
+
+    /**
+     * Parses binary configuration from its bytes, so they don't have to be decoded into text first.
+     *
+     * @param stream Stream of binary configuration.
+     * @return Parsed configuration.
+     * @throws Throwable if content is not valid configuration, requirements are not satisfied or reading error occurred.
+     */
+    @Override
+    public PrinceOfVersionsConfig parse(InputStream stream) throws Throwable {
+        return parse(ByteBuffer.wrap(StreamIo.toByteArray(stream)));
+    }
+
+    /**
+     * Parses binary configuration between position and limit of the buffer. Position of the buffer is not changed.
+     *
+     * @param buffer Binary configuration.
+     * @return Parsed configuration.
+     * @throws Throwable if content is not valid configuration or requirements are not satisfied.
+     */
+    PrinceOfVersionsConfig parse(ByteBuffer buffer) throws Throwable {
+        Input in = new Input(buffer);
+        for (byte expected : MAGIC) {
+            if (in.remaining() == 0 || in.readByte() != expected) {
+                throw new IllegalArgumentException("Config resource is not a binary configuration");
+            }
+        }
+        Strings strings = new Strings(in);
+        int rootMeta = in.position;
+        in.skipPairs(in.readCount(PAIR_BYTES));
+        int count = in.readCount(UPDATE_BYTES);
+        if (count == 0) {
+            throw new IllegalArgumentException("Configuration doesn't contain any feasible update. Check configuration format!");
+        }
+        int selected = requirementsProcessor.hasAsyncCheckers()
+            ? selectFromAllUpdates(in, strings, count)
+            : selectUpdate(in, strings, count);
+        if (selected < 0) {
+            throw new RequirementsNotSatisfiedException(readMeta(in.at(rootMeta), strings, new CompactMap.Builder()).build());
+        }
+        return readConfig(in.at(selected), strings, rootMeta);
+    }
+
+    /**
+     * Returns position of the first update whose requirements are satisfied.
+     */
+    private int selectUpdate(Input in, Strings strings, int count) {
+        for (int i = 0; i < count; i++) {
+            int length = in.readLength();
+            int start = in.position;
+            int flags = in.readVarint();
+            if ((flags & FLAG_REQUIREMENTS) == 0
+                || requirementsProcessor.areRequirementsSatisfied(readRequirements(in, strings))) {
+                return start;
+            }
+            in.position = start + length;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads requirements of all updates which can be selected and checks them at once, so asynchronous checks run in parallel.
+     */
+    private int selectFromAllUpdates(Input in, Strings strings, int count) {
+        int[] starts = new int[count];
+        List<Map<String, String>> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int length = in.readLength();
+            starts[i] = in.position;
+            int flags = in.readVarint();
+            if ((flags & FLAG_REQUIREMENTS) == 0) {
+                candidates.add(null);
+                break;
+            }
+            candidates.add(readRequirements(in, strings));
+            in.position = starts[i] + length;
+        }
+        int selected = requirementsProcessor.firstSatisfied(candidates);
+        return selected != PrinceOfVersionsRequirementsProcessor.NONE_SATISFIED ? starts[selected] : -1;
+    }
+
+    private static PrinceOfVersionsConfig readConfig(Input in, Strings strings, int rootMeta) {
+        PrinceOfVersionsConfig.Builder builder = new PrinceOfVersionsConfig.Builder();
+        int flags = in.readVarint();
+        if ((flags & FLAG_REQUIREMENTS) != 0) {
+            builder.withRequirements(readRequirements(in, strings));
+        }
+        if ((flags & FLAG_MANDATORY_VERSION) != 0) {
+            builder.withMandatoryVersion(unZigZag(in.readVarint()));
+        }
+        if ((flags & FLAG_OPTIONAL_VERSION) != 0) {
+            builder.withOptionalVersion(unZigZag(in.readVarint()));
+        }
+        if ((flags & FLAG_NOTIFICATION) != 0) {
+            builder.withOptionalNotificationType((flags & FLAG_NOTIFICATION_ALWAYS) != 0 ? NotificationType.ALWAYS : NotificationType.ONCE);
+        }
+        // metadata of the update overrides root metadata
+        int updateMeta = in.position;
+        CompactMap.Builder meta = readMeta(in.at(rootMeta), strings, new CompactMap.Builder());
+        if ((flags & FLAG_META) != 0) {
+            readMeta(in.at(updateMeta), strings, meta);
+        }
+        builder.withMetadata(meta.build());
+        return builder.build();
+    }
+
+    private static Map<String, String> readRequirements(Input in, Strings strings) {
+        int count = in.readCount(PAIR_BYTES);
+        CompactMap.Builder requirements = new CompactMap.Builder(count);
+        for (int i = 0; i < count; i++) {
+            String key = strings.get(in.readVarint());
+            requirements.put(key, strings.get(in.readVarint()));
+        }
+        return requirements.build();
+    }
+
+    private static CompactMap.Builder readMeta(Input in, Strings strings, CompactMap.Builder meta) {
+        int count = in.readCount(PAIR_BYTES);
+        for (int i = 0; i < count; i++) {
+            String key = strings.get(in.readVarint());
+            int value = in.readVarint();
+            meta.put(key, value == NULL_VALUE ? null : strings.get(value - 1));
+        }
+        return meta;
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads bytes of the buffer by absolute index, so the buffer itself is not changed.
+     */
+    private static final class Input {
+
+        private final ByteBuffer buffer;
+
+        private int position;
+
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = buffer.position();
+        }
+
+        Input at(int newPosition) {
+            position = newPosition;
+            return this;
+        }
+
+        int remaining() {
+            return buffer.limit() - position;
+        }
+
+        byte readByte() {
+            if (position >= buffer.limit()) {
+                throw new IllegalArgumentException("Binary configuration ends unexpectedly");
+            }
+            return buffer.get(position++);
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += VARINT_BITS) {
+                int next = readByte();
+                value |= (next & VARINT_MASK) << shift;
+                if ((next & VARINT_CONTINUATION) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Binary configuration contains invalid number");
+        }
+
+        /**
+         * Reads number of items which take at least provided number of bytes each, so the count can't exceed remaining bytes.
+         */
+        int readCount(int bytesPerItem) {
+            int count = readVarint();
+            if (count < 0 || count > remaining() / bytesPerItem) {
+                throw new IllegalArgumentException("Binary configuration contains invalid count " + count);
+            }
+            return count;
+        }
+
+        /**
+         * Reads length in bytes of the data which follows it.
+         */
+        int readLength() {
+            int length = readVarint();
+            if (length < 0 || length > remaining()) {
+                throw new IllegalArgumentException("Binary configuration ends unexpectedly");
+            }
+            return length;
+        }
+
+        void skip(int count) {
+            if (count < 0 || count > remaining()) {
+                throw new IllegalArgumentException("Binary configuration ends unexpectedly");
+            }
+            position += count;
+        }
+
+        /**
+         * Skips map entries, which are pairs of indexes.
+         */
+        void skipPairs(int count) {
+            for (int i = 0; i < count * 2; i++) {
+                readVarint();
+            }
+        }
+
+        String readString(int length) {
+            skip(length);
+            int start = position - length;
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + start, length, UTF_8);
+            }
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return new String(bytes, UTF_8);
+        }
+    }
+
+    /**
+     * String table, where strings are located up front and decoded when they are used.
+     */
+    private static final class Strings {
+
+        private final Input in;
+
+        private final int[] starts;
+
+        private final int[] lengths;
+
+        private final String[] decoded;
+
+        Strings(Input in) {
+            this.in = in;
+            // every string has at least its length
+            int count = in.readCount(1);
+            starts = new int[count];
+            lengths = new int[count];
+            decoded = new String[count];
+            for (int i = 0; i < count; i++) {
+                lengths[i] = in.readLength();
+                starts[i] = in.position;
+                in.skip(lengths[i]);
+            }
+        }
+
+        String get(int index) {
+            if (index < 0 || index >= decoded.length) {
+                throw new IllegalArgumentException("Binary configuration refers to missing string " + index);
+            }
+            String string = decoded[index];
+            if (string == null) {
+                int position = in.position;
+                in.position = starts[index];
+                string = in.readString(lengths[index]);
+                in.position = position;
+                decoded[index] = string;
+            }
+            return string;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package co.infinum.princeofversions;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a loader which keeps the last loaded content in a file and serves it from there.
+ * <p>
+ * While saved content is younger than freshness TTL, delegate loader is not used at all.
+ * After TTL expires, saved content is still returned immediately, but delegate loader is run in background to refresh it for the next
+ * check. Delegate loader is used synchronously only if there is no saved content yet.
+ * </p>
+ */
+public final class CachingLoader implements CancelableLoader {
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    private static final String FILE_NAME_PREFIX = "prince_of_versions_";
+
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private static final int HEX_RADIX = 16;
+
+    /**
+     * Paths of cache files which are being refreshed, shared between all instances.
+     */
+    private static final Set<String> REFRESHING = Collections.synchronizedSet(new HashSet<String>());
+
+    /**
+     * Loader used to load fresh content.
+     */
+    private final Loader delegate;
+
+    /**
+     * File where the last content is saved.
+     */
+    private final File file;
+
+    /**
+     * Freshness TTL in milliseconds.
+     */
+    private final long ttlMilliseconds;
+
+    /**
+     * Executor which runs background refresh.
+     */
+    private final Executor refreshExecutor;
+
+    /**
+     * Number of loads from delegate which callers are waiting for, only those are canceled.
+     */
+    private final AtomicInteger synchronousLoads = new AtomicInteger();
+
+    /**
+     * Creates a new caching loader which refreshes stale content on default executor, after checks which are waiting.
+     *
+     * @param delegate Loader used to load fresh content.
+     * @param file     File where the last content is saved.
+     * @param ttl      Freshness TTL.
+     * @param unit     Time unit of freshness TTL.
+     */
+    public CachingLoader(Loader delegate, File file, long ttl, TimeUnit unit) {
+        this(delegate, file, ttl, unit, new PrinceOfVersionsDefaultExecutor(PrinceOfVersionsWorkerPool.Priority.LOW));
+    }
+
+    /**
+     * Creates a new caching loader.
+     *
+     * @param delegate        Loader used to load fresh content.
+     * @param file            File where the last content is saved.
+     * @param ttl             Freshness TTL.
+     * @param unit            Time unit of freshness TTL.
+     * @param refreshExecutor Executor which runs background refresh.
+     */
+    public CachingLoader(Loader delegate, File file, long ttl, TimeUnit unit, Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.file = file;
+        this.ttlMilliseconds = unit.toMillis(ttl);
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Creates a file name for caching content loaded from provided URL.
+     *
+     * @param url Resource locator.
+     * @return File name unique for given URL.
+     */
+    public static String fileNameFor(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(url.getBytes(DEFAULT_CHARSET));
+            StringBuilder name = new StringBuilder(FILE_NAME_PREFIX);
+            for (byte b : digest) {
+                String hex = Integer.toHexString(b & BYTE_MASK);
+                if (hex.length() == 1) {
+                    name.append('0');
+                }
+                name.append(hex);
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return FILE_NAME_PREFIX + Integer.toHexString(url.hashCode());
+        }
+    }
+
+    /**
+     * Cancels load of the caller, if it is loading from delegate. Background refresh is not canceled, since it doesn't belong to the
+     * check which is canceled, and content it saves is used by later checks.
+     */
+    @Override
+    public void cancel() {
+        if (synchronousLoads.get() > 0 && delegate instanceof CancelableLoader) {
+            ((CancelableLoader) delegate).cancel();
+        }
+    }
+
+    /**
+     * Identifies the content this loader returns, which depends on the request of delegate and on the cache file.
+     *
+     * @return Key of the content, or this loader if delegate is identified by the loader itself.
+     */
+    Object key() {
+        Object delegateKey = LoaderKeys.of(delegate);
+        if (delegateKey instanceof Loader) {
+            return this;
+        }
+        return new ContentKey(delegateKey, file.getAbsoluteFile(), ttlMilliseconds);
+    }
+
+    @Override
+    public String load() throws Throwable {
+        if (!file.exists()) {
+            return loadAndSaveSynchronously();
+        }
+        String content;
+        try {
+            content = StreamIo.toString(new FileInputStream(file));
+        } catch (IOException unreadable) {
+            return loadAndSaveSynchronously();
+        }
+        if (System.currentTimeMillis() - file.lastModified() >= ttlMilliseconds) {
+            refreshInBackground();
+        }
+        return content;
+    }
+
+    private String loadAndSave() throws Throwable {
+        String content = delegate.load();
+        save(content);
+        return content;
+    }
+
+    private String loadAndSaveSynchronously() throws Throwable {
+        synchronousLoads.incrementAndGet();
+        try {
+            return loadAndSave();
+        } finally {
+            synchronousLoads.decrementAndGet();
+        }
+    }
+
+    private void refreshInBackground() {
+        final String path = file.getAbsolutePath();
+        if (!REFRESHING.add(path)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        loadAndSave();
+                    } catch (Throwable ignorable) {
+                        // stale content stays until the next successful refresh
+                    } finally {
+                        REFRESHING.remove(path);
+                    }
+                }
+            });
+        } catch (RuntimeException rejected) {
+            REFRESHING.remove(path);
+        }
+    }
+
+    /**
+     * Saves content into temporary file and then replaces cache file with it, so readers never see partially written content.
+     * Every save writes its own temporary file next to the cache file, so concurrent saves never write into the same file.
+     *
+     * @param content Content to save.
+     */
+    private void save(String content) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        File temporary = null;
+        OutputStream out = null;
+        try {
+            temporary = File.createTempFile(file.getName() + ".refresh", ".tmp", directory);
+            out = new FileOutputStream(temporary);
+            out.write(content.getBytes(DEFAULT_CHARSET));
+            out.close();
+            out = null;
+            if (!temporary.renameTo(file)) {
+                temporary.delete();
+            }
+        } catch (IOException ignorable) {
+            // content is still returned, it just won't be cached
+            if (temporary != null) {
+                temporary.delete();
+            }
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignorable) {
+                    // ignorable exception
+                }
+            }
+        }
+    }
+
+    /**
+     * Key of the delegate request together with the cache file and its freshness TTL.
+     */
+    private static final class ContentKey {
+
+        private final Object delegateKey;
+
+        private final File file;
+
+        private final long ttlMilliseconds;
+
+        ContentKey(Object delegateKey, File file, long ttlMilliseconds) {
+            this.delegateKey = delegateKey;
+            this.file = file;
+            this.ttlMilliseconds = ttlMilliseconds;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ContentKey)) {
+                return false;
+            }
+            ContentKey that = (ContentKey) o;
+            return ttlMilliseconds == that.ttlMilliseconds && delegateKey.equals(that.delegateKey) && file.equals(that.file);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = delegateKey.hashCode();
+            result = 31 * result + file.hashCode();
+            result = 31 * result + (int) (ttlMilliseconds ^ (ttlMilliseconds >>> 32));
+            return result;
+        }
+    }
+}
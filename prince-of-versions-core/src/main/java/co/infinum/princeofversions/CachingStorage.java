@@ -0,0 +1,127 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a storage which keeps the last notified version in memory and writes it through to delegate storage in background.
+ * <p>
+ * Delegate storage is read only once, on first access. Saving the version which is already saved does nothing, and versions saved
+ * in quick succession are persisted to delegate storage once, with the latest value.
+ * </p>
+ */
+public final class CachingStorage implements Storage {
+
+    /**
+     * Storage which persists the version.
+     */
+    private final Storage delegate;
+
+    /**
+     * Executor which persists the version.
+     */
+    private final Executor persistExecutor;
+
+    /**
+     * Held while version is being persisted, so persists never overtake each other.
+     */
+    private final Object persistLock = new Object();
+
+    /**
+     * Whether version in memory is known, either loaded from or saved to this storage.
+     */
+    private boolean loaded;
+
+    /**
+     * Whether there is a version in memory.
+     */
+    private boolean present;
+
+    /**
+     * Version in memory, valid only if present.
+     */
+    private int version;
+
+    /**
+     * Whether persist of the version in memory is scheduled and hasn't started yet.
+     */
+    private boolean persistScheduled;
+
+    /**
+     * Creates a new caching storage which persists versions on default executor, after checks which are waiting.
+     *
+     * @param delegate Storage which persists the version.
+     */
+    public CachingStorage(Storage delegate) {
+        this(delegate, new PrinceOfVersionsDefaultExecutor(PrinceOfVersionsWorkerPool.Priority.LOW));
+    }
+
+    /**
+     * Creates a new caching storage.
+     *
+     * @param delegate        Storage which persists the version.
+     * @param persistExecutor Executor which persists the version.
+     */
+    public CachingStorage(Storage delegate, Executor persistExecutor) {
+        this.delegate = delegate;
+        this.persistExecutor = persistExecutor;
+    }
+
+    @Nullable
+    @Override
+    public Integer lastNotifiedVersion(@Nullable Integer defaultValue) {
+        synchronized (this) {
+            if (!loaded) {
+                set(delegate.lastNotifiedVersion(null));
+            }
+            return present ? Integer.valueOf(version) : defaultValue;
+        }
+    }
+
+    @Override
+    public void rememberLastNotifiedVersion(@Nullable Integer version) {
+        synchronized (this) {
+            if (loaded && isSame(version)) {
+                return;
+            }
+            set(version);
+            if (persistScheduled) {
+                return;
+            }
+            persistScheduled = true;
+        }
+        try {
+            persistExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    persist();
+                }
+            });
+        } catch (RuntimeException rejected) {
+            // persisting here clears the scheduled flag too, otherwise no version would ever be persisted again
+            persist();
+        }
+    }
+
+    private void persist() {
+        synchronized (persistLock) {
+            Integer latest;
+            synchronized (this) {
+                persistScheduled = false;
+                latest = present ? Integer.valueOf(version) : null;
+            }
+            delegate.rememberLastNotifiedVersion(latest);
+        }
+    }
+
+    private boolean isSame(@Nullable Integer version) {
+        return version == null ? !present : present && this.version == version;
+    }
+
+    private void set(@Nullable Integer version) {
+        loaded = true;
+        present = version != null;
+        this.version = present ? version : 0;
+    }
+}
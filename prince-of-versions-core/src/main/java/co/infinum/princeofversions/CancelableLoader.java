@@ -0,0 +1,18 @@
+package co.infinum.princeofversions;
+
+/**
+ * This class loads update resource and is able to abort loading which is in progress.
+ * <p>
+ * When an update check is canceled, loading of its resource is aborted, so the thread and the connection are released right away
+ * instead of after the whole resource is loaded.
+ * </p>
+ */
+public interface CancelableLoader extends Loader {
+
+    /**
+     * Aborts loading which is in progress. Interrupted {@link #load()} throws an error, loads started afterwards are not affected.
+     * Can be called from any thread.
+     */
+    void cancel();
+
+}
@@ -0,0 +1,161 @@
+package co.infinum.princeofversions;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reports events of one check to {@link PrinceOfVersionsEventListener}.
+ * <p>
+ * Trace of a running check is bound to the thread which runs it, so parts of the check find it using {@link #current()} without
+ * passing it around. Until the first listener is registered, {@link #current()} doesn't even look at the thread, so checks without
+ * listener don't pay for tracing.
+ * </p>
+ */
+final class CheckTrace {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private static final ThreadLocal<CheckTrace> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Whether any listener was ever registered.
+     */
+    private static volatile boolean installed;
+
+    private final PrinceOfVersionsEventListener listener;
+
+    private final long checkId;
+
+    /**
+     * Trace which was bound to the thread before this one, restored when this one ends.
+     */
+    @Nullable
+    private final CheckTrace previous;
+
+    private long responseBytes = PrinceOfVersionsEventListener.UNKNOWN;
+
+    private int responseStatus = PrinceOfVersionsEventListener.UNKNOWN;
+
+    /**
+     * Error passed to the callback of asynchronous check, which doesn't reach the end of the trace otherwise.
+     */
+    @Nullable
+    private Throwable dispatchedError;
+
+    private CheckTrace(PrinceOfVersionsEventListener listener, long checkId, @Nullable CheckTrace previous) {
+        this.listener = listener;
+        this.checkId = checkId;
+        this.previous = previous;
+    }
+
+    /**
+     * Marks that a listener is registered, so traces are looked up from now on.
+     */
+    static void install() {
+        installed = true;
+    }
+
+    /**
+     * Returns trace of the check running on the current thread.
+     *
+     * @return Trace, or null if check isn't traced.
+     */
+    @Nullable
+    static CheckTrace current() {
+        return installed ? CURRENT.get() : null;
+    }
+
+    /**
+     * Starts trace of a new check and binds it to the current thread.
+     *
+     * @param listener Listener of the check.
+     * @return Trace of the check.
+     */
+    static CheckTrace begin(PrinceOfVersionsEventListener listener) {
+        CheckTrace trace = new CheckTrace(listener, IDS.incrementAndGet(), CURRENT.get());
+        CURRENT.set(trace);
+        listener.onCheckStart(trace.checkId, System.nanoTime());
+        return trace;
+    }
+
+    /**
+     * Ends the trace and unbinds it from the current thread.
+     *
+     * @param error Error of the check, or null if it succeeded.
+     */
+    void end(@Nullable Throwable error) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        listener.onCheckEnd(checkId, System.nanoTime(), error != null ? error : dispatchedError);
+    }
+
+    void loadStart() {
+        responseBytes = PrinceOfVersionsEventListener.UNKNOWN;
+        responseStatus = PrinceOfVersionsEventListener.UNKNOWN;
+        listener.onLoadStart(checkId, System.nanoTime());
+    }
+
+    /**
+     * Remembers network response of the load in progress.
+     *
+     * @param status HTTP status.
+     * @param bytes  Number of bytes received.
+     */
+    void response(int status, long bytes) {
+        responseStatus = status;
+        responseBytes = bytes;
+    }
+
+    void loadEnd() {
+        listener.onLoadEnd(checkId, System.nanoTime(), responseBytes, responseStatus);
+    }
+
+    void parseStart() {
+        listener.onParseStart(checkId, System.nanoTime());
+    }
+
+    void parseEnd() {
+        listener.onParseEnd(checkId, System.nanoTime());
+    }
+
+    void requirementsEvaluated(long startNanos, Map<String, String> requirements, boolean satisfied) {
+        listener.onRequirementsEvaluated(checkId, startNanos, System.nanoTime(), requirements, satisfied);
+    }
+
+    void requirementResultLookup(String key, boolean hit) {
+        listener.onRequirementResultLookup(checkId, System.nanoTime(), key, hit);
+    }
+
+    void decision(UpdateStatus status, int updateVersion) {
+        listener.onDecision(checkId, System.nanoTime(), status, updateVersion);
+    }
+
+    void result(UpdateStatus status) {
+        listener.onResult(checkId, System.nanoTime(), status);
+    }
+
+    void storageRead(long startNanos, @Nullable Integer version) {
+        listener.onStorageRead(checkId, startNanos, System.nanoTime(), version);
+    }
+
+    void storageWrite(long startNanos, int version) {
+        listener.onStorageWrite(checkId, startNanos, System.nanoTime(), version);
+    }
+
+    /**
+     * Reports that result is being passed to the callback.
+     *
+     * @param error Error passed to the callback, or null if check succeeded.
+     */
+    void callbackDispatch(@Nullable Throwable error) {
+        if (error != null) {
+            dispatchedError = error;
+        }
+        listener.onCallbackDispatch(checkId, System.nanoTime());
+    }
+}
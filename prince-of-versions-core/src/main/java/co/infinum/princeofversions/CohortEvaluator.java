@@ -0,0 +1,328 @@
+package co.infinum.princeofversions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class computes update decisions of the same configuration for many devices at once, e.g. to see how many devices get a
+ * mandatory update before a new configuration is published.
+ * <p>
+ * Updates which can be selected are given in order of preference, the same order as in the configuration. Requirements of every update
+ * are compiled into the same plans {@link PrinceOfVersionsEngine} uses, then every {@link DeviceProfile} selects the first update
+ * whose requirements it satisfies and compares its version, the same as the engine would. Profiles are read from an iterator in
+ * batches, which are evaluated by threads of {@link ForkJoinPool}, so profiles don't have to be in memory all at once.
+ * </p>
+ * <p>
+ * Every thread compiles plans once and keeps them for later evaluations, since its plans are bound to the profile the thread
+ * evaluates.
+ * </p>
+ * <p>
+ * Default requirement <i>required_os_version</i> is compared with {@link DeviceProfile#sdkVersionCode()}. Other requirements are
+ * checked by {@link CohortRequirementChecker} added with the same key; requirement without checker is never satisfied.
+ * </p>
+ */
+public final class CohortEvaluator {
+
+    /**
+     * Number of profiles evaluated by one task.
+     */
+    static final int BATCH_SIZE = 8192;
+
+    /**
+     * Number of batches evaluated or waiting for a thread per thread of the pool, which bounds number of profiles held in memory.
+     */
+    private static final int BATCHES_PER_THREAD = 2;
+
+    private final ThreadLocal<ProfileContext> contexts;
+
+    private final ForkJoinPool pool;
+
+    private CohortEvaluator(final Map<String, CohortRequirementChecker> checkers, ForkJoinPool pool) {
+        this.contexts = new ThreadLocal<ProfileContext>() {
+            @Override
+            protected ProfileContext initialValue() {
+                return new ProfileContext(checkers);
+            }
+        };
+        this.pool = pool;
+    }
+
+    /**
+     * Counts update decisions of provided devices.
+     *
+     * @param updates  Updates which can be selected, in order of preference. Update without requirements is always selected.
+     * @param profiles Devices to evaluate.
+     * @return Number of devices per update status.
+     */
+    public CohortReport evaluate(List<PrinceOfVersionsConfig> updates, Iterator<DeviceProfile> profiles) {
+        return evaluate(updates, profiles, false);
+    }
+
+    /**
+     * Computes update decisions of provided devices.
+     *
+     * @param updates        Updates which can be selected, in order of preference. Update without requirements is always selected.
+     * @param profiles       Devices to evaluate.
+     * @param collectResults Whether result of every device is kept, see {@link CohortReport#getResult(int)}.
+     * @return Number of devices per update status and, if requested, result of every device.
+     */
+    public CohortReport evaluate(List<PrinceOfVersionsConfig> updates, Iterator<DeviceProfile> profiles, boolean collectResults) {
+        List<Map<String, String>> requirements = new ArrayList<>(updates.size());
+        PrinceOfVersionsConfig[] configs = new PrinceOfVersionsConfig[updates.size()];
+        for (int i = 0; i < configs.length; i++) {
+            configs[i] = updates.get(i);
+            requirements.add(configs[i].getRequirements());
+        }
+        return evaluate(requirements, configs, profiles, collectResults);
+    }
+
+    /**
+     * Computes update decisions of provided devices for updates read from JSON configuration, which can be invalid.
+     *
+     * @param candidates     Updates read by {@link StreamingJsonConfigurationParser#parseCandidates(CharSequence)}.
+     * @param profiles       Devices to evaluate.
+     * @param collectResults Whether result of every device is kept.
+     * @return Number of devices per update status and, if requested, result of every device.
+     */
+    CohortReport evaluateCandidates(List<StreamingJsonConfigurationParser.Candidate> candidates, Iterator<DeviceProfile> profiles,
+        boolean collectResults) {
+        List<Map<String, String>> requirements = new ArrayList<>(candidates.size());
+        PrinceOfVersionsConfig[] configs = new PrinceOfVersionsConfig[candidates.size()];
+        for (int i = 0; i < configs.length; i++) {
+            requirements.add(candidates.get(i).requirements);
+            configs[i] = candidates.get(i).config;
+        }
+        return evaluate(requirements, configs, profiles, collectResults);
+    }
+
+    private CohortReport evaluate(List<Map<String, String>> requirements, PrinceOfVersionsConfig[] configs,
+        Iterator<DeviceProfile> profiles, boolean collectResults) {
+        long[] counts = new long[CohortReport.SIZE];
+        List<UpdateResult[]> results = collectResults ? new ArrayList<UpdateResult[]>() : null;
+        Deque<Batch> running = new ArrayDeque<>();
+        int maxRunning = pool.getParallelism() * BATCHES_PER_THREAD;
+        try {
+            while (profiles.hasNext()) {
+                DeviceProfile[] batch = new DeviceProfile[BATCH_SIZE];
+                int size = 0;
+                while (size < BATCH_SIZE && profiles.hasNext()) {
+                    batch[size++] = profiles.next();
+                }
+                if (running.size() >= maxRunning) {
+                    collect(running.removeFirst(), counts, results);
+                }
+                Batch task = new Batch(contexts, requirements, configs, batch, size, collectResults);
+                pool.execute(task);
+                running.addLast(task);
+            }
+            while (!running.isEmpty()) {
+                collect(running.removeFirst(), counts, results);
+            }
+        } finally {
+            for (Batch batch : running) {
+                batch.cancel(false);
+            }
+        }
+        return new CohortReport(counts, results, BATCH_SIZE);
+    }
+
+    /**
+     * Waits for the batch and adds its counts and results to the report. Batches are collected in the order of profiles.
+     */
+    private static void collect(Batch batch, long[] counts, @Nullable List<UpdateResult[]> results) {
+        long[] batchCounts = batch.join();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += batchCounts[i];
+        }
+        if (results != null) {
+            results.add(batch.results);
+        }
+    }
+
+    /**
+     * Evaluates one device whose requirements are checked by plans.
+     *
+     * @return Index of the counter in {@link CohortReport}.
+     */
+    private static int evaluate(PrinceOfVersionsRequirementsProcessor.Plan[] plans, PrinceOfVersionsConfig[] configs,
+        DeviceProfile profile, @Nullable UpdateResult[] results, int index) {
+        int selected = PrinceOfVersionsRequirementsProcessor.firstSatisfied(plans);
+        if (selected == PrinceOfVersionsRequirementsProcessor.NONE_SATISFIED) {
+            return CohortReport.NOT_SATISFIED;
+        }
+        PrinceOfVersionsConfig config = configs[selected];
+        if (config == null) {
+            return CohortReport.FAILED;
+        }
+        try {
+            CheckResult result = InteractorImpl.checkVersions(config, profile.version());
+            if (results != null) {
+                results[index] = new UpdateResult(result.getInfo(), result.metadata(), result.status(), result.getUpdateVersion());
+            }
+            return result.status().ordinal();
+        } catch (IllegalStateException noVersion) {
+            return CohortReport.FAILED;
+        }
+    }
+
+    /**
+     * Evaluates a batch of profiles on one thread.
+     */
+    private static final class Batch extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ThreadLocal<ProfileContext> contexts;
+
+        /**
+         * Requirements of every update, null if the update has no requirements.
+         */
+        private final List<Map<String, String>> requirements;
+
+        /**
+         * Configuration of every update, null if the update is invalid.
+         */
+        private final PrinceOfVersionsConfig[] configs;
+
+        private final DeviceProfile[] profiles;
+
+        private final int size;
+
+        @Nullable
+        private final UpdateResult[] results;
+
+        Batch(ThreadLocal<ProfileContext> contexts, List<Map<String, String>> requirements, PrinceOfVersionsConfig[] configs,
+            DeviceProfile[] profiles, int size, boolean collectResults) {
+            this.contexts = contexts;
+            this.requirements = requirements;
+            this.configs = configs;
+            this.profiles = profiles;
+            this.size = size;
+            this.results = collectResults ? new UpdateResult[size] : null;
+        }
+
+        @Override
+        protected long[] compute() {
+            long[] counts = new long[CohortReport.SIZE];
+            ProfileContext context = contexts.get();
+            PrinceOfVersionsRequirementsProcessor.Plan[] plans = context.processor.plans(requirements);
+            for (int i = 0; i < size; i++) {
+                context.profile = profiles[i];
+                counts[evaluate(plans, configs, profiles[i], results, i)]++;
+            }
+            context.profile = null;
+            return counts;
+        }
+    }
+
+    /**
+     * Device evaluated by one thread, together with requirement checkers and plans bound to it.
+     */
+    private static final class ProfileContext implements PrinceOfVersionsDefaultRequirementsChecker.ApplicationVersionProvider {
+
+        private final PrinceOfVersionsRequirementsProcessor processor;
+
+        @Nullable
+        private DeviceProfile profile;
+
+        ProfileContext(Map<String, CohortRequirementChecker> checkers) {
+            Map<String, RequirementChecker> profileCheckers = new HashMap<>();
+            for (Map.Entry<String, CohortRequirementChecker> checker : checkers.entrySet()) {
+                profileCheckers.put(checker.getKey(), new ProfileRequirementChecker(this, checker.getValue()));
+            }
+            profileCheckers.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new PrinceOfVersionsDefaultRequirementsChecker(this));
+            this.processor = new PrinceOfVersionsRequirementsProcessor(profileCheckers);
+        }
+
+        @Override
+        public int provide() {
+            return profile.sdkVersionCode();
+        }
+    }
+
+    /**
+     * Checks requirement of the device evaluated by the context.
+     */
+    private static final class ProfileRequirementChecker implements CompilableRequirementChecker {
+
+        private final ProfileContext context;
+
+        private final CohortRequirementChecker checker;
+
+        ProfileRequirementChecker(ProfileContext context, CohortRequirementChecker checker) {
+            this.context = context;
+            this.checker = checker;
+        }
+
+        @Override
+        public boolean checkRequirements(String value) throws Throwable {
+            return checker.checkRequirements(value, context.profile);
+        }
+
+        /**
+         * Binds the value, so plans call the checker directly.
+         */
+        @Override
+        public Condition compile(final String value) {
+            return new Condition() {
+                @Override
+                public boolean isSatisfied() throws Throwable {
+                    return checker.checkRequirements(value, context.profile);
+                }
+            };
+        }
+    }
+
+    /**
+     * Helper class for building {@link CohortEvaluator} object.
+     * All methods are optional.
+     */
+    public static final class Builder {
+
+        private final Map<String, CohortRequirementChecker> checkers = new HashMap<>();
+
+        @Nullable
+        private ForkJoinPool pool;
+
+        /**
+         * Add a new custom requirements checker.
+         *
+         * @param key                 Key with which we are going to get a wanted requirement from JSON
+         * @param requirementsChecker Requirements checker
+         * @return this builder
+         */
+        public Builder addRequirementsChecker(String key, CohortRequirementChecker requirementsChecker) {
+            this.checkers.put(key, requirementsChecker);
+            return this;
+        }
+
+        /**
+         * Set pool whose threads evaluate devices. By default common pool is used.
+         *
+         * @param pool Fork/join pool
+         * @return this builder
+         */
+        public Builder withPool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Create the {@link CohortEvaluator} instance using the configured values.
+         *
+         * @return CohortEvaluator instance
+         */
+        public CohortEvaluator build() {
+            return new CohortEvaluator(new HashMap<>(checkers), pool != null ? pool : ForkJoinPool.commonPool());
+        }
+    }
+}
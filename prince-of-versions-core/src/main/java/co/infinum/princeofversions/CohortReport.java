@@ -0,0 +1,112 @@
+package co.infinum.princeofversions;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Result of {@link CohortEvaluator}: number of devices per {@link UpdateStatus} and, if requested, result of every device.
+ * <p>
+ * Status is the one reported the first time device checks the configuration, so every device with an optional update is counted as
+ * {@link UpdateStatus#NEW_UPDATE_AVAILABLE}, regardless of notification type.
+ * </p>
+ */
+public final class CohortReport {
+
+    /**
+     * Index of devices whose requirements no update satisfies, after indexes of {@link UpdateStatus} values.
+     */
+    static final int NOT_SATISFIED = UpdateStatus.values().length;
+
+    /**
+     * Index of devices whose selected update is invalid.
+     */
+    static final int FAILED = NOT_SATISFIED + 1;
+
+    /**
+     * Number of counters.
+     */
+    static final int SIZE = FAILED + 1;
+
+    private final long[] counts;
+
+    /**
+     * Results of devices in chunks of {@link #chunkSize}, null if results were not collected.
+     */
+    @Nullable
+    private final List<UpdateResult[]> results;
+
+    private final int chunkSize;
+
+    CohortReport(long[] counts, @Nullable List<UpdateResult[]> results, int chunkSize) {
+        this.counts = counts;
+        this.results = results;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns number of devices with provided status.
+     *
+     * @param status Update status.
+     * @return Number of devices.
+     */
+    public long getCount(UpdateStatus status) {
+        return counts[status.ordinal()];
+    }
+
+    /**
+     * Returns number of devices which don't satisfy requirements of any update. On such device check fails with
+     * {@link RequirementsNotSatisfiedException}.
+     *
+     * @return Number of devices.
+     */
+    public long getRequirementsNotSatisfiedCount() {
+        return counts[NOT_SATISFIED];
+    }
+
+    /**
+     * Returns number of devices whose selected update is invalid, e.g. its version is not a number. On such device check fails.
+     *
+     * @return Number of devices.
+     */
+    public long getFailedCount() {
+        return counts[FAILED];
+    }
+
+    /**
+     * Returns number of evaluated devices.
+     *
+     * @return Number of devices.
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns whether result of every device is available.
+     *
+     * @return true if results were collected.
+     */
+    public boolean hasResults() {
+        return results != null;
+    }
+
+    /**
+     * Returns result of the device at provided position in evaluated profiles.
+     *
+     * @param index Position of the device profile.
+     * @return Result of the device, or null if check fails on the device.
+     * @throws IllegalStateException if results were not collected.
+     */
+    @Nullable
+    public UpdateResult getResult(int index) {
+        if (results == null) {
+            throw new IllegalStateException("Results of devices were not collected.");
+        }
+        return results.get(index / chunkSize)[index % chunkSize];
+    }
+}
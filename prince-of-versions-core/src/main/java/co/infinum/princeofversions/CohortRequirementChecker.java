@@ -0,0 +1,19 @@
+package co.infinum.princeofversions;
+
+/**
+ * Checks custom requirement of an update against a {@link DeviceProfile}, used by {@link CohortEvaluator}.
+ * Counterpart of {@link RequirementChecker}, which checks the requirement against the device it runs on.
+ */
+public interface CohortRequirementChecker {
+
+    /**
+     * Checks whether device satisfies the requirement.
+     * Checker is called concurrently from several threads.
+     *
+     * @param value   Value of the requirement we are checking
+     * @param profile Device which is checked
+     * @return true if device satisfies the requirement
+     * @throws Throwable in case of any error, in which case requirement is not satisfied
+     */
+    boolean checkRequirements(String value, DeviceProfile profile) throws Throwable;
+}
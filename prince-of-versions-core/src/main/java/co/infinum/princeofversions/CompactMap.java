@@ -0,0 +1,367 @@
+package co.infinum.princeofversions;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable map of strings backed by arrays of keys and values, used for small maps such as metadata and requirements.
+ * <p>
+ * Entries are kept in insertion order. Maps with fewer than {@link Builder#INDEX_THRESHOLD} entries are looked up by linear search,
+ * which is faster than hashing for a few entries, larger maps have an open-addressing table of positions. Keys are taken from a shared
+ * pool, so the same key in many maps is one string instance, and hash code of the map is computed once. Values can be
+ * null, keys can't. Maps are never modified, so one instance is shared by config and all results created from it.
+ * </p>
+ */
+final class CompactMap extends AbstractMap<String, String> {
+
+    /**
+     * Empty map.
+     */
+    static final CompactMap EMPTY = new CompactMap(new String[0], new String[0], 0, null);
+
+    /**
+     * Maximum number of pooled keys. Keys of configurations are few, the limit only guards against unbounded growth.
+     */
+    private static final int MAX_POOLED_KEYS = 1024;
+
+    /**
+     * Shared pool of keys.
+     */
+    private static final ConcurrentMap<String, String> KEYS = new ConcurrentHashMap<>();
+
+    private final String[] keys;
+
+    private final String[] values;
+
+    private final int size;
+
+    private final int hashCode;
+
+    /**
+     * Positions of keys plus one by hash of the key, zero marks an empty slot. Length is a power of two at least twice the size, so
+     * probing always ends. Null for small maps.
+     */
+    @Nullable
+    private final int[] table;
+
+    @Nullable
+    private Set<Entry<String, String>> entrySet;
+
+    private CompactMap(String[] keys, String[] values, int size, @Nullable int[] table) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.table = table;
+        int hash = 0;
+        for (int i = 0; i < size; i++) {
+            hash += keys[i].hashCode() ^ (values[i] == null ? 0 : values[i].hashCode());
+        }
+        this.hashCode = hash;
+    }
+
+    /**
+     * Returns immutable map with the same entries, or the map itself if it is already a {@link CompactMap}.
+     *
+     * @param map Map to copy.
+     * @return Compact map with the same entries.
+     */
+    static CompactMap copyOf(Map<String, String> map) {
+        if (map instanceof CompactMap) {
+            return (CompactMap) map;
+        }
+        return new Builder(map.size()).putAll(map).build();
+    }
+
+    /**
+     * Returns map with entries of both maps, where values of the second map override values of the first one.
+     * Returns one of the maps if the other one is empty.
+     *
+     * @param first  Map with default values.
+     * @param second Map with overriding values.
+     * @return Merged map.
+     */
+    static CompactMap merge(Map<String, String> first, Map<String, String> second) {
+        if (second.isEmpty()) {
+            return copyOf(first);
+        }
+        if (first.isEmpty()) {
+            return copyOf(second);
+        }
+        return new Builder(first.size() + second.size()).putAll(first).putAll(second).build();
+    }
+
+    /**
+     * Returns pooled instance of the key.
+     *
+     * @param key Key.
+     * @return Pooled instance equal to the key.
+     */
+    static String intern(String key) {
+        String pooled = KEYS.get(key);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (KEYS.size() >= MAX_POOLED_KEYS) {
+            return key;
+        }
+        pooled = KEYS.putIfAbsent(key, key);
+        return pooled != null ? pooled : key;
+    }
+
+    private int indexOf(@Nullable Object key) {
+        if (table != null) {
+            return key == null ? -1 : indexOf(table, keys, key);
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates table of positions of keys.
+     */
+    private static int[] table(String[] keys, int size) {
+        int[] table = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = slot(keys[i], mask);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    private static int indexOf(int[] table, String[] keys, Object key) {
+        int mask = table.length - 1;
+        for (int slot = slot(key, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            String candidate = keys[table[slot] - 1];
+            if (candidate == key || candidate.equals(key)) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int slot(Object key, int mask) {
+        int hash = key.hashCode();
+        // spreads higher bits, since only the lowest ones select the slot
+        return (hash ^ (hash >>> (Integer.SIZE / 2))) & mask;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Nullable
+    @Override
+    public String get(@Nullable Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        Set<Entry<String, String>> entries = entrySet;
+        if (entries == null) {
+            entries = new EntrySet();
+            entrySet = entries;
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactMap)) {
+            return super.equals(o);
+        }
+        CompactMap that = (CompactMap) o;
+        if (size != that.size || hashCode != that.hashCode) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            int index = that.indexOf(keys[i]);
+            if (index < 0) {
+                return false;
+            }
+            String value = values[i];
+            String other = that.values[index];
+            if (value == null ? other != null : !value.equals(other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Entries of the map, created on demand.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<Entry<String, String>>() {
+
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (index >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+                    index++;
+                    return entry;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Collects entries of a new map. Putting a key which is already present replaces its value.
+     * Builder must not be used after {@link #build()}.
+     * <p>
+     * Present keys are found by linear search until there are {@link #INDEX_THRESHOLD} entries, and by hash index afterwards, so
+     * building large maps doesn't take quadratic time.
+     * </p>
+     */
+    static final class Builder {
+
+        /**
+         * Number of entries from which present keys are looked up in hash index.
+         */
+        static final int INDEX_THRESHOLD = 16;
+
+        private String[] keys;
+
+        private String[] values;
+
+        private int size;
+
+        /**
+         * Positions of keys, created once there are {@link #INDEX_THRESHOLD} entries.
+         */
+        @Nullable
+        private Map<String, Integer> index;
+
+        Builder() {
+            this(2);
+        }
+
+        Builder(int capacity) {
+            keys = new String[Math.max(capacity, 1)];
+            values = new String[keys.length];
+        }
+
+        Builder put(String key, @Nullable String value) {
+            String pooled = intern(key);
+            int position = positionOf(pooled);
+            if (position >= 0) {
+                values[position] = value;
+                return this;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = pooled;
+            values[size] = value;
+            if (index != null) {
+                index.put(pooled, size);
+            }
+            size++;
+            if (index == null && size == INDEX_THRESHOLD) {
+                index = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    index.put(keys[i], i);
+                }
+            }
+            return this;
+        }
+
+        private int positionOf(String key) {
+            if (index != null) {
+                Integer position = index.get(key);
+                return position != null ? position : -1;
+            }
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key || keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Builder putAll(Map<String, String> map) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        CompactMap build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            String[] builtKeys = size == keys.length ? keys : Arrays.copyOf(keys, size);
+            String[] builtValues = size == values.length ? values : Arrays.copyOf(values, size);
+            return new CompactMap(builtKeys, builtValues, size, size >= INDEX_THRESHOLD ? table(builtKeys, size) : null);
+        }
+    }
+}
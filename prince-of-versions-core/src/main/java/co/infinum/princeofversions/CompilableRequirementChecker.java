@@ -0,0 +1,31 @@
+package co.infinum.princeofversions;
+
+/**
+ * Requirement checker which is able to parse the requirement value once and bind it into a {@link Condition}.
+ * Compiled condition is reused for every check of the same requirements, so the value is not parsed again.
+ */
+interface CompilableRequirementChecker extends RequirementChecker {
+
+    /**
+     * Parses requirement value and binds it into condition.
+     *
+     * @param value Value of the requirement
+     * @return Condition which checks the requirement
+     * @throws Throwable if value is not valid, in which case requirement is never satisfied
+     */
+    Condition compile(String value) throws Throwable;
+
+    /**
+     * Requirement with pre-parsed value. Checking it should be cheap compared to {@link RequirementChecker#checkRequirements(String)}.
+     */
+    interface Condition {
+
+        /**
+         * Checks the requirement.
+         *
+         * @return true if requirement is satisfied
+         * @throws Throwable in case of any error, in which case requirement is not satisfied
+         */
+        boolean isSatisfied() throws Throwable;
+    }
+}
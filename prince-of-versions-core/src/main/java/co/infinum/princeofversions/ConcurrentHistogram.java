@@ -0,0 +1,91 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values with fixed buckets, which can be recorded from many threads without locking nor allocation.
+ * <p>
+ * Values below {@link #SUB_BUCKETS} have a bucket each. Every larger power of two range is split into {@link #SUB_BUCKETS} equal
+ * buckets, so a value is known to within 1/{@link #SUB_BUCKETS} of itself, whatever its magnitude. Buckets cover all positive longs.
+ * </p>
+ */
+final class ConcurrentHistogram {
+
+    /**
+     * Bits of a value kept below its highest bit.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * Number of buckets in every power of two range.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Total number of buckets, enough for the highest bit of the largest long.
+     */
+    static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Returns bucket of the value.
+     *
+     * @param value Non-negative value.
+     * @return Index of the bucket.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the lowest value of the bucket.
+     *
+     * @param bucket Index of the bucket.
+     * @return Lowest value which falls into the bucket.
+     */
+    static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value Value to record.
+     */
+    void record(long value) {
+        long recorded = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(recorded));
+        total.addAndGet(recorded);
+        long currentMax = max.get();
+        while (recorded > currentMax && !max.compareAndSet(currentMax, recorded)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Copies recorded values. Values recorded while copying may be partially included.
+     *
+     * @return Snapshot of the histogram.
+     */
+    PrinceOfVersionsMetrics.Histogram snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new PrinceOfVersionsMetrics.Histogram(copy, total.get(), max.get());
+    }
+}
@@ -0,0 +1,107 @@
+package co.infinum.princeofversions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds validators (<i>ETag</i> and <i>Last-Modified</i>) and body of the last successful response for each URL.
+ * <p>
+ * {@link NetworkLoader} created with this cache sends conditional requests and, if server responds with <i>304 Not Modified</i>,
+ * returns previously loaded content without reading response body. Configuration parsed from the content is kept with the response,
+ * so update check which gets <i>304 Not Modified</i> skips parsing as well.
+ * Same instance should be shared between update checks, otherwise there is nothing to revalidate.
+ * </p>
+ */
+public final class ConditionalRequestCache {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    @Nullable
+    synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    synchronized void put(String url, Entry entry) {
+        entries.put(url, entry);
+    }
+
+    /**
+     * Removes all saved responses. Next request for each URL will be unconditional.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Saved response for one URL.
+     */
+    static final class Entry {
+
+        @Nullable
+        private final String etag;
+
+        @Nullable
+        private final String lastModified;
+
+        private final String content;
+
+        /**
+         * Configuration parsed from the content, null until the content is parsed.
+         */
+        @Nullable
+        private volatile ParsedConfiguration parsed;
+
+        Entry(@Nullable String etag, @Nullable String lastModified, String content) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+
+        @Nullable
+        String getEtag() {
+            return etag;
+        }
+
+        @Nullable
+        String getLastModified() {
+            return lastModified;
+        }
+
+        String getContent() {
+            return content;
+        }
+
+        /**
+         * Returns configuration which provided parser parsed from the content.
+         *
+         * @param parser Parser of the configuration.
+         * @return Parsed configuration, or null if the content wasn't parsed by the parser yet.
+         */
+        @Nullable
+        PrinceOfVersionsConfig getParsed(ConfigurationParser parser) {
+            ParsedConfiguration current = parsed;
+            return current != null && current.parser == parser ? current.config : null;
+        }
+
+        void setParsed(ConfigurationParser parser, PrinceOfVersionsConfig config) {
+            parsed = new ParsedConfiguration(parser, config);
+        }
+    }
+
+    /**
+     * Configuration together with the parser which parsed it, since different parsers can evaluate the same content differently.
+     */
+    private static final class ParsedConfiguration {
+
+        private final ConfigurationParser parser;
+
+        private final PrinceOfVersionsConfig config;
+
+        ParsedConfiguration(ConfigurationParser parser, PrinceOfVersionsConfig config) {
+            this.parser = parser;
+            this.config = config;
+        }
+    }
+}
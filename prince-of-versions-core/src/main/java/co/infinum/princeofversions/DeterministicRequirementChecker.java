@@ -0,0 +1,13 @@
+package co.infinum.princeofversions;
+
+/**
+ * Requirement checker whose result depends only on the requirement value and facts which don't change while application runs, e.g.
+ * device ABI, locale or install source.
+ * <p>
+ * Result of such checker is remembered for every value, so the checker is called only once per value no matter how many updates
+ * or checks use it. Errors are not remembered.
+ * </p>
+ */
+public interface DeterministicRequirementChecker extends RequirementChecker {
+
+}
@@ -0,0 +1,78 @@
+package co.infinum.princeofversions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Application version, android version and inputs of custom requirements of one device, evaluated by {@link CohortEvaluator}.
+ */
+public final class DeviceProfile implements ApplicationConfiguration {
+
+    private final int version;
+
+    private final int sdkVersionCode;
+
+    private final Map<String, String> requirementInputs;
+
+    /**
+     * Creates profile without inputs of custom requirements.
+     *
+     * @param version        Installed version code of the application.
+     * @param sdkVersionCode Android version of the device.
+     */
+    public DeviceProfile(int version, int sdkVersionCode) {
+        this(version, sdkVersionCode, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Creates profile.
+     *
+     * @param version           Installed version code of the application.
+     * @param sdkVersionCode    Android version of the device.
+     * @param requirementInputs Device facts which custom requirements are checked against, see {@link CohortRequirementChecker}.
+     */
+    public DeviceProfile(int version, int sdkVersionCode, Map<String, String> requirementInputs) {
+        this.version = version;
+        this.sdkVersionCode = sdkVersionCode;
+        this.requirementInputs = requirementInputs.isEmpty()
+            ? Collections.<String, String>emptyMap()
+            : Collections.unmodifiableMap(new HashMap<>(requirementInputs));
+    }
+
+    @Override
+    public int version() {
+        return version;
+    }
+
+    @Override
+    public int sdkVersionCode() {
+        return sdkVersionCode;
+    }
+
+    /**
+     * Returns device fact with provided key.
+     *
+     * @param key Key of the fact.
+     * @return Value of the fact, or null if device has no such fact.
+     */
+    @Nullable
+    public String getRequirementInput(String key) {
+        return requirementInputs.get(key);
+    }
+
+    public Map<String, String> getRequirementInputs() {
+        return requirementInputs;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceProfile{"
+            + "version=" + version
+            + ", sdkVersionCode=" + sdkVersionCode
+            + ", requirementInputs=" + requirementInputs
+            + '}';
+    }
+}
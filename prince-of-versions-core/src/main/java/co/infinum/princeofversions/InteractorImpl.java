@@ -0,0 +1,166 @@
+package co.infinum.princeofversions;
+
+import java.io.InputStream;
+
+import javax.annotation.Nullable;
+
+final class InteractorImpl implements Interactor {
+
+    private ConfigurationParser configurationParser;
+
+    private final boolean reuseParsedContent;
+
+    /**
+     * Constructs interactor using provided {@link ConfigurationParser}. Content is parsed on every check.
+     *
+     * @param configurationParser object which will be used for parsing update resource.
+     */
+    InteractorImpl(ConfigurationParser configurationParser) {
+        this(configurationParser, false);
+    }
+
+    /**
+     * Constructs interactor using provided {@link ConfigurationParser}.
+     *
+     * @param configurationParser object which will be used for parsing update resource.
+     * @param reuseParsedContent  whether configuration is reused when {@link NetworkLoader} with {@link ConditionalRequestCache} gets
+     *                            <i>304 Not Modified</i>. It can't be reused if requirements of the same content are evaluated
+     *                            differently from check to check.
+     */
+    InteractorImpl(ConfigurationParser configurationParser, boolean reuseParsedContent) {
+        this.configurationParser = configurationParser;
+        this.reuseParsedContent = reuseParsedContent;
+    }
+
+    @Override
+    public CheckResult check(final Loader loader, final ApplicationConfiguration appConfig) throws Throwable {
+        CheckTrace trace = CheckTrace.current();
+        if (trace != null) {
+            trace.loadStart();
+        }
+        if (loader instanceof StreamingLoader && configurationParser instanceof StreamingConfigurationParser) {
+            InputStream stream = ((StreamingLoader) loader).open();
+            if (stream != null) {
+                return checkVersions(parse(stream, trace), appConfig.version());
+            }
+        }
+        if (reuseParsedContent && loader instanceof NetworkLoader) {
+            ConditionalRequestCache.Entry response = ((NetworkLoader) loader).loadEntry();
+            if (trace != null) {
+                trace.loadEnd();
+            }
+            return checkVersions(parse(response, trace), appConfig.version());
+        }
+        String content = loader.load();
+        if (trace != null) {
+            trace.loadEnd();
+        }
+        PrinceOfVersionsConfig config = parse(content, trace);
+        return checkVersions(config, appConfig.version());
+    }
+
+    /**
+     * Compares versions of selected update with current version of the application.
+     *
+     * @param config         Configuration of selected update.
+     * @param currentVersion Current version of the application.
+     * @return Result of the check.
+     * @throws IllegalStateException if neither mandatory nor optional version is provided.
+     */
+    static CheckResult checkVersions(PrinceOfVersionsConfig config, int currentVersion) {
+
+        Integer mandatoryConfigVersion = config.getMandatoryVersion();
+        Integer optionalConfigVersion = config.getOptionalVersion();
+
+        UpdateInfo updateInfo = new UpdateInfo(
+                config.getMandatoryVersion(),
+                config.getOptionalVersion(),
+                config.getRequirements(),
+                currentVersion,
+                config.getOptionalNotificationType()
+        );
+
+        if (mandatoryConfigVersion == null && optionalConfigVersion == null) {
+            // neither mandatory nor optional version is provided
+            throw new IllegalStateException("Both mandatory and optional version are null.");
+        }
+
+        if (mandatoryConfigVersion != null) {
+            int mandatoryVersion = mandatoryConfigVersion;
+
+            if (currentVersion < mandatoryVersion) {
+                // if mandatory update exists - notify mandatory update
+                // if there is also optional update available check if its version is greater than mandatory
+                // in that case notify mandatory update with optional version, otherwise notify mandatory update with mandatory version
+                if (optionalConfigVersion != null) {
+                    int optionalVersion = optionalConfigVersion;
+                    if (optionalVersion > mandatoryVersion) {
+                        // optional update also exists and has greater version than mandatory
+
+                        return CheckResult.mandatoryUpdate(optionalVersion, config.getMetadata(), updateInfo);
+                    }
+                }
+                // if there is no optional update or it isn't greater than mandatory - notify mandatory version
+                return CheckResult.mandatoryUpdate(mandatoryVersion, config.getMetadata(), updateInfo);
+            }
+        }
+
+        // if there is no mandatory update check for optional
+        if (optionalConfigVersion != null) {
+            int optionalVersion = optionalConfigVersion;
+            if (currentVersion < optionalVersion) {
+                return CheckResult.optionalUpdate(optionalVersion, config.getOptionalNotificationType(),
+                        config.getMetadata(), updateInfo);
+            }
+        }
+
+        return CheckResult.noUpdate(currentVersion, config.getMetadata(), updateInfo);
+    }
+
+    private PrinceOfVersionsConfig parse(String content, @Nullable CheckTrace trace) throws Throwable {
+        if (trace != null) {
+            trace.parseStart();
+        }
+        PrinceOfVersionsConfig config = configurationParser.parse(content);
+        if (trace != null) {
+            trace.parseEnd();
+        }
+        return config;
+    }
+
+    /**
+     * Parses content of the response, unless it was already parsed. Response is the same only after <i>304 Not Modified</i>.
+     */
+    private PrinceOfVersionsConfig parse(ConditionalRequestCache.Entry response, @Nullable CheckTrace trace) throws Throwable {
+        PrinceOfVersionsConfig config = response.getParsed(configurationParser);
+        if (config == null) {
+            config = parse(response.getContent(), trace);
+            response.setParsed(configurationParser, config);
+        }
+        return config;
+    }
+
+    /**
+     * Parses configuration while it is read from the stream. Load ends once the stream is opened, reading the rest of it is part of
+     * parsing.
+     */
+    private PrinceOfVersionsConfig parse(InputStream stream, @Nullable CheckTrace trace) throws Throwable {
+        try {
+            if (trace != null) {
+                trace.loadEnd();
+                trace.parseStart();
+            }
+            PrinceOfVersionsConfig config = ((StreamingConfigurationParser) configurationParser).parse(stream);
+            if (trace != null) {
+                trace.parseEnd();
+            }
+            return config;
+        } finally {
+            try {
+                stream.close();
+            } catch (Exception ignorable) {
+                // ignorable exception
+            }
+        }
+    }
+}
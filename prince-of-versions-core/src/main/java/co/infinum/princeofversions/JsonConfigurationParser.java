@@ -4,8 +4,9 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -136,6 +137,10 @@ final class JsonConfigurationParser implements ConfigurationParser {
         Object json = data.get(androidKey);
         if (json instanceof JSONArray) {
             JSONArray android = data.getJSONArray(androidKey);
+            if (requirementsProcessor.hasAsyncCheckers()) {
+                parseFirstFeasibleUpdate(android, builder, meta);
+                return;
+            }
             for (int i = 0; i < android.length(); i++) {
                 JSONObject update = android.getJSONObject(i);
                 if (parseJsonUpdate(update, builder)) {
@@ -154,6 +159,47 @@ final class JsonConfigurationParser implements ConfigurationParser {
         }
     }
 
+    /**
+     * Finds the first feasible update by checking requirements of all updates at once, so asynchronous checks run in parallel.
+     */
+    private void parseFirstFeasibleUpdate(
+        JSONArray android,
+        PrinceOfVersionsConfig.Builder builder,
+        @Nullable JSONObject meta
+    ) throws JSONException {
+
+        List<JSONObject> updates = new ArrayList<>();
+        List<Map<String, String>> candidates = new ArrayList<>();
+        for (int i = 0; i < android.length(); i++) {
+            JSONObject update = android.optJSONObject(i);
+            if (update == null) {
+                // invalid update is reported only if no update before it is feasible
+                break;
+            }
+            JSONObject requirementsJson = update.optJSONObject(REQUIREMENTS);
+            updates.add(update);
+            candidates.add(requirementsJson != null ? parseRequirements(requirementsJson) : null);
+            if (requirementsJson == null) {
+                // update without requirements is always feasible, updates after it are never selected
+                break;
+            }
+        }
+        int selected = requirementsProcessor.firstSatisfied(candidates);
+        if (selected != PrinceOfVersionsRequirementsProcessor.NONE_SATISFIED) {
+            saveUpdate(updates.get(selected), candidates.get(selected), builder);
+            return;
+        }
+        if (updates.size() < android.length()) {
+            // throws the same error as checking updates one by one
+            android.getJSONObject(updates.size());
+        }
+        if (android.length() > 0) {
+            throw new RequirementsNotSatisfiedException(jsonObjectToMap(meta));
+        } else {
+            throw new IllegalArgumentException("JSON doesn't contain any feasible update. Check JSON update format!");
+        }
+    }
+
     private void mergeUpdateMetaWithDefaultMeta(JSONObject update, PrinceOfVersionsConfig.Builder builder) throws JSONException {
         if (update.has(META)) {
             Object updateMeta = update.get(META);
@@ -205,22 +251,32 @@ final class JsonConfigurationParser implements ConfigurationParser {
         if (requirementsJson != null) {
             Map<String, String> requirements = parseRequirements(requirementsJson);
             if (requirementsProcessor.areRequirementsSatisfied(requirements)) {
-                saveFirstAcceptableUpdate(update, builder);
-                mergeUpdateMetaWithDefaultMeta(update, builder);
-                builder.withRequirements(requirements);
+                saveUpdate(update, requirements, builder);
                 return true;
             } else {
                 return false;
             }
         } else {
-            saveFirstAcceptableUpdate(update, builder);
-            mergeUpdateMetaWithDefaultMeta(update, builder);
+            saveUpdate(update, null, builder);
             return true;
         }
     }
 
+    private void saveUpdate(
+        JSONObject update,
+        @Nullable Map<String, String> requirements,
+        PrinceOfVersionsConfig.Builder builder
+    ) throws JSONException {
+
+        saveFirstAcceptableUpdate(update, builder);
+        mergeUpdateMetaWithDefaultMeta(update, builder);
+        if (requirements != null) {
+            builder.withRequirements(requirements);
+        }
+    }
+
     private Map<String, String> parseRequirements(JSONObject requirementsJson) throws JSONException {
-        Map<String, String> requirements = new HashMap<>();
+        CompactMap.Builder requirements = new CompactMap.Builder(requirementsJson.length());
         Iterator<String> it = requirementsJson.keys();
         while (it.hasNext()) {
             String key = it.next();
@@ -229,24 +285,25 @@ final class JsonConfigurationParser implements ConfigurationParser {
                 requirements.put(key, String.valueOf(value));
             }
         }
-        return requirements;
+        return requirements.build();
     }
 
     @VisibleForTesting
     Map<String, String> jsonObjectToMap(@Nullable JSONObject object) throws JSONException {
-        Map<String, String> map = new HashMap<>();
-        if (object != null) {
-            Iterator<String> metadataIterator = object.keys();
-            while (metadataIterator.hasNext()) {
-                String key = metadataIterator.next();
-                Object value = (!object.isNull(key)) ? object.get(key) : null;
-                if (value == null) {
-                    map.put(key, null);
-                } else {
-                    map.put(key, String.valueOf(value));
-                }
+        if (object == null) {
+            return CompactMap.EMPTY;
+        }
+        CompactMap.Builder map = new CompactMap.Builder(object.length());
+        Iterator<String> metadataIterator = object.keys();
+        while (metadataIterator.hasNext()) {
+            String key = metadataIterator.next();
+            Object value = (!object.isNull(key)) ? object.get(key) : null;
+            if (value == null) {
+                map.put(key, null);
+            } else {
+                map.put(key, String.valueOf(value));
             }
         }
-        return map;
+        return map.build();
     }
 }
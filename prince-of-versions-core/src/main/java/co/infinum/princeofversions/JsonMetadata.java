@@ -0,0 +1,201 @@
+package co.infinum.princeofversions;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable map of metadata which is decoded from the JSON text of metadata objects only when it is used.
+ * <p>
+ * Map keeps the text of metadata objects as it is written in the configuration, ordered from the one with lowest precedence (root
+ * metadata) to the one with highest precedence (metadata of the selected update). Keys are located on first access, and a value is
+ * decoded only when it is read, so metadata which is never read costs only a copy of its text. Values are converted to strings the same
+ * way as in the eagerly read metadata.
+ * </p>
+ * <p>
+ * Every text must be a valid JSON object, e.g. one which was already skipped by {@link JsonTokenReader}.
+ * </p>
+ */
+final class JsonMetadata extends AbstractMap<String, String> {
+
+    private final CharSequence[] objects;
+
+    @Nullable
+    private volatile Index index;
+
+    @Nullable
+    private volatile CompactMap values;
+
+    /**
+     * Creates metadata of given JSON objects.
+     *
+     * @param objects Text of metadata objects, in order of increasing precedence.
+     */
+    JsonMetadata(CharSequence... objects) {
+        this.objects = objects;
+    }
+
+    /**
+     * Reads the next value as string. Strings are decoded, booleans returned as written, and numbers, objects and arrays converted the
+     * same way as by {@link JsonConfigurationParser} (see {@link JsonValues}).
+     *
+     * @param reader Reader positioned before the value.
+     * @return Value as string, null if value is JSON null.
+     */
+    @Nullable
+    static String readString(JsonTokenReader reader) {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                StringBuilder value = new StringBuilder();
+                reader.writeValue(value);
+                return JsonValues.value(value.toString());
+            case NUMBER:
+                return JsonValues.number(reader.nextString());
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Returns reader positioned before the value of given key, without decoding the value.
+     *
+     * @param key Metadata key.
+     * @return Reader of the value, or null if there is no such key.
+     */
+    @Nullable
+    JsonTokenReader reader(String key) {
+        Index keys = index();
+        int position = keys.indexOf(key);
+        return position < 0 ? null : new JsonTokenReader(objects[keys.objects[position]], keys.starts[position]);
+    }
+
+    @Override
+    public int size() {
+        return index().size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index().size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return key instanceof String && index().indexOf((String) key) >= 0;
+    }
+
+    @Nullable
+    @Override
+    public String get(@Nullable Object key) {
+        CompactMap decoded = values;
+        if (decoded != null) {
+            return decoded.get(key);
+        }
+        JsonTokenReader reader = key instanceof String ? reader((String) key) : null;
+        return reader != null ? readString(reader) : null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return decoded().entrySet();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        return decoded().equals(o instanceof JsonMetadata ? ((JsonMetadata) o).decoded() : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return decoded().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return decoded().toString();
+    }
+
+    private Index index() {
+        Index local = index;
+        if (local == null) {
+            local = new Index();
+            for (int object = 0; object < objects.length; object++) {
+                JsonTokenReader reader = new JsonTokenReader(objects[object]);
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    local.put(reader.nextName(), object, reader.valueStart());
+                    reader.skipValue();
+                }
+                reader.endObject();
+            }
+            index = local;
+        }
+        return local;
+    }
+
+    /**
+     * Decodes all values, once.
+     */
+    private CompactMap decoded() {
+        CompactMap local = values;
+        if (local == null) {
+            Index keys = index();
+            CompactMap.Builder builder = new CompactMap.Builder(keys.size);
+            for (int i = 0; i < keys.size; i++) {
+                builder.put(keys.keys[i], readString(new JsonTokenReader(objects[keys.objects[i]], keys.starts[i])));
+            }
+            local = builder.build();
+            values = local;
+        }
+        return local;
+    }
+
+    /**
+     * Keys and positions of their values. Key which appears again replaces the position of the previous one.
+     */
+    private static final class Index {
+
+        private String[] keys = new String[2];
+
+        private int[] objects = new int[2];
+
+        private int[] starts = new int[2];
+
+        private int size;
+
+        void put(String key, int object, int start) {
+            String pooled = CompactMap.intern(key);
+            int existing = indexOf(pooled);
+            if (existing < 0) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    objects = Arrays.copyOf(objects, size * 2);
+                    starts = Arrays.copyOf(starts, size * 2);
+                }
+                existing = size;
+                keys[size] = pooled;
+                size++;
+            }
+            objects[existing] = object;
+            starts[existing] = start;
+        }
+
+        int indexOf(String key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key || keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,602 @@
+package co.infinum.princeofversions;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.annotation.Nullable;
+
+/**
+ * Pull reader which reads <a href="http://www.json.org/">JSON</a> content one token at a time, directly from the source text.
+ * <p>
+ * Values which are not needed can be skipped without decoding them, and position of every value in the source is available, so
+ * parts of the content can be read again later using {@link #JsonTokenReader(CharSequence, int)}.
+ * </p>
+ * <p>
+ * Content can be a {@link StreamedCharSequence}, which is read further only when the reader reaches the end of characters read so far.
+ * </p>
+ * <p>
+ * Reader accepts the same relaxed syntax as <i>org.json</i> parser: unquoted names and values, single quoted strings and trailing
+ * content after the root value.
+ * </p>
+ */
+final class JsonTokenReader {
+
+    /**
+     * Type of the next token in content.
+     */
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final int INITIAL_STACK_SIZE = 16;
+
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+
+    private static final int HEX_RADIX = 16;
+
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
+    private static final String NULL = "null";
+
+    private final CharSequence in;
+
+    /**
+     * Content which is still being read, null if the whole content is known up front.
+     */
+    @Nullable
+    private final StreamedCharSequence streamed;
+
+    private int length;
+
+    private int pos;
+
+    private int[] stack = new int[INITIAL_STACK_SIZE];
+
+    private int stackSize;
+
+    @Nullable
+    private Token peeked;
+
+    /**
+     * Position of the first character of peeked token.
+     */
+    private int tokenStart;
+
+    /**
+     * Quote character of peeked string or name, or zero if it is unquoted.
+     */
+    private char quote;
+
+    /**
+     * End position of peeked unquoted literal.
+     */
+    private int literalEnd;
+
+    JsonTokenReader(CharSequence in) {
+        this(in, 0);
+    }
+
+    /**
+     * Creates a reader which reads one value starting at given position.
+     *
+     * @param in    Content.
+     * @param start Position of the value, usually one returned by {@link #valueStart()}.
+     */
+    JsonTokenReader(CharSequence in, int start) {
+        this.in = in;
+        this.streamed = in instanceof StreamedCharSequence ? (StreamedCharSequence) in : null;
+        this.length = in.length();
+        this.pos = start;
+        push(EMPTY_DOCUMENT);
+    }
+
+    Token peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+        int context = stack[stackSize - 1];
+        switch (context) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    return peeked(Token.END_ARRAY);
+                }
+                pos--;
+                return peekValue();
+            case NONEMPTY_ARRAY:
+                char arraySeparator = nextNonWhitespace();
+                if (arraySeparator == ']') {
+                    return peeked(Token.END_ARRAY);
+                } else if (arraySeparator != ',' && arraySeparator != ';') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                if (nextNonWhitespace() == ']') {
+                    return peeked(Token.END_ARRAY);
+                }
+                pos--;
+                return peekValue();
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                char objectSeparator = nextNonWhitespace();
+                if (objectSeparator == '}') {
+                    return peeked(Token.END_OBJECT);
+                } else if (context == NONEMPTY_OBJECT) {
+                    if (objectSeparator != ',' && objectSeparator != ';') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    if (nextNonWhitespace() == '}') {
+                        return peeked(Token.END_OBJECT);
+                    }
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                pos--;
+                return peekName();
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                char nameSeparator = nextNonWhitespace();
+                if (nameSeparator == '=') {
+                    if (has(pos) && in.charAt(pos) == '>') {
+                        pos++;
+                    }
+                } else if (nameSeparator != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                return peekValue();
+            case EMPTY_DOCUMENT:
+                Token root = peekValue();
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return root;
+            case NONEMPTY_DOCUMENT:
+            default:
+                return peeked(Token.END_DOCUMENT);
+        }
+    }
+
+    boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        peeked = null;
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() {
+        expect(Token.END_OBJECT);
+        peeked = null;
+        stackSize--;
+    }
+
+    void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        peeked = null;
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() {
+        expect(Token.END_ARRAY);
+        peeked = null;
+        stackSize--;
+    }
+
+    String nextName() {
+        expect(Token.NAME);
+        return nextText();
+    }
+
+    /**
+     * Reads string value. Number and boolean values are returned as they are written in the content.
+     *
+     * @return String value.
+     */
+    String nextString() {
+        Token token = peek();
+        if (token == Token.BOOLEAN) {
+            peeked = null;
+            pos = literalEnd;
+            return in.subSequence(tokenStart, literalEnd).toString().toLowerCase(Locale.US);
+        }
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw syntaxError("Expected a string but was " + token);
+        }
+        return nextText();
+    }
+
+    void nextNull() {
+        expect(Token.NULL);
+        peeked = null;
+        pos = literalEnd;
+    }
+
+    /**
+     * Reads the next value, including all nested values, and returns it exactly as it is written in the content.
+     *
+     * @return Source text of the value.
+     */
+    String nextRawValue() {
+        int start = valueStart();
+        skipValue();
+        return in.subSequence(start, pos).toString();
+    }
+
+    /**
+     * Skips the next value, including all nested values, without decoding it.
+     */
+    void skipValue() {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of content");
+                case NAME:
+                case STRING:
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                default:
+                    peeked = null;
+                    if (quote != 0) {
+                        skipQuoted();
+                    } else {
+                        pos = literalEnd;
+                    }
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Returns position of the first character of the next value.
+     *
+     * @return Position in content.
+     */
+    int valueStart() {
+        peek();
+        return tokenStart;
+    }
+
+    /**
+     * Reads the next value, including all nested values, and writes it into compact JSON representation.
+     *
+     * @param out Builder to write to.
+     */
+    void writeValue(StringBuilder out) {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                out.append('{');
+                boolean firstMember = true;
+                while (hasNext()) {
+                    if (!firstMember) {
+                        out.append(',');
+                    }
+                    firstMember = false;
+                    quote(nextName(), out);
+                    out.append(':');
+                    writeValue(out);
+                }
+                endObject();
+                out.append('}');
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                out.append('[');
+                boolean firstElement = true;
+                while (hasNext()) {
+                    if (!firstElement) {
+                        out.append(',');
+                    }
+                    firstElement = false;
+                    writeValue(out);
+                }
+                endArray();
+                out.append(']');
+                break;
+            case STRING:
+                quote(nextString(), out);
+                break;
+            case NULL:
+                nextNull();
+                out.append(NULL);
+                break;
+            case NUMBER:
+            case BOOLEAN:
+            default:
+                out.append(nextString());
+                break;
+        }
+    }
+
+    private Token peekValue() {
+        char c = nextNonWhitespace();
+        tokenStart = pos - 1;
+        switch (c) {
+            case '{':
+                return peeked(Token.BEGIN_OBJECT);
+            case '[':
+                return peeked(Token.BEGIN_ARRAY);
+            case '"':
+            case '\'':
+                quote = c;
+                return peeked(Token.STRING);
+            default:
+                pos--;
+                return peekLiteral();
+        }
+    }
+
+    private Token peekName() {
+        char c = nextNonWhitespace();
+        tokenStart = pos - 1;
+        if (c == '"' || c == '\'') {
+            quote = c;
+        } else if (c == '}' || c == ']' || c == ',' || c == ':') {
+            throw syntaxError("Expected a name");
+        } else {
+            pos--;
+            quote = 0;
+            literalEnd = literalEnd(pos);
+        }
+        return peeked(Token.NAME);
+    }
+
+    private Token peekLiteral() {
+        quote = 0;
+        literalEnd = literalEnd(pos);
+        if (literalEnd == pos) {
+            throw syntaxError("Expected a value");
+        }
+        String literal = in.subSequence(pos, literalEnd).toString();
+        if (TRUE.equalsIgnoreCase(literal) || FALSE.equalsIgnoreCase(literal)) {
+            return peeked(Token.BOOLEAN);
+        } else if (NULL.equalsIgnoreCase(literal)) {
+            return peeked(Token.NULL);
+        }
+        char first = literal.charAt(0);
+        if ((first >= '0' && first <= '9') || first == '-') {
+            return peeked(Token.NUMBER);
+        }
+        return peeked(Token.STRING);
+    }
+
+    private int literalEnd(int from) {
+        int end = from;
+        while (has(end)) {
+            char c = in.charAt(end);
+            if (c <= ' ' || ",:]}/\\\"[{;=#'".indexOf(c) >= 0) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Consumes peeked string, name or literal and returns its decoded text.
+     */
+    private String nextText() {
+        peeked = null;
+        if (quote == 0) {
+            pos = literalEnd;
+            return in.subSequence(tokenStart, literalEnd).toString();
+        }
+        int start = pos;
+        while (has(pos)) {
+            char c = in.charAt(pos);
+            if (c == quote) {
+                String text = in.subSequence(start, pos).toString();
+                pos++;
+                return text;
+            } else if (c == '\\') {
+                return nextEscapedText(start);
+            } else if (c == '\n' || c == '\r') {
+                break;
+            }
+            pos++;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private String nextEscapedText(int start) {
+        StringBuilder builder = new StringBuilder().append(in, start, pos);
+        while (has(pos)) {
+            char c = in.charAt(pos++);
+            if (c == quote) {
+                return builder.toString();
+            } else if (c == '\\') {
+                builder.append(readEscapeCharacter());
+            } else if (c == '\n' || c == '\r') {
+                break;
+            } else {
+                builder.append(c);
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private char readEscapeCharacter() {
+        if (!has(pos)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char escaped = in.charAt(pos++);
+        switch (escaped) {
+            case 'u':
+                if (!has(pos + UNICODE_ESCAPE_LENGTH - 1)) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                try {
+                    char result = (char) Integer.parseInt(in.subSequence(pos, pos + UNICODE_ESCAPE_LENGTH).toString(), HEX_RADIX);
+                    pos += UNICODE_ESCAPE_LENGTH;
+                    return result;
+                } catch (NumberFormatException invalid) {
+                    throw syntaxError("Illegal escape sequence");
+                }
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                return escaped;
+            default:
+                throw syntaxError("Illegal escape sequence");
+        }
+    }
+
+    private void skipQuoted() {
+        while (has(pos)) {
+            char c = in.charAt(pos++);
+            if (c == quote) {
+                return;
+            } else if (c == '\\') {
+                pos++;
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private char nextNonWhitespace() {
+        while (has(pos)) {
+            char c = in.charAt(pos++);
+            if (c > ' ') {
+                return c;
+            }
+        }
+        if (stack[stackSize - 1] == NONEMPTY_DOCUMENT) {
+            return 0;
+        }
+        throw syntaxError("Unexpected end of content");
+    }
+
+    /**
+     * Returns whether content has character at given position, reading more of streamed content if needed.
+     */
+    private boolean has(int position) {
+        if (position < length) {
+            return true;
+        }
+        if (streamed == null) {
+            return false;
+        }
+        length = streamed.fill(position + 1);
+        return position < length;
+    }
+
+    private Token peeked(Token token) {
+        peeked = token;
+        return token;
+    }
+
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = context;
+    }
+
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException("Malformed JSON: " + message + " at position " + pos);
+    }
+
+    /**
+     * Writes string as a quoted JSON string, escaping characters the same way <i>org.json</i> does.
+     */
+    private static void quote(String value, StringBuilder out) {
+        out.append('"');
+        char previous = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    out.append('\\').append(c);
+                    break;
+                case '/':
+                    if (previous == '<') {
+                        out.append('\\');
+                    }
+                    out.append(c);
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                        String hex = Integer.toHexString(c);
+                        out.append("\\u");
+                        for (int pad = hex.length(); pad < UNICODE_ESCAPE_LENGTH; pad++) {
+                            out.append('0');
+                        }
+                        out.append(hex);
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+            previous = c;
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,93 @@
+package co.infinum.princeofversions;
+
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+/**
+ * Utility class which converts numbers and nested values of JSON text to strings the same way as {@link JsonConfigurationParser}.
+ * <p>
+ * Tree parser converts every value with {@code String.valueOf} of the value created by {@code org.json}, which rewrites numbers, e.g.
+ * {@code 1e2}, and nested arrays and objects. Implementations of {@code org.json} on Android and on plain JVM rewrite them differently,
+ * so values are converted by the same implementation of {@code org.json}. Integers which fit in {@code int} are written the same way
+ * by every implementation, so they are returned as written without it. If {@code org.json} is not available, which happens only on
+ * plain JVM where the tree parser can't be used either, values are returned as written.
+ * </p>
+ */
+final class JsonValues {
+
+    /**
+     * Longest integer which surely fits in {@code int}, without sign.
+     */
+    private static final int MAX_PLAIN_INTEGER_DIGITS = 9;
+
+    private static final boolean ORG_JSON_AVAILABLE = isOrgJsonAvailable();
+
+    private JsonValues() {
+
+    }
+
+    /**
+     * Converts number to string.
+     *
+     * @param number Text of a JSON number.
+     * @return Number as string.
+     */
+    static String number(String number) {
+        return isPlainInteger(number) ? number : value(number);
+    }
+
+    /**
+     * Converts number, array or object to string.
+     *
+     * @param json Valid JSON text of the value.
+     * @return Value as string.
+     */
+    static String value(String json) {
+        return ORG_JSON_AVAILABLE ? OrgJson.value(json) : json;
+    }
+
+    /**
+     * Returns whether number is an integer which fits in {@code int} and isn't negative zero.
+     */
+    private static boolean isPlainInteger(String number) {
+        int start = number.charAt(0) == '-' ? 1 : 0;
+        int digits = number.length() - start;
+        if (digits == 0 || digits > MAX_PLAIN_INTEGER_DIGITS || (number.charAt(start) == '0' && (digits > 1 || start > 0))) {
+            return false;
+        }
+        for (int i = start; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOrgJsonAvailable() {
+        try {
+            Class.forName("org.json.JSONTokener");
+            return true;
+        } catch (ClassNotFoundException | LinkageError missing) {
+            return false;
+        }
+    }
+
+    /**
+     * Calls to {@code org.json}, in a separate class, so it is loaded only if {@code org.json} is available.
+     */
+    private static final class OrgJson {
+
+        private OrgJson() {
+
+        }
+
+        static String value(String json) {
+            try {
+                return String.valueOf(new JSONTokener(json).nextValue());
+            } catch (JSONException invalid) {
+                return json;
+            }
+        }
+    }
+}
@@ -4,24 +4,37 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nullable;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+/**
+ * Holder of a value which is created on first use.
+ * <p>
+ * Use {@link #get()} to access the value directly, and {@link #prefetch(Executor)} to create it on a background thread before it is
+ * needed. If creation fails, the value will be created again on next access.
+ * </p>
+ *
+ * @param <T> Type of the value.
+ */
 final class Lazy<T> {
 
     private Callable<T> creator;
 
     @Nullable
     private volatile T instance;
-    private AtomicBoolean hasBeenInitialized = new AtomicBoolean(false);
+    private volatile boolean hasBeenInitialized;
 
     Lazy(final Callable<T> creator) {
         this.creator = creator;
     }
 
+    /**
+     * Creates a proxy which creates the value on first method call and delegates every call to it using reflection.
+     * Prefer holding {@link Lazy} and calling {@link #get()}, which avoids reflective dispatch.
+     */
     @SuppressWarnings("unchecked")
     static <T> T create(Class<T> clazz, Callable<T> creator) {
         final Lazy<T> lazy = new Lazy<>(creator);
@@ -38,26 +51,55 @@ final class Lazy<T> {
         });
     }
 
+    /**
+     * Returns the value, creating it on the caller's thread if it hasn't been created yet.
+     *
+     * @return The value.
+     */
     @Nullable
-    private T get() {
-        if (!hasBeenInitialized.get()) {
+    T get() {
+        if (!hasBeenInitialized) {
             synchronized (this) {
-                if (!hasBeenInitialized.getAndSet(true)) {
+                if (!hasBeenInitialized) {
                     try {
                         instance = creator.call();
+                    } catch (RuntimeException exception) {
+                        throw exception;
                     } catch (Throwable throwable) {
                         throw new RuntimeException(throwable);
-                    } finally {
-                        cleanup();
                     }
+                    hasBeenInitialized = true;
+                    cleanup();
                 }
             }
         }
         return instance;
     }
 
+    /**
+     * Starts creating the value on given executor, so the first call of {@link #get()} doesn't have to wait for it.
+     * Failure is ignored, creation is repeated on next access.
+     *
+     * @param executor Executor which creates the value.
+     */
+    void prefetch(Executor executor) {
+        if (hasBeenInitialized) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    get();
+                } catch (RuntimeException ignored) {
+                    // will be thrown again to the caller of get()
+                }
+            }
+        });
+    }
+
     private boolean isInitialized() {
-        return hasBeenInitialized.get();
+        return hasBeenInitialized;
     }
 
     @SuppressFBWarnings(
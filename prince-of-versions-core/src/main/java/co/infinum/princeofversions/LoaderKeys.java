@@ -0,0 +1,41 @@
+package co.infinum.princeofversions;
+
+/**
+ * Utility class for identifying resources loaded by {@link Loader}.
+ */
+final class LoaderKeys {
+
+    private LoaderKeys() {
+
+    }
+
+    /**
+     * Creates key identifying the resource loaded by provided loader.
+     * Network loaders which make the same request share the same key, even though a new loader is created for every check. Caching
+     * loaders have their own key, made of the key of their delegate and their cache file. Any other loader is identified by the
+     * instance itself.
+     *
+     * @param loader Loader.
+     * @return Key of the loaded resource.
+     */
+    static Object of(Loader loader) {
+        if (loader instanceof NetworkLoader) {
+            return ((NetworkLoader) loader).key();
+        } else if (loader instanceof CachingLoader) {
+            return ((CachingLoader) loader).key();
+        }
+        return loader;
+    }
+
+    /**
+     * Returns whether the resource loaded by provided loader has a key which outlives the loader, so something can be remembered
+     * for it without keeping the loader itself. Only loaders whose whole request is known have such a key, i.e. network loaders which
+     * are not subclassed and caching loaders of them.
+     *
+     * @param loader Loader.
+     * @return true if a new loader of the same resource has the same key.
+     */
+    static boolean isStable(Loader loader) {
+        return !(of(loader) instanceof Loader);
+    }
+}
@@ -0,0 +1,131 @@
+package co.infinum.princeofversions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bounded cache which forgets least recently used entries first.
+ * <p>
+ * Lookups don't lock. Every entry remembers the number of insertions made before it was last used, so entries used since the latest
+ * insertions are kept while entries nobody used for a while are dropped. Once the cache is over its size, a quarter of the entries is
+ * dropped at once, so the cost of sorting entries is spread over many insertions.
+ * </p>
+ *
+ * @param <K> Type of keys.
+ * @param <V> Type of values.
+ */
+final class LruCache<K, V> {
+
+    /**
+     * Part of the maximum size which is dropped at once, as a shift: 2 drops a quarter.
+     */
+    private static final int EVICTION_SHIFT = 2;
+
+    private final ConcurrentMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Number of insertions so far.
+     */
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final int maxSize;
+
+    /**
+     * Creates cache with provided maximum size.
+     *
+     * @param maxSize Maximum number of entries, positive.
+     */
+    LruCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns value of provided key and marks it as used.
+     *
+     * @param key Key of the value.
+     * @return Value, or null if the key is not cached.
+     */
+    @Nullable
+    V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        long now = insertions.get();
+        if (node.lastUsed != now) {
+            // skipping the write when nothing was inserted since keeps hot entries from bouncing between caches of cores
+            node.lastUsed = now;
+        }
+        return node.value;
+    }
+
+    /**
+     * Caches value of provided key, dropping least recently used entries if the cache is full.
+     *
+     * @param key   Key of the value.
+     * @param value Value.
+     */
+    void put(K key, V value) {
+        entries.put(key, new Node<>(value, insertions.incrementAndGet()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Returns number of cached entries.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private synchronized void evict() {
+        if (entries.size() <= maxSize) {
+            // another thread evicted in the meantime
+            return;
+        }
+        List<Map.Entry<K, Node<V>>> snapshot = new ArrayList<>(entries.entrySet());
+        // usage is read once, since it can change while entries are sorted
+        final Map<Map.Entry<K, Node<V>>, Long> lastUsed = new IdentityHashMap<>();
+        for (Map.Entry<K, Node<V>> entry : snapshot) {
+            lastUsed.put(entry, entry.getValue().lastUsed);
+        }
+        Collections.sort(snapshot, new Comparator<Map.Entry<K, Node<V>>>() {
+            @Override
+            public int compare(Map.Entry<K, Node<V>> first, Map.Entry<K, Node<V>> second) {
+                long firstUsed = lastUsed.get(first);
+                long secondUsed = lastUsed.get(second);
+                return firstUsed < secondUsed ? -1 : firstUsed == secondUsed ? 0 : 1;
+            }
+        });
+        int toRemove = snapshot.size() - maxSize + (maxSize >> EVICTION_SHIFT);
+        for (int i = 0; i < toRemove && i < snapshot.size(); i++) {
+            Map.Entry<K, Node<V>> entry = snapshot.get(i);
+            entries.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Cached value together with its last use.
+     */
+    private static final class Node<V> {
+
+        private final V value;
+
+        private volatile long lastUsed;
+
+        Node(V value, long lastUsed) {
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package co.infinum.princeofversions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a storage which keeps the last notified version in a small memory-mapped file, shared by all processes of the application.
+ * <p>
+ * File has a fixed layout with {@link #SLOTS} slots, so {@code prince-of-versions} and {@code queen-of-versions} can keep their
+ * versions in the same file using {@link #PRINCE_OF_VERSIONS_SLOT} and {@link #QUEEN_OF_VERSIONS_SLOT}. Every slot holds the last
+ * notified version and the number of times it was changed.
+ * </p>
+ * <p>
+ * Reads don't take any lock, every value in the file carries its own check bits, so a value which is being written by another process
+ * is never returned half-written. Writes are compare-and-set operations which hold a lock on the slot, both within the process and
+ * between processes. Values are written to the mapped memory only, operating system writes them to the file later.
+ * </p>
+ * <p>
+ * If the file can't be opened, the storage behaves as if nothing was saved and saved versions are lost.
+ * </p>
+ */
+public final class MappedFileStorage implements Storage {
+
+    /**
+     * Number of slots in the file.
+     */
+    public static final int SLOTS = 8;
+
+    /**
+     * Slot used for the last version notified by {@code prince-of-versions}.
+     */
+    public static final int PRINCE_OF_VERSIONS_SLOT = 0;
+
+    /**
+     * Slot used for the last version notified by {@code queen-of-versions}.
+     */
+    public static final int QUEEN_OF_VERSIONS_SLOT = 1;
+
+    private static final int MAGIC = 0x504F5653;
+
+    private static final int LAYOUT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SLOT_SIZE = 16;
+
+    private static final int COUNT_OFFSET = 8;
+
+    private static final int FILE_SIZE = HEADER_SIZE + SLOTS * SLOT_SIZE;
+
+    private static final long EMPTY = 0L;
+
+    private static final long LOW_BITS = 0xFFFFFFFFL;
+
+    private static final int HIGH_SHIFT = 32;
+
+    private static final int MAX_READ_ATTEMPTS = 100;
+
+    /**
+     * Mapped files by canonical path, shared by all instances in the process, because one process can't lock the same region twice.
+     */
+    private static final Map<String, Mapping> MAPPINGS = new HashMap<>();
+
+    /**
+     * File which holds the slots.
+     */
+    private final File file;
+
+    /**
+     * Offset of the slot in the file.
+     */
+    private final int offset;
+
+    @Nullable
+    private volatile Mapping mapping;
+
+    /**
+     * Creates a new storage which keeps the last notified version in a slot of given file.
+     * File is created when it's first used.
+     *
+     * @param file File which holds the slots, usually in application's files directory.
+     * @param slot Slot of this storage, between 0 and {@link #SLOTS} - 1.
+     * @throws IllegalArgumentException if slot is out of range.
+     */
+    public MappedFileStorage(File file, int slot) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IllegalArgumentException("Slot must be between 0 and " + (SLOTS - 1) + ", was " + slot);
+        }
+        this.file = file;
+        this.offset = HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    @Nullable
+    @Override
+    public Integer lastNotifiedVersion(@Nullable Integer defaultValue) {
+        long packed;
+        try {
+            packed = mapping().read(offset);
+        } catch (IOException unreadable) {
+            return defaultValue;
+        }
+        return packed == EMPTY ? defaultValue : Integer.valueOf((int) packed);
+    }
+
+    @Override
+    public void rememberLastNotifiedVersion(@Nullable Integer version) {
+        try {
+            Mapping mapping = mapping();
+            long update = pack(version);
+            long current;
+            do {
+                current = mapping.read(offset);
+                if (current == update) {
+                    return;
+                }
+            } while (!mapping.compareAndSet(offset, current, update));
+        } catch (IOException ignorable) {
+            // version won't be remembered
+        }
+    }
+
+    /**
+     * Saves the last notified version only if the saved version is equal to the expected one, e.g. so that only one process notifies
+     * the user about a new version.
+     *
+     * @param expected Expected saved version, null if nothing is expected to be saved.
+     * @param version  Version to be saved.
+     * @return true if the version was saved, false if the saved version was different or the file couldn't be opened.
+     */
+    public boolean compareAndSetLastNotifiedVersion(@Nullable Integer expected, @Nullable Integer version) {
+        try {
+            return mapping().compareAndSet(offset, pack(expected), pack(version));
+        } catch (IOException ignorable) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of times the last notified version in this slot was changed, by any process.
+     *
+     * @return Number of changes, or 0 if the file couldn't be opened.
+     */
+    public long getChangeCount() {
+        try {
+            long packed = mapping().read(offset + COUNT_OFFSET);
+            return packed == EMPTY ? 0 : (int) packed & LOW_BITS;
+        } catch (IOException ignorable) {
+            return 0;
+        }
+    }
+
+    private Mapping mapping() throws IOException {
+        Mapping local = mapping;
+        if (local == null || !local.isOpen()) {
+            local = Mapping.open(file);
+            mapping = local;
+        }
+        return local;
+    }
+
+    /**
+     * Packs the value with its complement in high bits, so a half-written value fails the check. Zero is never a valid packed value.
+     */
+    private static long pack(@Nullable Integer value) {
+        return value == null ? EMPTY : pack(value.intValue());
+    }
+
+    private static long pack(int value) {
+        return ((long) ~value << HIGH_SHIFT) | (value & LOW_BITS);
+    }
+
+    private static boolean isValid(long packed) {
+        return packed == EMPTY || (int) (packed >>> HIGH_SHIFT) == ~(int) packed;
+    }
+
+    /**
+     * Memory-mapped file with the channel used for locking.
+     */
+    private static final class Mapping {
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private Mapping(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Mapping open(File file) throws IOException {
+            String path = file.getCanonicalPath();
+            synchronized (MAPPINGS) {
+                Mapping mapping = MAPPINGS.get(path);
+                if (mapping == null || !mapping.isOpen()) {
+                    // channel closed by an interrupt can't lock anymore, so the file is mapped again
+                    mapping = map(file);
+                    MAPPINGS.put(path, mapping);
+                }
+                return mapping;
+            }
+        }
+
+        private static Mapping map(File file) throws IOException {
+            File directory = file.getParentFile();
+            if (directory != null && !directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Cannot create directory " + directory);
+            }
+            FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+            try {
+                Mapping mapping = new Mapping(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE));
+                mapping.initialize();
+                return mapping;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Writes the header into a new file, and clears all slots of a file which has an unknown layout.
+         */
+        private void initialize() throws IOException {
+            FileLock lock = lock(0, FILE_SIZE);
+            try {
+                if (buffer.getInt(0) == MAGIC && buffer.getInt(Integer.SIZE / Byte.SIZE) == LAYOUT_VERSION) {
+                    return;
+                }
+                for (int position = HEADER_SIZE; position < FILE_SIZE; position += Long.SIZE / Byte.SIZE) {
+                    buffer.putLong(position, EMPTY);
+                }
+                buffer.putInt(Integer.SIZE / Byte.SIZE, LAYOUT_VERSION);
+                buffer.putInt(0, MAGIC);
+            } finally {
+                lock.release();
+            }
+        }
+
+        boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        /**
+         * Locks region of the file. Interrupt would close the channel shared by all storages of the file, e.g. when the check which
+         * saves a version is canceled, so interrupt status is cleared while waiting for the lock and restored afterwards.
+         */
+        private FileLock lock(long position, long size) throws IOException {
+            boolean interrupted = Thread.interrupted();
+            try {
+                return channel.lock(position, size, false);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Reads packed value, retrying while it is being written. Value which stays invalid is considered empty.
+         */
+        long read(int position) {
+            for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+                long packed = buffer.getLong(position);
+                if (isValid(packed)) {
+                    return packed;
+                }
+                Thread.yield();
+            }
+            return EMPTY;
+        }
+
+        synchronized boolean compareAndSet(int offset, long expected, long update) throws IOException {
+            FileLock lock = lock(offset, SLOT_SIZE);
+            try {
+                if (read(offset) != expected) {
+                    return false;
+                }
+                long count = read(offset + COUNT_OFFSET);
+                int next = count == EMPTY ? 1 : (int) count + 1;
+                buffer.putLong(offset, update);
+                buffer.putLong(offset + COUNT_OFFSET, pack(next));
+                return true;
+            } finally {
+                lock.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package co.infinum.princeofversions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps the last {@link CheckResult} of every resource in memory.
+ * <p>
+ * While the result is younger than TTL, checks of the same resource (see {@link LoaderKeys}) return it without using loader or
+ * parser at all. Failed checks are not remembered.
+ * </p>
+ * <p>
+ * Only resources with a stable key (see {@link LoaderKeys#isStable(Loader)}) are remembered, since a key which is the loader itself
+ * would keep every loader alive while nothing could ever find its result again. Expired results are removed once they are looked up,
+ * and at most {@value #MAX_ENTRIES} results are kept, the oldest ones are forgotten first.
+ * </p>
+ */
+final class MemoizingInteractor implements Interactor {
+
+    static final int MAX_ENTRIES = 32;
+
+    private final Interactor delegate;
+
+    private final long ttlNanoseconds;
+
+    private final ConcurrentMap<Object, Entry> results = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation, so result of a check which started before invalidation is not remembered.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates interactor which remembers results of provided interactor.
+     *
+     * @param delegate Interactor which checks the resource.
+     * @param ttl      Time for which result is reused.
+     * @param unit     Time unit of TTL.
+     */
+    MemoizingInteractor(Interactor delegate, long ttl, TimeUnit unit) {
+        this.delegate = delegate;
+        this.ttlNanoseconds = unit.toNanos(ttl);
+    }
+
+    @Override
+    public CheckResult check(Loader loader, ApplicationConfiguration appConfig) throws Throwable {
+        if (!LoaderKeys.isStable(loader)) {
+            return delegate.check(loader, appConfig);
+        }
+        Object key = LoaderKeys.of(loader);
+        Entry entry = results.get(key);
+        if (entry != null) {
+            if (!entry.isExpired(System.nanoTime())) {
+                return entry.result;
+            }
+            results.remove(key, entry);
+        }
+        long startGeneration = generation.get();
+        CheckResult result = delegate.check(loader, appConfig);
+        Entry fresh = new Entry(result, System.nanoTime());
+        results.put(key, fresh);
+        if (generation.get() != startGeneration) {
+            // invalidated while checking, loaded content might be older than the invalidation
+            results.remove(key, fresh);
+        }
+        if (results.size() > MAX_ENTRIES) {
+            trim();
+        }
+        return result;
+    }
+
+    /**
+     * Removes expired results and then the oldest ones until at most {@value #MAX_ENTRIES} results are left.
+     */
+    private void trim() {
+        long now = System.nanoTime();
+        for (Map.Entry<Object, Entry> remembered : results.entrySet()) {
+            if (remembered.getValue().isExpired(now)) {
+                results.remove(remembered.getKey(), remembered.getValue());
+            }
+        }
+        while (results.size() > MAX_ENTRIES) {
+            Map.Entry<Object, Entry> oldest = null;
+            for (Map.Entry<Object, Entry> remembered : results.entrySet()) {
+                if (oldest == null || remembered.getValue().createdAt - oldest.getValue().createdAt < 0) {
+                    oldest = remembered;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            results.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    /**
+     * Returns number of remembered results.
+     */
+    int size() {
+        return results.size();
+    }
+
+    /**
+     * Forgets result of the resource with provided key.
+     *
+     * @param key Key of the resource.
+     */
+    void invalidate(Object key) {
+        generation.incrementAndGet();
+        results.remove(key);
+    }
+
+    /**
+     * Forgets all results.
+     */
+    void invalidateAll() {
+        generation.incrementAndGet();
+        results.clear();
+    }
+
+    /**
+     * Remembered result.
+     */
+    private final class Entry {
+
+        private final CheckResult result;
+
+        /**
+         * Value of {@link System#nanoTime()} when result was created.
+         */
+        private final long createdAt;
+
+        Entry(CheckResult result, long createdAt) {
+            this.result = result;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt >= ttlNanoseconds;
+        }
+    }
+}
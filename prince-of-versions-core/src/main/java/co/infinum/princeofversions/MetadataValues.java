@@ -0,0 +1,135 @@
+package co.infinum.princeofversions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads typed values from metadata.
+ * <p>
+ * Metadata read by {@link StreamingJsonConfigurationParser} is decoded directly from its JSON text, other metadata is decoded from
+ * string values, so strings containing numbers, booleans, objects or arrays are accepted as well.
+ * </p>
+ */
+final class MetadataValues {
+
+    private MetadataValues() {
+    }
+
+    /**
+     * Returns value as long, or null if there is no such key or value isn't an integer which fits in long.
+     */
+    @Nullable
+    static Long longValue(Map<String, String> metadata, String key) {
+        String text = text(metadata, key);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException notInteger) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns value as boolean, or null if there is no such key or value isn't true or false.
+     */
+    @Nullable
+    static Boolean booleanValue(Map<String, String> metadata, String key) {
+        String text = text(metadata, key);
+        if ("true".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        } else if ("false".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    /**
+     * Returns value as map, or null if there is no such key or value isn't an object.
+     */
+    @Nullable
+    static Map<String, String> objectValue(Map<String, String> metadata, String key) {
+        JsonTokenReader reader = reader(metadata, key);
+        if (reader == null || reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+            return null;
+        }
+        return new JsonMetadata(reader.nextRawValue());
+    }
+
+    /**
+     * Returns value as list of values converted to strings, or null if there is no such key or value isn't an array.
+     */
+    @Nullable
+    static List<String> arrayValue(Map<String, String> metadata, String key) {
+        JsonTokenReader reader = reader(metadata, key);
+        if (reader == null || reader.peek() != JsonTokenReader.Token.BEGIN_ARRAY) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(JsonMetadata.readString(reader));
+        }
+        reader.endArray();
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Returns text of a number, boolean or string value.
+     */
+    @Nullable
+    private static String text(Map<String, String> metadata, String key) {
+        if (!(metadata instanceof JsonMetadata)) {
+            return metadata.get(key);
+        }
+        JsonTokenReader reader = ((JsonMetadata) metadata).reader(key);
+        if (reader == null) {
+            return null;
+        }
+        switch (reader.peek()) {
+            case NUMBER:
+            case BOOLEAN:
+            case STRING:
+                return reader.nextString();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns reader of the value. String value is read as JSON text, if it is valid JSON.
+     */
+    @Nullable
+    private static JsonTokenReader reader(Map<String, String> metadata, String key) {
+        String text;
+        if (metadata instanceof JsonMetadata) {
+            JsonTokenReader reader = ((JsonMetadata) metadata).reader(key);
+            if (reader == null || reader.peek() != JsonTokenReader.Token.STRING) {
+                return reader;
+            }
+            text = reader.nextString();
+        } else {
+            text = metadata.get(key);
+            if (text == null) {
+                return null;
+            }
+        }
+        JsonTokenReader reader = new JsonTokenReader(text);
+        try {
+            JsonTokenReader.Token token = reader.peek();
+            if (token != JsonTokenReader.Token.BEGIN_OBJECT && token != JsonTokenReader.Token.BEGIN_ARRAY) {
+                return null;
+            }
+            // validates the value, so it can be read without errors
+            new JsonTokenReader(text).skipValue();
+            return reader;
+        } catch (IllegalArgumentException notJson) {
+            return null;
+        }
+    }
+}
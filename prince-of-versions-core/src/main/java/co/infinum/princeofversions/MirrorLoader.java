@@ -0,0 +1,502 @@
+package co.infinum.princeofversions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a loader which loads the same resource from one of several mirrors, e.g. a CDN and the origin server.
+ * <p>
+ * Mirrors are tried one at a time, starting with the fastest healthy one. If a mirror doesn't respond within its usual latency, given
+ * by a percentile of its previous loads, a hedged request is sent to the next mirror and the first successful response is used. The
+ * other request is canceled. If a mirror fails, the next one is tried right away, and the failed mirror is tried last until its
+ * failure backoff passes.
+ * </p>
+ * <p>
+ * Health of mirrors is kept by the loader, so the same instance should be used for all checks. Every request to a mirror gets its own
+ * loader, created by the {@link LoaderFactory} of the mirror, so concurrent checks using the same instance don't affect each other.
+ * </p>
+ */
+public final class MirrorLoader implements CancelableLoader {
+
+    private static final double DEFAULT_HEDGE_PERCENTILE = 95;
+
+    private static final long DEFAULT_HEDGE_DELAY_MILLISECONDS = 2000;
+
+    private static final long DEFAULT_FAILURE_BACKOFF_MILLISECONDS = 60 * 1000;
+
+    private static final int MAX_PERCENTILE = 100;
+
+    /**
+     * Number of loads of a mirror needed before hedge delay is taken from its latency instead of the initial delay.
+     */
+    private static final int MIN_LATENCY_SAMPLES = 5;
+
+    /**
+     * Weight of a new latency in the moving average is 1/2^{@value}, so a mirror which became slow is ranked lower after a few loads.
+     */
+    private static final int AVERAGE_WEIGHT_SHIFT = 2;
+
+    private static final long NO_LATENCY = -1;
+
+    private static final int THREADS = 4;
+
+    private static final PrinceOfVersionsWorkerPool POOL = new PrinceOfVersionsWorkerPool.Builder()
+        .withThreads(THREADS)
+        .withRejectionPolicy(PrinceOfVersionsWorkerPool.RejectionPolicy.CALLER_RUNS)
+        .withThreadName("PrinceOfVersions Mirror")
+        .build();
+
+    private final List<Mirror> mirrors;
+
+    private final double hedgePercentile;
+
+    private final long initialHedgeDelayNanoseconds;
+
+    private final long failureBackoffNanoseconds;
+
+    private final Executor executor;
+
+    /**
+     * Loads in progress.
+     */
+    private final Set<Race> races = Collections.newSetFromMap(new ConcurrentHashMap<Race, Boolean>());
+
+    private MirrorLoader(List<LoaderFactory> factories, double hedgePercentile, long initialHedgeDelayNanoseconds,
+        long failureBackoffNanoseconds, Executor executor) {
+        List<Mirror> mirrors = new ArrayList<>(factories.size());
+        for (int i = 0; i < factories.size(); i++) {
+            mirrors.add(new Mirror(factories.get(i), i));
+        }
+        this.mirrors = Collections.unmodifiableList(mirrors);
+        this.hedgePercentile = hedgePercentile;
+        this.initialHedgeDelayNanoseconds = initialHedgeDelayNanoseconds;
+        this.failureBackoffNanoseconds = failureBackoffNanoseconds;
+        this.executor = executor;
+    }
+
+    @Override
+    public String load() throws Throwable {
+        Race race = new Race(rankedMirrors());
+        races.add(race);
+        try {
+            return race.run();
+        } finally {
+            races.remove(race);
+        }
+    }
+
+    /**
+     * Aborts all loads in progress, including requests to all mirrors.
+     */
+    @Override
+    public void cancel() {
+        for (Race race : races) {
+            race.cancel();
+        }
+    }
+
+    /**
+     * Returns mirrors in order in which they are tried: healthy mirrors first, faster ones before slower ones, and mirrors which weren't
+     * used yet after them, in the order they were added.
+     */
+    List<LoaderFactory> rankedFactories() {
+        List<LoaderFactory> factories = new ArrayList<>(mirrors.size());
+        for (Mirror mirror : rankedMirrors()) {
+            factories.add(mirror.factory);
+        }
+        return factories;
+    }
+
+    private List<Mirror> rankedMirrors() {
+        long now = System.nanoTime();
+        // health is read once, since it can change while mirrors are sorted
+        final boolean[] healthy = new boolean[mirrors.size()];
+        final long[] latency = new long[mirrors.size()];
+        for (Mirror mirror : mirrors) {
+            healthy[mirror.index] = mirror.isHealthy(now);
+            latency[mirror.index] = mirror.averageLatency.get();
+        }
+        List<Mirror> ranked = new ArrayList<>(mirrors);
+        Collections.sort(ranked, new Comparator<Mirror>() {
+            @Override
+            public int compare(Mirror first, Mirror second) {
+                if (healthy[first.index] != healthy[second.index]) {
+                    return healthy[first.index] ? -1 : 1;
+                }
+                long firstLatency = latency[first.index];
+                long secondLatency = latency[second.index];
+                if (firstLatency != secondLatency) {
+                    if (firstLatency == NO_LATENCY || secondLatency == NO_LATENCY) {
+                        return firstLatency == NO_LATENCY ? 1 : -1;
+                    }
+                    return firstLatency < secondLatency ? -1 : 1;
+                }
+                return first.index - second.index;
+            }
+        });
+        return ranked;
+    }
+
+    /**
+     * Returns how long the mirror is waited for before a hedged request is sent to the next one.
+     */
+    private long hedgeDelayNanoseconds(Mirror mirror) {
+        PrinceOfVersionsMetrics.Histogram latency = mirror.latency.snapshot();
+        if (latency.getCount() < MIN_LATENCY_SAMPLES) {
+            return initialHedgeDelayNanoseconds;
+        }
+        return latency.getValueAtPercentile(hedgePercentile);
+    }
+
+    /**
+     * Creates loaders of a mirror.
+     */
+    public interface LoaderFactory {
+
+        /**
+         * Creates loader used for one request to the mirror. Loader which implements {@link CancelableLoader} is canceled when a
+         * request to another mirror succeeds first.
+         *
+         * @return new loader of the mirror
+         */
+        Loader create();
+    }
+
+    /**
+     * Loader factory of a mirror together with its health.
+     */
+    private static final class Mirror {
+
+        private final LoaderFactory factory;
+
+        private final int index;
+
+        /**
+         * Latency of successful loads, used for hedge delay.
+         */
+        private final ConcurrentHistogram latency = new ConcurrentHistogram();
+
+        /**
+         * Moving average of latency of successful loads, used for ranking.
+         */
+        private final AtomicLong averageLatency = new AtomicLong(NO_LATENCY);
+
+        /**
+         * Time until which the mirror is considered unhealthy after it failed.
+         */
+        private volatile long failedUntilNanoseconds;
+
+        private volatile boolean failed;
+
+        Mirror(LoaderFactory factory, int index) {
+            this.factory = factory;
+            this.index = index;
+        }
+
+        boolean isHealthy(long now) {
+            return !failed || now - failedUntilNanoseconds >= 0;
+        }
+
+        void succeeded(long latencyNanoseconds) {
+            failed = false;
+            latency.record(latencyNanoseconds);
+            long average;
+            long updated;
+            do {
+                average = averageLatency.get();
+                updated = average == NO_LATENCY
+                    ? latencyNanoseconds
+                    : average + ((latencyNanoseconds - average) >> AVERAGE_WEIGHT_SHIFT);
+            } while (!averageLatency.compareAndSet(average, updated));
+        }
+
+        void failed(long backoffNanoseconds) {
+            failedUntilNanoseconds = System.nanoTime() + backoffNanoseconds;
+            failed = true;
+        }
+    }
+
+    /**
+     * One load, which runs requests to mirrors and waits for the first successful one.
+     */
+    private final class Race {
+
+        private final List<Mirror> ranked;
+
+        private final BlockingQueue<Attempt> finished = new LinkedBlockingQueue<>();
+
+        private final List<Attempt> started = new ArrayList<>();
+
+        /**
+         * Marks that the load was canceled, so waiting for mirrors stops right away.
+         */
+        private final Attempt canceledMarker;
+
+        private volatile boolean canceled;
+
+        Race(List<Mirror> ranked) {
+            this.ranked = ranked;
+            this.canceledMarker = new Attempt(ranked.get(0));
+        }
+
+        String run() throws Throwable {
+            Attempt winner = null;
+            try {
+                start();
+                boolean hedged = false;
+                int pending = 1;
+                Throwable firstError = null;
+                while (pending > 0) {
+                    Attempt attempt;
+                    if (!hedged && started.size() < ranked.size()) {
+                        attempt = finished.poll(hedgeDelayNanoseconds(started.get(0).mirror), TimeUnit.NANOSECONDS);
+                        if (attempt == null) {
+                            // the mirror is slower than usual, so the next one is asked as well
+                            hedged = true;
+                            start();
+                            pending++;
+                            continue;
+                        }
+                    } else {
+                        attempt = finished.take();
+                    }
+                    if (attempt == canceledMarker || canceled) {
+                        throw new IOException("Canceled");
+                    }
+                    pending--;
+                    if (attempt.error == null) {
+                        winner = attempt;
+                        return attempt.content;
+                    }
+                    if (firstError == null) {
+                        firstError = attempt.error;
+                    }
+                    if (started.size() < ranked.size()) {
+                        // fail over to the next mirror right away
+                        start();
+                        pending++;
+                    }
+                }
+                throw firstError;
+            } finally {
+                cancelAll(winner);
+            }
+        }
+
+        void cancel() {
+            canceled = true;
+            cancelAll(null);
+            finished.offer(canceledMarker);
+        }
+
+        private void start() {
+            Attempt attempt = new Attempt(ranked.get(started.size()));
+            synchronized (started) {
+                started.add(attempt);
+            }
+            if (canceled) {
+                attempt.cancel();
+            }
+            executor.execute(attempt);
+        }
+
+        private void cancelAll(@Nullable Attempt winner) {
+            synchronized (started) {
+                for (Attempt attempt : started) {
+                    if (attempt != winner) {
+                        attempt.cancel();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Load from one mirror.
+         */
+        private final class Attempt implements Runnable {
+
+            private final Mirror mirror;
+
+            @Nullable
+            private String content;
+
+            @Nullable
+            private Throwable error;
+
+            /**
+             * Loader of this request, set once the request runs.
+             */
+            @Nullable
+            private volatile Loader loader;
+
+            private volatile boolean canceled;
+
+            Attempt(Mirror mirror) {
+                this.mirror = mirror;
+            }
+
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                try {
+                    Loader current = mirror.factory.create();
+                    loader = current;
+                    // checked after the loader is published, so a concurrent cancel either sees the loader or is seen here
+                    if (canceled) {
+                        throw new IOException("Canceled");
+                    }
+                    content = current.load();
+                    mirror.succeeded(System.nanoTime() - start);
+                } catch (Throwable loadError) {
+                    error = loadError;
+                    if (!canceled) {
+                        mirror.failed(failureBackoffNanoseconds);
+                    }
+                }
+                // queue publishes the result to the waiting thread
+                finished.offer(this);
+            }
+
+            void cancel() {
+                canceled = true;
+                Loader current = loader;
+                if (current instanceof CancelableLoader) {
+                    ((CancelableLoader) current).cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder used to create {@link MirrorLoader}.
+     * At least one mirror has to be added, all other methods are optional.
+     */
+    public static final class Builder {
+
+        private final List<LoaderFactory> factories = new ArrayList<>();
+
+        private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+
+        private long initialHedgeDelayMilliseconds = DEFAULT_HEDGE_DELAY_MILLISECONDS;
+
+        private long failureBackoffMilliseconds = DEFAULT_FAILURE_BACKOFF_MILLISECONDS;
+
+        @Nullable
+        private Executor executor;
+
+        /**
+         * Add mirror loaded using {@link NetworkLoader}. Mirrors are tried in order in which they were added until their latency is
+         * known.
+         *
+         * @param url Resource locator of the mirror
+         * @return this builder
+         */
+        public Builder withMirror(final String url) {
+            return withMirror(new LoaderFactory() {
+                @Override
+                public Loader create() {
+                    return new NetworkLoader(url);
+                }
+            });
+        }
+
+        /**
+         * Add mirror loaded using loaders created by provided factory. Mirrors are tried in order in which they were added until
+         * their latency is known.
+         *
+         * @param factory Factory of loaders of the mirror
+         * @return this builder
+         */
+        public Builder withMirror(LoaderFactory factory) {
+            factories.add(factory);
+            return this;
+        }
+
+        /**
+         * Set percentile of latency of a mirror after which a hedged request is sent to the next mirror. Default is 95th percentile.
+         *
+         * @param hedgePercentile Percentile, greater than 0 and at most 100
+         * @return this builder
+         */
+        public Builder withHedgePercentile(double hedgePercentile) {
+            if (hedgePercentile <= 0 || hedgePercentile > MAX_PERCENTILE) {
+                throw new IllegalArgumentException("Hedge percentile should be in (0, 100], but " + hedgePercentile + " was set.");
+            }
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        /**
+         * Set how long a mirror is waited for before a hedged request is sent, until latency of the mirror is known. Default is
+         * 2 seconds.
+         *
+         * @param delay Hedge delay, positive
+         * @param unit  Time unit of hedge delay
+         * @return this builder
+         */
+        public Builder withInitialHedgeDelay(long delay, TimeUnit unit) {
+            if (delay <= 0) {
+                throw new IllegalArgumentException("Hedge delay should be positive, but " + delay + " was set.");
+            }
+            this.initialHedgeDelayMilliseconds = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * Set how long a failed mirror is tried only after other mirrors. Default is 1 minute.
+         *
+         * @param backoff Failure backoff, not negative
+         * @param unit    Time unit of failure backoff
+         * @return this builder
+         */
+        public Builder withFailureBackoff(long backoff, TimeUnit unit) {
+            if (backoff < 0) {
+                throw new IllegalArgumentException("Failure backoff should not be negative, but " + backoff + " was set.");
+            }
+            this.failureBackoffMilliseconds = unit.toMillis(backoff);
+            return this;
+        }
+
+        /**
+         * Set executor which runs requests to mirrors. It should not be the executor which runs checks, since a check waits for its
+         * requests. By default requests run on a small pool shared by all mirror loaders.
+         *
+         * @param executor Executor of requests
+         * @return this builder
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Create the {@link MirrorLoader} instance using the configured values.
+         *
+         * @return MirrorLoader instance
+         */
+        public MirrorLoader build() {
+            if (factories.isEmpty()) {
+                throw new IllegalStateException("At least one mirror has to be added.");
+            }
+            return new MirrorLoader(
+                new ArrayList<>(factories),
+                hedgePercentile,
+                TimeUnit.MILLISECONDS.toNanos(initialHedgeDelayMilliseconds),
+                TimeUnit.MILLISECONDS.toNanos(failureBackoffMilliseconds),
+                executor != null ? executor : POOL
+            );
+        }
+    }
+}
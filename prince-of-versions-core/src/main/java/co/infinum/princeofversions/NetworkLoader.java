@@ -0,0 +1,585 @@
+package co.infinum.princeofversions;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a concrete loader that load resource from network using provided URL.
+ */
+public class NetworkLoader implements CancelableLoader, StreamingLoader {
+
+    /**
+     * Default request timeout in seconds.
+     */
+    private static final int DEFAULT_NETWORK_TIMEOUT_SECONDS = 60;
+
+    private static final int MILLISECONDS_IN_SECOND = 1000;
+
+    private static final String HEADER_ETAG = "ETag";
+
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String ENCODING_GZIP = "gzip";
+
+    private static final String ENCODING_DEFLATE = "deflate";
+
+    private static final String ACCEPTED_ENCODINGS = ENCODING_GZIP + ", " + ENCODING_DEFLATE;
+
+    private static final int INFLATER_BUFFER_SIZE = 8 * 1024;
+
+    private static final int ZLIB_HEADER_LENGTH = 2;
+
+    private static final int ZLIB_METHOD_MASK = 0x0F;
+
+    private static final int ZLIB_METHOD_DEFLATE = 8;
+
+    private static final int ZLIB_HEADER_CHECK = 31;
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private static final int BITS_IN_BYTE = 8;
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Url representing the resource.
+     */
+    private String url;
+
+    /**
+     * Custom network timeout in seconds.
+     */
+    private int networkTimeoutMilliseconds = DEFAULT_NETWORK_TIMEOUT_SECONDS * MILLISECONDS_IN_SECOND;
+
+    /**
+     * Basic authentication username.
+     */
+    @Nullable
+    private String username;
+
+    /**
+     * Basic authentication password.
+     */
+    @Nullable
+    private String password;
+
+    /**
+     * Cache of previous responses used for conditional requests.
+     */
+    @Nullable
+    private ConditionalRequestCache cache;
+
+    /**
+     * Charset which decodes the response.
+     */
+    private Charset charset = DEFAULT_CHARSET;
+
+    /**
+     * Connection of the load in progress.
+     */
+    @Nullable
+    private volatile HttpURLConnection connection;
+
+    /**
+     * Whether load is in progress.
+     */
+    private volatile boolean loading;
+
+    /**
+     * Whether load in progress is canceled.
+     */
+    private volatile boolean canceled;
+
+    /**
+     * Creates a new network loader using provided url.
+     *
+     * @param url Resource locator.
+     */
+    public NetworkLoader(String url) {
+        this(url, DEFAULT_NETWORK_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Creates a new network loader using url and custom network timeout.
+     *
+     * @param url                   Resource locator.
+     * @param networkTimeoutSeconds Custom network timeout.
+     */
+    public NetworkLoader(String url, int networkTimeoutSeconds) {
+        this(url, null, null, networkTimeoutSeconds);
+    }
+
+    /**
+     * Creates a new network loader using url, default network timeout and basic authentication parameters.
+     *
+     * @param url      Resource locator.
+     * @param username Basic authentication username.
+     * @param password Basic authentication password.
+     */
+    public NetworkLoader(String url, @Nullable String username, @Nullable String password) {
+        this(url, username, password, DEFAULT_NETWORK_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Creates a new network loader using url, custom network timeout and basic authentication parameters.
+     *
+     * @param url                   Resource locator.
+     * @param username              Basic authentication username.
+     * @param password              Basic authentication password.
+     * @param networkTimeoutSeconds Custom network timeout.
+     */
+    public NetworkLoader(String url, @Nullable String username, @Nullable String password, int networkTimeoutSeconds) {
+        this(url, username, password, networkTimeoutSeconds, null);
+    }
+
+    /**
+     * Creates a new network loader using url, default network timeout and cache for conditional requests.
+     *
+     * @param url   Resource locator.
+     * @param cache Cache of previous responses, shared between checks.
+     */
+    public NetworkLoader(String url, @Nullable ConditionalRequestCache cache) {
+        this(url, null, null, DEFAULT_NETWORK_TIMEOUT_SECONDS, cache);
+    }
+
+    /**
+     * Creates a new network loader using url, custom network timeout, basic authentication parameters and cache for conditional
+     * requests.
+     *
+     * @param url                   Resource locator.
+     * @param username              Basic authentication username.
+     * @param password              Basic authentication password.
+     * @param networkTimeoutSeconds Custom network timeout.
+     * @param cache                 Cache of previous responses, shared between checks.
+     */
+    public NetworkLoader(String url, @Nullable String username, @Nullable String password, int networkTimeoutSeconds,
+        @Nullable ConditionalRequestCache cache) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.networkTimeoutMilliseconds = networkTimeoutSeconds * MILLISECONDS_IN_SECOND;
+        this.cache = cache;
+    }
+
+    /**
+     * Creates a new network loader using url, default network timeout, cache for conditional requests and charset which decodes the
+     * response regardless of its content type, e.g. {@link BinaryConfigurationEncoder#CHARSET} for binary configuration.
+     *
+     * @param url     Resource locator.
+     * @param cache   Cache of previous responses, shared between checks.
+     * @param charset Charset of the response.
+     */
+    public NetworkLoader(String url, @Nullable ConditionalRequestCache cache, Charset charset) {
+        this(url, null, null, DEFAULT_NETWORK_TIMEOUT_SECONDS, cache);
+        this.charset = charset;
+    }
+
+    /**
+     * Identifies the request this loader makes, so concurrent checks of the same request can share work. Key consists of everything
+     * which affects the request and decoding of its response. Subclasses might load differently, so they are identified by the loader
+     * itself.
+     *
+     * @return Key of the request, or this loader if it is a subclass.
+     */
+    Object key() {
+        if (getClass() != NetworkLoader.class) {
+            return this;
+        }
+        return new RequestKey(url, username, password, networkTimeoutMilliseconds, charset, cache);
+    }
+
+    @Override
+    public String load() throws IOException {
+        return loadEntry().getContent();
+    }
+
+    /**
+     * Loads content together with its response. After <i>304 Not Modified</i> the same response as for the previous load is
+     * returned, which tells that anything derived from its content is still valid. Response which isn't cached is new on every load.
+     *
+     * @return Response with loaded content.
+     * @throws IOException if loading failed or was canceled.
+     */
+    ConditionalRequestCache.Entry loadEntry() throws IOException {
+        loading = true;
+        CheckTrace trace = CheckTrace.current();
+        HttpURLConnection conn = null;
+        try {
+            conn = connect();
+            ConditionalRequestCache.Entry cached = cache != null ? cache.get(url) : null;
+            if (cached != null) {
+                if (cached.getEtag() != null) {
+                    conn.setRequestProperty(HEADER_IF_NONE_MATCH, cached.getEtag());
+                }
+                if (cached.getLastModified() != null) {
+                    conn.setRequestProperty(HEADER_IF_MODIFIED_SINCE, cached.getLastModified());
+                }
+                if (conn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    throwIfCanceled();
+                    if (trace != null) {
+                        trace.response(HttpURLConnection.HTTP_NOT_MODIFIED, 0);
+                    }
+                    // returning the same response lets interactor skip parsing as well
+                    return cached;
+                }
+            }
+            String content = read(conn, charset, trace);
+            throwIfCanceled();
+            return remember(conn, content);
+        } finally {
+            finish(conn);
+        }
+    }
+
+    /**
+     * Opens decompressed response body, which keeps the connection open until it is closed. Load in progress is canceled the same way
+     * as {@link #load()}, which makes reading of the body fail.
+     * When cache for conditional requests is used, the whole content is needed to be cached, so null is returned and the content is
+     * loaded using {@link #load()} instead. The same goes for response in charset other than UTF-8, which has to be decoded first.
+     *
+     * @return Response body, or null if cache for conditional requests or charset other than UTF-8 is used.
+     * @throws IOException if connection failed.
+     */
+    @Nullable
+    @Override
+    public InputStream open() throws IOException {
+        if (cache != null || !StreamIo.isStreamable(charset)) {
+            return null;
+        }
+        loading = true;
+        HttpURLConnection conn = null;
+        try {
+            conn = connect();
+            InputStream response = conn.getInputStream();
+            throwIfCanceled();
+            CheckTrace trace = CheckTrace.current();
+            if (trace != null) {
+                // received bytes are not known before the body is read
+                trace.response(conn.getResponseCode(), PrinceOfVersionsEventListener.UNKNOWN);
+            }
+            InputStream body = new ConnectionInputStream(decompress(response, conn.getContentEncoding()), conn);
+            conn = null;
+            return body;
+        } finally {
+            if (conn != null) {
+                finish(conn);
+            }
+        }
+    }
+
+    /**
+     * Creates connection with all request headers except conditional ones.
+     *
+     * @return Connection which is not connected yet.
+     * @throws IOException if connection couldn't be created or load is canceled.
+     */
+    private HttpURLConnection connect() throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        connection = conn;
+        throwIfCanceled();
+        if (username != null && password != null) {
+            String credentials = username + ":" + password;
+            String basicAuth = "Basic " + Base64Encoder.encode(credentials.getBytes(Charset.forName("UTF-8")));
+            conn.setRequestProperty("Authorization", basicAuth);
+        }
+        conn.setConnectTimeout(networkTimeoutMilliseconds);
+        conn.setReadTimeout(networkTimeoutMilliseconds);
+        conn.setRequestProperty(HEADER_ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
+        return conn;
+    }
+
+    /**
+     * Fails the load if it was canceled. Connection which was disconnected before it connected connects again once it is used, so
+     * cancellation is checked again after every use of the connection, not only after the connection is published.
+     *
+     * @throws IOException if load is canceled.
+     */
+    private void throwIfCanceled() throws IOException {
+        if (canceled) {
+            throw new IOException("Canceled");
+        }
+    }
+
+    /**
+     * Ends load in progress and closes its connection.
+     *
+     * @param conn Http connection.
+     */
+    private void finish(@Nullable HttpURLConnection conn) {
+        loading = false;
+        connection = null;
+        canceled = false;
+        close(conn);
+    }
+
+    /**
+     * Aborts load in progress by disconnecting its connection, which makes blocked reading fail right away.
+     */
+    @Override
+    public void cancel() {
+        if (!loading) {
+            return;
+        }
+        canceled = true;
+        HttpURLConnection conn = connection;
+        if (conn != null) {
+            close(conn);
+        }
+    }
+
+    /**
+     * Reads response body, which is decompressed while it is read, so compressed body is never held in memory as a whole.
+     *
+     * @param conn    Http connection.
+     * @param charset Charset of the response.
+     * @param trace Trace of the check which receives status and number of received bytes, null if check isn't traced.
+     * @return Decompressed content.
+     * @throws IOException if reading error occurred.
+     */
+    private static String read(HttpURLConnection conn, Charset charset, @Nullable CheckTrace trace) throws IOException {
+        InputStream response = conn.getInputStream();
+        CountingInputStream counted = null;
+        if (trace != null) {
+            counted = new CountingInputStream(response);
+            response = counted;
+        }
+        InputStream body = decompress(response, conn.getContentEncoding());
+        // Content-Length is the compressed length of compressed body, so it can't be used for sizing
+        String content = StreamIo.toString(body, body == response ? conn.getContentLength() : StreamIo.UNKNOWN_LENGTH, charset);
+        if (trace != null) {
+            trace.response(conn.getResponseCode(), counted.count);
+        }
+        return content;
+    }
+
+    /**
+     * Creates stream which decompresses response body according to its content encoding.
+     *
+     * @param response Response body.
+     * @param encoding Content encoding of the response.
+     * @return Decompressed stream, or the same stream if the body is not compressed.
+     * @throws IOException if reading error occurred.
+     */
+    private static InputStream decompress(InputStream response, @Nullable String encoding) throws IOException {
+        if (ENCODING_GZIP.equalsIgnoreCase(encoding)) {
+            return new GZIPInputStream(response, INFLATER_BUFFER_SIZE);
+        } else if (ENCODING_DEFLATE.equalsIgnoreCase(encoding)) {
+            return inflate(response);
+        }
+        return response;
+    }
+
+    /**
+     * Creates stream which inflates deflate encoded stream.
+     * Deflate encoding should be wrapped in zlib format, but some servers send raw deflate data, so the zlib header is detected.
+     *
+     * @param response Deflate encoded stream.
+     * @return Inflated stream.
+     * @throws IOException if reading error occurred.
+     */
+    private static InputStream inflate(InputStream response) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(response, ZLIB_HEADER_LENGTH);
+        byte[] header = new byte[ZLIB_HEADER_LENGTH];
+        int length = 0;
+        while (length < ZLIB_HEADER_LENGTH) {
+            int count = in.read(header, length, ZLIB_HEADER_LENGTH - length);
+            if (count == -1) {
+                break;
+            }
+            length += count;
+        }
+        in.unread(header, 0, length);
+        int first = header[0] & BYTE_MASK;
+        int second = header[1] & BYTE_MASK;
+        boolean zlib = length == ZLIB_HEADER_LENGTH
+            && (first & ZLIB_METHOD_MASK) == ZLIB_METHOD_DEFLATE
+            && ((first << BITS_IN_BYTE) | second) % ZLIB_HEADER_CHECK == 0;
+        final Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, INFLATER_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // inflater passed to the stream isn't released by the stream itself
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Saves validators of successful response so the next request can be conditional.
+     *
+     * @param conn    Http connection.
+     * @param content Loaded content.
+     * @return Response with loaded content.
+     */
+    private ConditionalRequestCache.Entry remember(HttpURLConnection conn, String content) {
+        if (cache == null) {
+            return new ConditionalRequestCache.Entry(null, null, content);
+        }
+        String etag = conn.getHeaderField(HEADER_ETAG);
+        String lastModified = conn.getHeaderField(HEADER_LAST_MODIFIED);
+        ConditionalRequestCache.Entry entry = new ConditionalRequestCache.Entry(etag, lastModified, content);
+        if (etag != null || lastModified != null) {
+            cache.put(url, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Closing http connection.
+     *
+     * @param conn Http connection.
+     */
+    protected void close(@Nullable HttpURLConnection conn) {
+        if (conn != null) {
+            try {
+                conn.disconnect();
+            } catch (Exception ignorable) {
+                // ignorable exception
+            }
+        }
+    }
+
+    /**
+     * Response body which ends the load and closes its connection when it is closed.
+     */
+    private final class ConnectionInputStream extends FilterInputStream {
+
+        private final HttpURLConnection conn;
+
+        private boolean closed;
+
+        ConnectionInputStream(InputStream in, HttpURLConnection conn) {
+            super(in);
+            this.conn = conn;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                finish(conn);
+            }
+        }
+    }
+
+    /**
+     * Counts bytes read from the wrapped stream, i.e. bytes received before decompression.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Everything which affects the request and decoding of its response. Cache is compared by identity, since it holds the responses.
+     */
+    private static final class RequestKey {
+
+        private final String url;
+
+        @Nullable
+        private final String username;
+
+        @Nullable
+        private final String password;
+
+        private final int timeoutMilliseconds;
+
+        private final Charset charset;
+
+        @Nullable
+        private final ConditionalRequestCache cache;
+
+        RequestKey(String url, @Nullable String username, @Nullable String password, int timeoutMilliseconds, Charset charset,
+            @Nullable ConditionalRequestCache cache) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+            this.timeoutMilliseconds = timeoutMilliseconds;
+            this.charset = charset;
+            this.cache = cache;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey that = (RequestKey) o;
+            return timeoutMilliseconds == that.timeoutMilliseconds
+                && url.equals(that.url)
+                && (username != null ? username.equals(that.username) : that.username == null)
+                && (password != null ? password.equals(that.password) : that.password == null)
+                && charset.equals(that.charset)
+                && cache == that.cache;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = url.hashCode();
+            result = 31 * result + (username != null ? username.hashCode() : 0);
+            result = 31 * result + (password != null ? password.hashCode() : 0);
+            result = 31 * result + timeoutMilliseconds;
+            result = 31 * result + charset.hashCode();
+            result = 31 * result + (cache != null ? System.identityHashCode(cache) : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package co.infinum.princeofversions;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Creates loaders for update checks which are started using URL.
+ */
+final class NetworkLoaderFactory {
+
+    @Nullable
+    private final ConditionalRequestCache conditionalRequestCache;
+
+    @Nullable
+    private final File responseCacheDirectory;
+
+    private final long responseCacheTtlMilliseconds;
+
+    @Nullable
+    private final Charset charset;
+
+    NetworkLoaderFactory(@Nullable ConditionalRequestCache conditionalRequestCache, @Nullable File responseCacheDirectory,
+        long responseCacheTtlMilliseconds) {
+        this(conditionalRequestCache, responseCacheDirectory, responseCacheTtlMilliseconds, null);
+    }
+
+    /**
+     * Creates factory of loaders.
+     *
+     * @param charset Charset which decodes responses, null to use the default one.
+     */
+    NetworkLoaderFactory(@Nullable ConditionalRequestCache conditionalRequestCache, @Nullable File responseCacheDirectory,
+        long responseCacheTtlMilliseconds, @Nullable Charset charset) {
+        this.conditionalRequestCache = conditionalRequestCache;
+        this.responseCacheDirectory = responseCacheDirectory;
+        this.responseCacheTtlMilliseconds = responseCacheTtlMilliseconds;
+        this.charset = charset;
+    }
+
+    NetworkLoaderFactory() {
+        this(null, null, 0);
+    }
+
+    Loader create(String url) {
+        Loader loader = charset != null
+            ? new NetworkLoader(url, conditionalRequestCache, charset)
+            : new NetworkLoader(url, conditionalRequestCache);
+        if (responseCacheDirectory != null) {
+            loader = new CachingLoader(
+                loader,
+                new File(responseCacheDirectory, CachingLoader.fileNameFor(url)),
+                responseCacheTtlMilliseconds,
+                TimeUnit.MILLISECONDS
+            );
+        }
+        return loader;
+    }
+}
@@ -17,6 +17,17 @@ interface Presenter {
      */
     UpdateResult check(Loader loader, ApplicationConfiguration appConfig) throws Throwable;
 
+    /**
+     * Start synchronous update check which can be canceled from another thread.
+     *
+     * @param loader    Object for loading data.
+     * @param appConfig Configuration of application.
+     * @param call      Call of this caller, canceling it aborts the check as far as this caller is concerned.
+     * @return Update result.
+     * @throws Throwable if error happens during check or the call is canceled.
+     */
+    UpdateResult check(Loader loader, ApplicationConfiguration appConfig, UpdaterCancelable call) throws Throwable;
+
     /**
      * Start asynchronous update check.
      *
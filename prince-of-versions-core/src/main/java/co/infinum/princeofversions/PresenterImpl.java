@@ -0,0 +1,158 @@
+package co.infinum.princeofversions;
+
+import androidx.annotation.VisibleForTesting;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+import static co.infinum.princeofversions.UpdateStatus.NEW_UPDATE_AVAILABLE;
+import static co.infinum.princeofversions.UpdateStatus.NO_UPDATE_AVAILABLE;
+import static co.infinum.princeofversions.UpdateStatus.REQUIRED_UPDATE_NEEDED;
+
+class PresenterImpl implements Presenter {
+
+    private Interactor interactor;
+
+    private Storage storage;
+
+    PresenterImpl(Interactor interactor, Storage storage) {
+        this.interactor = interactor;
+        this.storage = storage;
+    }
+
+    @Override
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig) throws Throwable {
+        return run(loader, appConfig);
+    }
+
+    @Override
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig, UpdaterCancelable call) throws Throwable {
+        if (call.isCanceled()) {
+            throw new IOException("Canceled");
+        }
+        final RunningCheck running = new RunningCheck(loader);
+        running.start();
+        call.doOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                running.abort();
+            }
+        });
+        try {
+            UpdateResult result = run(loader, appConfig);
+            if (call.isCanceled()) {
+                throw new IOException("Canceled");
+            }
+            return result;
+        } catch (Throwable error) {
+            // error caused by aborting is reported as cancellation
+            throw call.isCanceled() ? new IOException("Canceled") : error;
+        } finally {
+            call.doOnCancel(null);
+            running.finish();
+        }
+    }
+
+    @Override
+    public PrinceOfVersionsCancelable check(final Loader loader, Executor executor, final UpdaterCallback callback,
+        final ApplicationConfiguration appConfig) {
+        final UpdaterCancelable call = createCall();
+        final RunningCheck running = new RunningCheck(loader);
+        call.doOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                running.abort();
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!running.start()) {
+                    // canceled before it started
+                    return;
+                }
+                UpdateResult result = null;
+                Throwable error = null;
+                try {
+                    result = PresenterImpl.this.run(loader, appConfig);
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    running.finish();
+                    call.doOnCancel(null);
+                }
+                if (call.isCanceled()) {
+                    return;
+                }
+                if (error != null) {
+                    callback.onError(error);
+                } else {
+                    callback.onSuccess(result);
+                }
+            }
+        });
+        return call;
+    }
+
+    @VisibleForTesting
+    UpdateResult run(Loader loader, ApplicationConfiguration appConfig) throws Throwable {
+        CheckTrace trace = CheckTrace.current();
+        CheckResult result = interactor.check(loader, appConfig);
+        if (trace == null) {
+            return decide(result, null);
+        }
+        trace.decision(result.status(), result.getUpdateVersion());
+        UpdateResult updateResult = decide(result, trace);
+        trace.result(updateResult.getStatus());
+        return updateResult;
+    }
+
+    private UpdateResult decide(CheckResult result, @Nullable CheckTrace trace) {
+        switch (result.status()) {
+            case REQUIRED_UPDATE_NEEDED:
+                rememberLastNotifiedVersion(result.getUpdateVersion(), trace);
+                return new UpdateResult(result.getInfo(), result.metadata(), REQUIRED_UPDATE_NEEDED, result.getUpdateVersion());
+            case NEW_UPDATE_AVAILABLE:
+                Integer lastNotifiedVersion = lastNotifiedVersion(trace);
+                boolean notNotifiedUpdateAvailable = lastNotifiedVersion == null || !lastNotifiedVersion.equals(result.getUpdateVersion());
+                boolean alreadyNotifiedUpdateAvailable =
+                    lastNotifiedVersion != null && lastNotifiedVersion.equals(result.getUpdateVersion());
+                if (notNotifiedUpdateAvailable || (
+                    alreadyNotifiedUpdateAvailable && NotificationType.ALWAYS.equals(result.getNotificationType())
+                )) {
+                    rememberLastNotifiedVersion(result.getUpdateVersion(), trace);
+                    return new UpdateResult(result.getInfo(), result.metadata(), NEW_UPDATE_AVAILABLE, result.getUpdateVersion());
+                }
+            case NO_UPDATE_AVAILABLE:
+            default:
+                return new UpdateResult(result.getInfo(), result.metadata(), NO_UPDATE_AVAILABLE, result.getUpdateVersion());
+        }
+    }
+
+    @Nullable
+    private Integer lastNotifiedVersion(@Nullable CheckTrace trace) {
+        if (trace == null) {
+            return storage.lastNotifiedVersion(null);
+        }
+        long start = System.nanoTime();
+        Integer version = storage.lastNotifiedVersion(null);
+        trace.storageRead(start, version);
+        return version;
+    }
+
+    private void rememberLastNotifiedVersion(int version, @Nullable CheckTrace trace) {
+        if (trace == null) {
+            storage.rememberLastNotifiedVersion(version);
+            return;
+        }
+        long start = System.nanoTime();
+        storage.rememberLastNotifiedVersion(version);
+        trace.storageWrite(start, version);
+    }
+
+    @VisibleForTesting
+    UpdaterCancelable createCall() {
+        return new UpdaterCancelable();
+    }
+}
@@ -3,7 +3,7 @@ package co.infinum.princeofversions;
 import java.util.concurrent.Executor;
 
 /**
- * An invocation of a {@link PrinceOfVersions} update check method.
+ * An invocation of a {@code PrinceOfVersions} update check method.
  * The instance can be used only once, if call is already executed or enqueued new instnace should be used instead.
  *
  * <p>Calls may be executed synchronously with {@link #execute}, or asynchronously with {@link #enqueue}.
@@ -7,6 +7,7 @@ public interface PrinceOfVersionsCancelable {
 
     /**
      * Cancel the call. Callback won't be notified after invocation of this method.
+     * If the check is already running, loading is aborted when loader is a {@link CancelableLoader}, e.g. {@link NetworkLoader}.
      */
     void cancel();
 
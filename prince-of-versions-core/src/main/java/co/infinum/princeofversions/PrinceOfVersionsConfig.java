@@ -1,6 +1,5 @@
 package co.infinum.princeofversions;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -142,7 +141,7 @@ public final class PrinceOfVersionsConfig {
         private Map<String, String> metadata;
 
         public Builder() {
-            this.metadata = new HashMap<>();
+            this.metadata = CompactMap.EMPTY;
         }
 
         /**
@@ -185,7 +184,12 @@ public final class PrinceOfVersionsConfig {
          * @return this builder
          */
         public Builder withMetadata(Map<String, String> metadata) {
-            this.metadata.putAll(metadata);
+            if (this.metadata.isEmpty() && metadata instanceof JsonMetadata) {
+                // metadata which isn't read yet is kept as it is, so it is decoded only if it is used
+                this.metadata = metadata;
+            } else {
+                this.metadata = CompactMap.merge(this.metadata, metadata);
+            }
             return this;
         }
 
@@ -210,8 +214,8 @@ public final class PrinceOfVersionsConfig {
                 mandatoryVersion,
                 optionalVersion,
                 optionalNotificationType != null ? optionalNotificationType : NotificationType.ONCE,
-                metadata,
-                requirements != null ? requirements : new HashMap<String, String>());
+                metadata instanceof JsonMetadata ? metadata : CompactMap.copyOf(metadata),
+                requirements != null ? CompactMap.copyOf(requirements) : CompactMap.EMPTY);
         }
     }
 }
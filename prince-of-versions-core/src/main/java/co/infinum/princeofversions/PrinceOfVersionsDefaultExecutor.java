@@ -0,0 +1,36 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Implementation of {@link Executor} which runs check on background thread of default priority.
+ * <p>
+ * All instances share one {@link PrinceOfVersionsWorkerPool}, so a slow check doesn't block every other check, but the number of
+ * threads stays bounded. Idle threads are stopped.
+ * </p>
+ */
+final class PrinceOfVersionsDefaultExecutor implements Executor {
+
+    private static final int THREADS = 3;
+
+    private static final PrinceOfVersionsWorkerPool POOL = new PrinceOfVersionsWorkerPool.Builder()
+        .withThreads(THREADS)
+        .build();
+
+    private final PrinceOfVersionsWorkerPool.Priority priority;
+
+    PrinceOfVersionsDefaultExecutor() {
+        this(PrinceOfVersionsWorkerPool.Priority.NORMAL);
+    }
+
+    PrinceOfVersionsDefaultExecutor(PrinceOfVersionsWorkerPool.Priority priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable runnable) {
+        POOL.execute(runnable, priority);
+    }
+}
@@ -0,0 +1,63 @@
+package co.infinum.princeofversions;
+
+/**
+ * Represent a concrete implementation of {@link RequirementChecker} that will be used by a default.
+ * Device android version is provided by {@link ApplicationVersionProvider}, so the checker doesn't depend on Android itself.
+ */
+class PrinceOfVersionsDefaultRequirementsChecker implements CompilableRequirementChecker {
+
+    static final String KEY = "required_os_version";
+    private final ApplicationVersionProvider provider;
+
+    PrinceOfVersionsDefaultRequirementsChecker(ApplicationVersionProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Basic implementation of this method that is going to be used by default.
+     * By default the only requirements we are checking, is if is required android lower than required.
+     *
+     * @param value Json data that contains all requirements for new update
+     * @return true or false depending if are required requirements matched
+     */
+    @Override
+    public boolean checkRequirements(String value) {
+        return compile(value).isSatisfied();
+    }
+
+    /**
+     * Parses required android version once, so the check is a plain int comparison.
+     *
+     * @param value Required android version
+     * @return Condition comparing required android version with device android version
+     */
+    @Override
+    public MinSdkCondition compile(String value) {
+        return new MinSdkCondition(Integer.parseInt(value), provider);
+    }
+
+    interface ApplicationVersionProvider {
+
+        int provide();
+    }
+
+    /**
+     * Compares pre-parsed required android version with device android version.
+     */
+    static final class MinSdkCondition implements Condition {
+
+        private final int minSdk;
+
+        private final ApplicationVersionProvider provider;
+
+        MinSdkCondition(int minSdk, ApplicationVersionProvider provider) {
+            this.minSdk = minSdk;
+            this.provider = provider;
+        }
+
+        @Override
+        public boolean isSatisfied() {
+            return minSdk <= provider.provide();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package co.infinum.princeofversions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class checks for updates on plain JVM, without any Android dependency, e.g. on a server which decides about updates on behalf
+ * of its clients or in unit tests.
+ * <p>
+ * Engine uses the same parser, requirement checks and version comparison as {@code PrinceOfVersions} on Android. Every check evaluates
+ * configuration for provided {@link ApplicationConfiguration}, so one engine serves clients with different versions concurrently.
+ * Default requirement <i>required_os_version</i> is compared with {@link ApplicationConfiguration#sdkVersionCode()} of the check.
+ * Checks run synchronously on caller's thread.
+ * </p>
+ * <p>
+ * Last notified version is read from and saved to {@link Storage} provided with the check. Without it nothing is remembered, so
+ * every available update is reported as new.
+ * </p>
+ * <pre>
+ *         {@link PrinceOfVersionsEngine} engine = new {@link PrinceOfVersionsEngine.Builder}().build();
+ *         {@link UpdateResult} result = engine.check(new {@link CachingLoader}(new {@link NetworkLoader}(url), 1, TimeUnit.MINUTES),
+ *             clientConfiguration);
+ * </pre>
+ */
+public final class PrinceOfVersionsEngine {
+
+    private static final Storage NO_STORAGE = new Storage() {
+        @Nullable
+        @Override
+        public Integer lastNotifiedVersion(@Nullable Integer defaultValue) {
+            return defaultValue;
+        }
+
+        @Override
+        public void rememberLastNotifiedVersion(@Nullable Integer version) {
+            // nothing is remembered
+        }
+    };
+
+    /**
+     * Application configuration of the check which runs on the current thread.
+     */
+    private static final ThreadLocal<ApplicationConfiguration> CHECKED_APP_CONFIG = new ThreadLocal<>();
+
+    private final Interactor interactor;
+
+    @Nullable
+    private final PrinceOfVersionsEventListener eventListener;
+
+    private PrinceOfVersionsEngine(ConfigurationParser configurationParser, @Nullable PrinceOfVersionsEventListener eventListener) {
+        // the same content is evaluated differently for different clients, so its configuration can't be reused
+        this.interactor = new InteractorImpl(configurationParser, false);
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Checks for update without remembering notified version.
+     *
+     * @param loader    Instance for loading update config resource.
+     * @param appConfig Version of the application and device which is checked.
+     * @return result of update check.
+     * @throws Throwable if error occurred.
+     */
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig) throws Throwable {
+        return check(loader, appConfig, NO_STORAGE);
+    }
+
+    /**
+     * Checks for update.
+     *
+     * @param loader    Instance for loading update config resource.
+     * @param appConfig Version of the application and device which is checked.
+     * @param storage   Storage of the last notified version of the application which is checked.
+     * @return result of update check.
+     * @throws Throwable if error occurred.
+     */
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig, Storage storage) throws Throwable {
+        ApplicationConfiguration previous = CHECKED_APP_CONFIG.get();
+        CHECKED_APP_CONFIG.set(appConfig);
+        try {
+            Presenter presenter = new PresenterImpl(interactor, storage);
+            if (eventListener != null) {
+                presenter = new TracingPresenter(presenter, eventListener);
+            }
+            return presenter.check(loader, appConfig);
+        } finally {
+            if (previous != null) {
+                CHECKED_APP_CONFIG.set(previous);
+            } else {
+                CHECKED_APP_CONFIG.remove();
+            }
+        }
+    }
+
+    private static ConfigurationParser createDefaultParser(Map<String, RequirementChecker> requirementCheckers, boolean binary) {
+        requirementCheckers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new PrinceOfVersionsDefaultRequirementsChecker.ApplicationVersionProvider() {
+                @Override
+                public int provide() {
+                    ApplicationConfiguration appConfig = CHECKED_APP_CONFIG.get();
+                    if (appConfig == null) {
+                        throw new IllegalStateException("Requirements are checked outside of engine check.");
+                    }
+                    return appConfig.sdkVersionCode();
+                }
+            })
+        );
+        PrinceOfVersionsRequirementsProcessor requirementsProcessor = new PrinceOfVersionsRequirementsProcessor(requirementCheckers);
+        if (binary) {
+            return new BinaryConfigurationParser(requirementsProcessor);
+        }
+        return new StreamingJsonConfigurationParser(requirementsProcessor);
+    }
+
+    /**
+     * Helper class for building {@link PrinceOfVersionsEngine} object.
+     * All methods are optional.
+     */
+    public static final class Builder {
+
+        private final Map<String, RequirementChecker> requirementCheckers = new HashMap<>();
+
+        @Nullable
+        private ConfigurationParser configurationParser;
+
+        @Nullable
+        private PrinceOfVersionsEventListener eventListener;
+
+        private boolean binaryConfiguration;
+
+        /**
+         * Set a new configuration parser used to parse configuration file into the model.
+         * By default configuration is parsed as JSON, the same as on Android.
+         *
+         * @param configurationParser Configuration parser
+         * @return this builder
+         */
+        public Builder withParser(ConfigurationParser configurationParser) {
+            this.configurationParser = configurationParser;
+            return this;
+        }
+
+        /**
+         * Set whether configuration is in binary format created by {@link BinaryConfigurationEncoder} instead of JSON.
+         * Loaders which implement {@link StreamingLoader}, e.g. {@link StreamLoader}, pass its bytes to the parser as they are, other
+         * loaders have to decode it with {@link BinaryConfigurationEncoder#CHARSET}. It has no effect if custom parser is set.
+         *
+         * @param binaryConfiguration true if configuration is binary
+         * @return this builder
+         */
+        public Builder withBinaryConfiguration(boolean binaryConfiguration) {
+            this.binaryConfiguration = binaryConfiguration;
+            return this;
+        }
+
+        /**
+         * Add a new custom requirements checker that's used in process of parsing JSON
+         *
+         * @param key                 Key with which we are going to get a wanted requirement from JSON
+         * @param requirementsChecker Requirements checker
+         * @return this builder
+         */
+        public Builder addRequirementsChecker(String key, RequirementChecker requirementsChecker) {
+            this.requirementCheckers.put(key, requirementsChecker);
+            return this;
+        }
+
+        /**
+         * Add a new custom asynchronous requirements checker that's used in process of parsing JSON.
+         * Asynchronous checks of all updates in configuration run in parallel.
+         *
+         * @param key                 Key with which we are going to get a wanted requirement from JSON
+         * @param requirementsChecker Asynchronous requirements checker
+         * @param timeout             Time after which check is abandoned, positive
+         * @param unit                Time unit of timeout
+         * @param timeoutVerdict      Whether requirement is considered satisfied when check times out
+         * @return this builder
+         */
+        public Builder addAsyncRequirementChecker(
+            String key,
+            AsyncRequirementChecker requirementsChecker,
+            long timeout,
+            TimeUnit unit,
+            boolean timeoutVerdict
+        ) {
+            if (timeout <= 0) {
+                throw new IllegalArgumentException("Timeout should be positive, but " + timeout + " was set.");
+            }
+            this.requirementCheckers.put(key, new TimedRequirementChecker(requirementsChecker, timeout, unit, timeoutVerdict));
+            return this;
+        }
+
+        /**
+         * Remove custom requirements checker that's used in process of parsing JSON
+         *
+         * @param key Key with which we are going to get a wanted requirement from JSON
+         * @return this builder
+         */
+        public Builder removeRequirementsChecker(String key) {
+            this.requirementCheckers.remove(key);
+            return this;
+        }
+
+        /**
+         * Set a listener which is notified about phases of every check, e.g. to measure their duration.
+         * Without listener nothing is measured.
+         *
+         * @param eventListener Listener of check events
+         * @return this builder
+         */
+        public Builder withEventListener(PrinceOfVersionsEventListener eventListener) {
+            this.eventListener = eventListener;
+            return this;
+        }
+
+        /**
+         * Create the {@link PrinceOfVersionsEngine} instance using the configured values.
+         *
+         * @return PrinceOfVersionsEngine instance
+         */
+        public PrinceOfVersionsEngine build() {
+            return new PrinceOfVersionsEngine(
+                configurationParser != null
+                    ? configurationParser
+                    : createDefaultParser(new HashMap<>(requirementCheckers), binaryConfiguration),
+                eventListener
+            );
+        }
+    }
+}
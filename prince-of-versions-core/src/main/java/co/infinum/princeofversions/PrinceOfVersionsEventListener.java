@@ -0,0 +1,165 @@
+package co.infinum.princeofversions;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Listener for events of update checks, e.g. to measure where time of a check goes.
+ * <p>
+ * Every event carries id of the check it belongs to and timestamps from {@link System#nanoTime()}, so durations of phases can be
+ * computed by subtracting them. Override only events which are needed, all methods do nothing by default.
+ * </p>
+ * <p>
+ * Events are reported on the thread which runs the check, while the check is running, so methods should return quickly and must not
+ * throw. Checks which are coalesced into a check already in progress report only their start and end; phases are reported with id of
+ * the check which does the work. Phases which fail don't report their end, the error is reported by {@link #onCheckEnd}.
+ * </p>
+ * <p>
+ * When no listener is registered, checks don't measure anything.
+ * </p>
+ */
+public abstract class PrinceOfVersionsEventListener {
+
+    /**
+     * Value of loader event parameters which are not known, e.g. HTTP status of content which is not loaded from network.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Check started.
+     *
+     * @param checkId   Id of the check, unique within the process.
+     * @param timeNanos Time of the event.
+     */
+    public void onCheckStart(long checkId, long timeNanos) {
+    }
+
+    /**
+     * Loading of update configuration started.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     */
+    public void onLoadStart(long checkId, long timeNanos) {
+    }
+
+    /**
+     * Update configuration was loaded. When configuration is parsed while it is received, load ends once the response starts
+     * arriving, and receiving the rest of it is measured as parsing.
+     *
+     * @param checkId    Id of the check.
+     * @param timeNanos  Time of the event.
+     * @param bytes      Number of bytes received from network, or {@link #UNKNOWN} if content wasn't loaded from network or is
+     *                   still being received.
+     * @param httpStatus HTTP status of the response, or {@link #UNKNOWN} if content wasn't loaded from network.
+     */
+    public void onLoadEnd(long checkId, long timeNanos, long bytes, int httpStatus) {
+    }
+
+    /**
+     * Parsing of update configuration started. Not reported if configuration parsed by the previous check is reused.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     */
+    public void onParseStart(long checkId, long timeNanos) {
+    }
+
+    /**
+     * Update configuration was parsed.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     */
+    public void onParseEnd(long checkId, long timeNanos) {
+    }
+
+    /**
+     * Requirements of one update were evaluated while parsing.
+     *
+     * @param checkId      Id of the check.
+     * @param startNanos   Time when evaluation started.
+     * @param endNanos     Time when evaluation ended.
+     * @param requirements Requirements of the update.
+     * @param satisfied    Whether requirements are satisfied.
+     */
+    public void onRequirementsEvaluated(long checkId, long startNanos, long endNanos, Map<String, String> requirements,
+        boolean satisfied) {
+    }
+
+    /**
+     * Result of a {@link DeterministicRequirementChecker} was needed while requirements were evaluated.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     * @param key       Key of the requirement.
+     * @param hit       Whether remembered result was used, false if the checker was called.
+     */
+    public void onRequirementResultLookup(long checkId, long timeNanos, String key, boolean hit) {
+    }
+
+    /**
+     * Versions of the selected update were compared with the version of the application.
+     * Status is decided before notification rules are applied, so an optional update which was already notified is reported as
+     * {@link UpdateStatus#NEW_UPDATE_AVAILABLE}.
+     *
+     * @param checkId       Id of the check.
+     * @param timeNanos     Time of the event.
+     * @param status        Decided status.
+     * @param updateVersion Version to update to, or current version if there is no update.
+     */
+    public void onDecision(long checkId, long timeNanos, UpdateStatus status, int updateVersion) {
+    }
+
+    /**
+     * Check produced its result, after notification rules were applied.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     * @param status    Status of the result.
+     */
+    public void onResult(long checkId, long timeNanos, UpdateStatus status) {
+    }
+
+    /**
+     * Last notified version was read from storage.
+     *
+     * @param checkId    Id of the check.
+     * @param startNanos Time when reading started.
+     * @param endNanos   Time when reading ended.
+     * @param version    Version which was read.
+     */
+    public void onStorageRead(long checkId, long startNanos, long endNanos, @Nullable Integer version) {
+    }
+
+    /**
+     * Last notified version was written to storage.
+     *
+     * @param checkId    Id of the check.
+     * @param startNanos Time when writing started.
+     * @param endNanos   Time when writing ended.
+     * @param version    Version which was written.
+     */
+    public void onStorageWrite(long checkId, long startNanos, long endNanos, int version) {
+    }
+
+    /**
+     * Result of asynchronous check is being passed to the callback. Callback may run later on callback executor.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     */
+    public void onCallbackDispatch(long checkId, long timeNanos) {
+    }
+
+    /**
+     * Check ended.
+     *
+     * @param checkId   Id of the check.
+     * @param timeNanos Time of the event.
+     * @param error     Error of the check, or null if it succeeded.
+     */
+    public void onCheckEnd(long checkId, long timeNanos, @Nullable Throwable error) {
+    }
+}
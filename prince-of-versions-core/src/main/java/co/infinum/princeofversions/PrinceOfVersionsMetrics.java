@@ -0,0 +1,456 @@
+package co.infinum.princeofversions;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collects latency histograms and counters of update checks, e.g. to report them to telemetry.
+ * <p>
+ * Metrics are collected from check events, so register the instance as event listener:
+ * </p>
+ * <pre>
+ *         {@link PrinceOfVersionsMetrics} metrics = new {@link PrinceOfVersionsMetrics}();
+ *         PrinceOfVersions princeOfVersions = new PrinceOfVersions.Builder().withEventListener(metrics).build(context);
+ *         ...
+ *         {@link PrinceOfVersionsMetrics.Snapshot} snapshot = metrics.snapshot();
+ * </pre>
+ * <p>
+ * Recording doesn't lock nor allocate, so concurrent checks don't contend, and only {@link #snapshot()} copies the values. Latencies are
+ * kept in histograms with fixed buckets, precise to 1/8 of the value. Statuses, bytes and caches are counted once per evaluated check, so
+ * checks which were coalesced into a check already in progress count only towards check latency.
+ * </p>
+ */
+public final class PrinceOfVersionsMetrics extends PrinceOfVersionsEventListener {
+
+    private static final int NONE = 0;
+
+    private static final int LOADING = 1;
+
+    private static final int PARSING = 2;
+
+    private final ConcurrentHistogram loadLatency = new ConcurrentHistogram();
+
+    private final ConcurrentHistogram parseLatency = new ConcurrentHistogram();
+
+    private final ConcurrentHistogram checkLatency = new ConcurrentHistogram();
+
+    private final AtomicLongArray statuses = new AtomicLongArray(UpdateStatus.values().length);
+
+    private final AtomicLongArray errors = new AtomicLongArray(ErrorType.values().length);
+
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+
+    private final AtomicLong notModifiedResponses = new AtomicLong();
+
+    private final AtomicLong reusedConfigurations = new AtomicLong();
+
+    private final AtomicLong cachedResults = new AtomicLong();
+
+    private final AtomicLong requirementResultHits = new AtomicLong();
+
+    private final AtomicLong requirementResultMisses = new AtomicLong();
+
+    /**
+     * State of the check which runs on the thread. Events of a check are reported on one thread, so the state needs no synchronization.
+     */
+    private final ThreadLocal<CheckState> checks = new ThreadLocal<CheckState>() {
+        @Override
+        protected CheckState initialValue() {
+            return new CheckState();
+        }
+    };
+
+    /**
+     * Returns current values of all metrics.
+     *
+     * @return Snapshot of metrics.
+     */
+    public Snapshot snapshot() {
+        long[] statusCounts = new long[statuses.length()];
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = statuses.get(i);
+        }
+        long[] errorCounts = new long[errors.length()];
+        for (int i = 0; i < errorCounts.length; i++) {
+            errorCounts[i] = errors.get(i);
+        }
+        return new Snapshot(
+            loadLatency.snapshot(),
+            parseLatency.snapshot(),
+            checkLatency.snapshot(),
+            statusCounts,
+            errorCounts,
+            bytesDownloaded.get(),
+            notModifiedResponses.get(),
+            reusedConfigurations.get(),
+            cachedResults.get(),
+            requirementResultHits.get(),
+            requirementResultMisses.get()
+        );
+    }
+
+    @Override
+    public void onCheckStart(long checkId, long timeNanos) {
+        CheckState state = checks.get();
+        state.checkId = checkId;
+        state.checkStart = timeNanos;
+        state.phase = NONE;
+        state.loaded = false;
+        state.parsed = false;
+    }
+
+    @Override
+    public void onLoadStart(long checkId, long timeNanos) {
+        CheckState state = checks.get();
+        state.phaseStart = timeNanos;
+        state.phase = LOADING;
+    }
+
+    @Override
+    public void onLoadEnd(long checkId, long timeNanos, long bytes, int httpStatus) {
+        CheckState state = checks.get();
+        loadLatency.record(timeNanos - state.phaseStart);
+        state.phase = NONE;
+        state.loaded = true;
+        if (bytes > 0) {
+            bytesDownloaded.addAndGet(bytes);
+        }
+        if (httpStatus == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            notModifiedResponses.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onParseStart(long checkId, long timeNanos) {
+        CheckState state = checks.get();
+        state.phaseStart = timeNanos;
+        state.phase = PARSING;
+    }
+
+    @Override
+    public void onParseEnd(long checkId, long timeNanos) {
+        CheckState state = checks.get();
+        parseLatency.record(timeNanos - state.phaseStart);
+        state.phase = NONE;
+        state.parsed = true;
+    }
+
+    @Override
+    public void onRequirementResultLookup(long checkId, long timeNanos, String key, boolean hit) {
+        if (hit) {
+            requirementResultHits.incrementAndGet();
+        } else {
+            requirementResultMisses.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onDecision(long checkId, long timeNanos, UpdateStatus status, int updateVersion) {
+        CheckState state = checks.get();
+        if (!state.loaded) {
+            cachedResults.incrementAndGet();
+        } else if (!state.parsed) {
+            reusedConfigurations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onResult(long checkId, long timeNanos, UpdateStatus status) {
+        statuses.incrementAndGet(status.ordinal());
+    }
+
+    @Override
+    public void onCheckEnd(long checkId, long timeNanos, @Nullable Throwable error) {
+        CheckState state = checks.get();
+        if (state.checkId != checkId) {
+            // check nested in another check on the same thread, its start was overwritten
+            return;
+        }
+        checkLatency.record(timeNanos - state.checkStart);
+        if (error != null) {
+            errors.incrementAndGet(errorType(error, state.phase).ordinal());
+        }
+    }
+
+    private static ErrorType errorType(Throwable error, int phase) {
+        if (error instanceof RequirementsNotSatisfiedException) {
+            return ErrorType.REQUIREMENTS_NOT_SATISFIED;
+        }
+        if (phase == LOADING) {
+            return ErrorType.LOAD;
+        }
+        if (phase == PARSING) {
+            return ErrorType.PARSE;
+        }
+        return ErrorType.OTHER;
+    }
+
+    /**
+     * Kind of error which failed a check.
+     */
+    public enum ErrorType {
+
+        /**
+         * Update configuration couldn't be loaded.
+         */
+        LOAD,
+
+        /**
+         * Update configuration couldn't be parsed.
+         */
+        PARSE,
+
+        /**
+         * Requirements of no update in configuration are satisfied.
+         */
+        REQUIREMENTS_NOT_SATISFIED,
+
+        /**
+         * Any other error, e.g. configuration without versions.
+         */
+        OTHER
+    }
+
+    private static final class CheckState {
+
+        private long checkId;
+
+        private long checkStart;
+
+        private long phaseStart;
+
+        private int phase;
+
+        private boolean loaded;
+
+        private boolean parsed;
+    }
+
+    /**
+     * Values of all metrics at one point of time.
+     */
+    public static final class Snapshot {
+
+        private final Histogram loadLatency;
+
+        private final Histogram parseLatency;
+
+        private final Histogram checkLatency;
+
+        private final long[] statuses;
+
+        private final long[] errors;
+
+        private final long bytesDownloaded;
+
+        private final long notModifiedResponses;
+
+        private final long reusedConfigurations;
+
+        private final long cachedResults;
+
+        private final long requirementResultHits;
+
+        private final long requirementResultMisses;
+
+        Snapshot(Histogram loadLatency, Histogram parseLatency, Histogram checkLatency, long[] statuses, long[] errors,
+            long bytesDownloaded, long notModifiedResponses, long reusedConfigurations, long cachedResults, long requirementResultHits,
+            long requirementResultMisses) {
+            this.loadLatency = loadLatency;
+            this.parseLatency = parseLatency;
+            this.checkLatency = checkLatency;
+            this.statuses = statuses;
+            this.errors = errors;
+            this.bytesDownloaded = bytesDownloaded;
+            this.notModifiedResponses = notModifiedResponses;
+            this.reusedConfigurations = reusedConfigurations;
+            this.cachedResults = cachedResults;
+            this.requirementResultHits = requirementResultHits;
+            this.requirementResultMisses = requirementResultMisses;
+        }
+
+        /**
+         * Returns latency of loading update configuration, in nanoseconds.
+         *
+         * @return Histogram of load latency.
+         */
+        public Histogram getLoadLatency() {
+            return loadLatency;
+        }
+
+        /**
+         * Returns latency of parsing update configuration, including requirement checks, in nanoseconds.
+         *
+         * @return Histogram of parse latency.
+         */
+        public Histogram getParseLatency() {
+            return parseLatency;
+        }
+
+        /**
+         * Returns latency of whole checks, including passing the result to the callback, in nanoseconds.
+         *
+         * @return Histogram of check latency.
+         */
+        public Histogram getCheckLatency() {
+            return checkLatency;
+        }
+
+        /**
+         * Returns number of results with given status.
+         *
+         * @param status Status of results.
+         * @return Number of results.
+         */
+        public long getStatusCount(UpdateStatus status) {
+            return statuses[status.ordinal()];
+        }
+
+        /**
+         * Returns number of checks which failed with given kind of error.
+         *
+         * @param type Kind of error.
+         * @return Number of failed checks.
+         */
+        public long getErrorCount(ErrorType type) {
+            return errors[type.ordinal()];
+        }
+
+        /**
+         * Returns number of bytes received from network, before decompression.
+         *
+         * @return Number of bytes.
+         */
+        public long getBytesDownloaded() {
+            return bytesDownloaded;
+        }
+
+        /**
+         * Returns number of loads answered with <i>304 Not Modified</i>.
+         *
+         * @return Number of conditional request cache hits.
+         */
+        public long getNotModifiedResponses() {
+            return notModifiedResponses;
+        }
+
+        /**
+         * Returns number of checks which reused configuration parsed by a previous check, because content didn't change.
+         *
+         * @return Number of parsed configuration cache hits.
+         */
+        public long getReusedConfigurations() {
+            return reusedConfigurations;
+        }
+
+        /**
+         * Returns number of checks which used cached result without loading the configuration.
+         *
+         * @return Number of result cache hits.
+         */
+        public long getCachedResults() {
+            return cachedResults;
+        }
+
+        /**
+         * Returns number of times a remembered result of {@link DeterministicRequirementChecker} was used instead of calling it.
+         *
+         * @return Number of requirement result cache hits.
+         */
+        public long getRequirementResultHits() {
+            return requirementResultHits;
+        }
+
+        /**
+         * Returns number of times {@link DeterministicRequirementChecker} had to be called, because its result wasn't remembered.
+         *
+         * @return Number of requirement result cache misses.
+         */
+        public long getRequirementResultMisses() {
+            return requirementResultMisses;
+        }
+    }
+
+    /**
+     * Recorded values of one histogram.
+     */
+    public static final class Histogram {
+
+        private static final double PERCENT = 100;
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long total;
+
+        private final long max;
+
+        Histogram(long[] counts, long total, long max) {
+            this.counts = counts;
+            long sum = 0;
+            for (long bucketCount : counts) {
+                sum += bucketCount;
+            }
+            this.count = sum;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * Returns number of recorded values.
+         *
+         * @return Number of values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the largest recorded value.
+         *
+         * @return Maximum, or 0 if nothing was recorded.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the average of recorded values.
+         *
+         * @return Mean, or 0 if nothing was recorded.
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Returns value below or at which given percentage of recorded values are.
+         * The value is the highest value of its bucket, but never higher than {@link #getMax()}.
+         *
+         * @param percentile Percentage, from 0 to 100.
+         * @return Value at percentile, or 0 if nothing was recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > PERCENT) {
+                throw new IllegalArgumentException("Percentile should be from 0 to 100, but " + percentile + " was requested.");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    long highest = bucket + 1 < counts.length ? ConcurrentHistogram.lowestValueOf(bucket + 1) - 1 : Long.MAX_VALUE;
+                    return Math.min(highest, max);
+                }
+            }
+            return max;
+        }
+    }
+}
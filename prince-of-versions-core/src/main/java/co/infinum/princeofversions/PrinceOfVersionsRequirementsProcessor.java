@@ -0,0 +1,400 @@
+package co.infinum.princeofversions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class checks whether requirements of an update are satisfied.
+ * <p>
+ * Requirements are compiled into a plan the first time they are checked. Checker of every requirement is looked up once, values of
+ * {@link CompilableRequirementChecker} requirements are parsed once and their conditions are checked before other checkers, since
+ * they are the cheapest. Plans are cached by the content of requirements, so the same update in a reloaded configuration is not
+ * compiled again.
+ * </p>
+ * <p>
+ * Results of {@link DeterministicRequirementChecker} checkers are remembered by requirement key and value, so such checker is called
+ * once per value.
+ * </p>
+ * <p>
+ * Asynchronous checkers (see {@link TimedRequirementChecker}) are checked after all other checkers of the same requirements. When
+ * several candidate updates are checked with {@link #firstSatisfied(List)}, asynchronous checks of all of them are started at once and
+ * their results are awaited in the order of candidates.
+ * </p>
+ */
+class PrinceOfVersionsRequirementsProcessor {
+
+    /**
+     * Number of cached plans, large enough for configurations with hundreds of updates. Least recently used plans are dropped first,
+     * so plans of a replaced configuration are dropped before plans of the current one.
+     */
+    private static final int MAX_CACHED_PLANS = 512;
+
+    /**
+     * Number of remembered results of deterministic checkers. Least recently used results are dropped first.
+     */
+    private static final int MAX_CACHED_RESULTS = 1024;
+
+    /**
+     * Returned by {@link #firstSatisfied(List)} when no candidate is satisfied.
+     */
+    static final int NONE_SATISFIED = -1;
+
+    private final Map<String, RequirementChecker> installedCheckers;
+
+    private final boolean hasAsyncCheckers;
+
+    /**
+     * Compiled plans by requirements.
+     */
+    private final LruCache<Map<String, String>, Plan> plans = new LruCache<>(MAX_CACHED_PLANS);
+
+    /**
+     * Results of deterministic checkers by requirement.
+     */
+    private final LruCache<ResultKey, Boolean> results = new LruCache<>(MAX_CACHED_RESULTS);
+
+    private final AtomicLong resultHits = new AtomicLong();
+
+    private final AtomicLong resultMisses = new AtomicLong();
+
+    PrinceOfVersionsRequirementsProcessor(final Map<String, RequirementChecker> checkers) {
+        this.installedCheckers = new HashMap<>(checkers);
+        boolean async = false;
+        for (RequirementChecker checker : installedCheckers.values()) {
+            async |= checker instanceof TimedRequirementChecker;
+        }
+        this.hasAsyncCheckers = async;
+    }
+
+    PrinceOfVersionsRequirementsProcessor() {
+        this(Collections.<String, RequirementChecker>emptyMap());
+    }
+
+    /**
+     * Returns whether provided checkers evaluate the same requirements the same way for as long as the application runs, i.e. every
+     * checker is the default one or a {@link DeterministicRequirementChecker}. Only then configuration parsed with them can be reused.
+     *
+     * @param checkers Requirement checkers.
+     * @return true if all checkers are deterministic.
+     */
+    static boolean areDeterministic(Collection<RequirementChecker> checkers) {
+        for (RequirementChecker checker : checkers) {
+            if (!(checker instanceof DeterministicRequirementChecker) && !(checker instanceof PrinceOfVersionsDefaultRequirementsChecker)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean areRequirementsSatisfied(final Map<String, String> requirements) {
+        CheckTrace trace = CheckTrace.current();
+        if (trace == null) {
+            return plan(requirements).isSatisfied(new HashMap<ResultKey, TimedRequirementChecker.Pending>());
+        }
+        long start = System.nanoTime();
+        boolean satisfied = plan(requirements).isSatisfied(new HashMap<ResultKey, TimedRequirementChecker.Pending>());
+        trace.requirementsEvaluated(start, requirements, satisfied);
+        return satisfied;
+    }
+
+    /**
+     * Returns whether some of installed checkers are asynchronous. Only then it pays off to collect candidates for
+     * {@link #firstSatisfied(List)} instead of checking them one by one.
+     *
+     * @return true if there are asynchronous checkers.
+     */
+    boolean hasAsyncCheckers() {
+        return hasAsyncCheckers;
+    }
+
+    /**
+     * Finds the first candidate whose requirements are satisfied. Asynchronous checks of all candidates run in parallel.
+     *
+     * @param candidates Requirements of candidates in order of preference, null if candidate has no requirements.
+     * @return Index of the first satisfied candidate, or {@link #NONE_SATISFIED}.
+     */
+    int firstSatisfied(List<Map<String, String>> candidates) {
+        Plan[] candidatePlans = new Plan[candidates.size()];
+        Map<ResultKey, TimedRequirementChecker.Pending> started = new HashMap<>();
+        for (int i = 0; i < candidatePlans.length; i++) {
+            Map<String, String> requirements = candidates.get(i);
+            candidatePlans[i] = requirements != null ? plan(requirements) : Plan.ALWAYS_SATISFIED;
+            candidatePlans[i].start(started);
+        }
+        CheckTrace trace = CheckTrace.current();
+        for (int i = 0; i < candidatePlans.length; i++) {
+            long start = trace != null ? System.nanoTime() : 0;
+            boolean satisfied = candidatePlans[i].isSatisfied(started);
+            if (trace != null && candidates.get(i) != null) {
+                // time of the first evaluated candidate includes waiting for asynchronous checks of all of them
+                trace.requirementsEvaluated(start, candidates.get(i), satisfied);
+            }
+            if (satisfied) {
+                return i;
+            }
+        }
+        return NONE_SATISFIED;
+    }
+
+    /**
+     * Looks up plans of candidates once, so the same candidates can be checked many times, e.g. once per device by
+     * {@link CohortEvaluator}, without hashing their requirements on every check.
+     *
+     * @param candidates Requirements of candidates in order of preference, null if candidate has no requirements.
+     * @return Plans of candidates, see {@link #firstSatisfied(Plan[])}.
+     */
+    Plan[] plans(List<Map<String, String>> candidates) {
+        Plan[] candidatePlans = new Plan[candidates.size()];
+        for (int i = 0; i < candidatePlans.length; i++) {
+            Map<String, String> requirements = candidates.get(i);
+            candidatePlans[i] = requirements != null ? plan(requirements) : Plan.ALWAYS_SATISFIED;
+        }
+        return candidatePlans;
+    }
+
+    /**
+     * Finds the first candidate whose plan is satisfied. Should be used only when there are no asynchronous checkers.
+     *
+     * @param candidatePlans Plans of candidates in order of preference.
+     * @return Index of the first satisfied candidate, or {@link #NONE_SATISFIED}.
+     */
+    static int firstSatisfied(Plan[] candidatePlans) {
+        Map<ResultKey, TimedRequirementChecker.Pending> started = Collections.emptyMap();
+        for (int i = 0; i < candidatePlans.length; i++) {
+            if (candidatePlans[i].isSatisfied(started)) {
+                return i;
+            }
+        }
+        return NONE_SATISFIED;
+    }
+
+    /**
+     * Returns how many times a remembered result of deterministic checker was used.
+     *
+     * @return Number of cache hits.
+     */
+    long getResultCacheHits() {
+        return resultHits.get();
+    }
+
+    /**
+     * Returns how many times deterministic checker had to be called.
+     *
+     * @return Number of cache misses.
+     */
+    long getResultCacheMisses() {
+        return resultMisses.get();
+    }
+
+    private Plan plan(Map<String, String> requirements) {
+        Plan plan = plans.get(requirements);
+        if (plan == null) {
+            plan = compile(requirements);
+            // requirements might be changed by the caller later, so the key is an immutable copy, or the map itself if immutable
+            plans.put(CompactMap.copyOf(requirements), plan);
+        }
+        return plan;
+    }
+
+    private Plan compile(Map<String, String> requirements) {
+        List<CompilableRequirementChecker.Condition> compiled = new ArrayList<>();
+        List<CompilableRequirementChecker.Condition> memoized = new ArrayList<>();
+        List<CompilableRequirementChecker.Condition> other = new ArrayList<>();
+        List<AsyncRequirement> async = new ArrayList<>();
+        for (Map.Entry<String, String> requirement : requirements.entrySet()) {
+            RequirementChecker checker = installedCheckers.get(requirement.getKey());
+            if (checker == null) {
+                return Plan.NEVER_SATISFIED;
+            }
+            if (checker instanceof CompilableRequirementChecker) {
+                try {
+                    compiled.add(((CompilableRequirementChecker) checker).compile(requirement.getValue()));
+                } catch (Throwable invalidValue) {
+                    return Plan.NEVER_SATISFIED;
+                }
+            } else if (checker instanceof TimedRequirementChecker) {
+                async.add(new AsyncRequirement(
+                    new ResultKey(requirement.getKey(), requirement.getValue()),
+                    (TimedRequirementChecker) checker
+                ));
+            } else if (checker instanceof DeterministicRequirementChecker) {
+                memoized.add(new MemoizedCondition(new ResultKey(requirement.getKey(), requirement.getValue()), checker));
+            } else {
+                other.add(new CheckerCondition(checker, requirement.getValue()));
+            }
+        }
+        compiled.addAll(memoized);
+        compiled.addAll(other);
+        return new Plan(compiled.toArray(new CompilableRequirementChecker.Condition[0]), async.toArray(new AsyncRequirement[0]));
+    }
+
+    /**
+     * Conditions of all requirements, all of them have to be satisfied.
+     */
+    static final class Plan {
+
+        static final Plan NEVER_SATISFIED = new Plan(null, new AsyncRequirement[0]);
+
+        static final Plan ALWAYS_SATISFIED = new Plan(new CompilableRequirementChecker.Condition[0], new AsyncRequirement[0]);
+
+        /**
+         * Conditions ordered cheapest first, or null if requirements can never be satisfied.
+         */
+        @Nullable
+        private final CompilableRequirementChecker.Condition[] conditions;
+
+        /**
+         * Requirements of asynchronous checkers, checked after conditions.
+         */
+        private final AsyncRequirement[] async;
+
+        Plan(@Nullable CompilableRequirementChecker.Condition[] conditions, AsyncRequirement[] async) {
+            this.conditions = conditions;
+            this.async = async;
+        }
+
+        /**
+         * Starts asynchronous checks which are not started yet.
+         *
+         * @param started Checks started so far, by requirement.
+         */
+        void start(Map<ResultKey, TimedRequirementChecker.Pending> started) {
+            if (conditions == null) {
+                return;
+            }
+            for (AsyncRequirement requirement : async) {
+                if (!started.containsKey(requirement.key)) {
+                    started.put(requirement.key, requirement.checker.start(requirement.key.value));
+                }
+            }
+        }
+
+        boolean isSatisfied(Map<ResultKey, TimedRequirementChecker.Pending> started) {
+            if (conditions == null) {
+                return false;
+            }
+            try {
+                for (CompilableRequirementChecker.Condition condition : conditions) {
+                    if (!condition.isSatisfied()) {
+                        return false;
+                    }
+                }
+            } catch (Throwable error) {
+                return false;
+            }
+            start(started);
+            for (AsyncRequirement requirement : async) {
+                if (!started.get(requirement.key).await()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Requirement of asynchronous checker.
+     */
+    private static final class AsyncRequirement {
+
+        private final ResultKey key;
+
+        private final TimedRequirementChecker checker;
+
+        AsyncRequirement(ResultKey key, TimedRequirementChecker checker) {
+            this.key = key;
+            this.checker = checker;
+        }
+    }
+
+    /**
+     * Condition of checker which can't be compiled, it checks raw value every time.
+     */
+    private static final class CheckerCondition implements CompilableRequirementChecker.Condition {
+
+        private final RequirementChecker checker;
+
+        private final String value;
+
+        CheckerCondition(RequirementChecker checker, String value) {
+            this.checker = checker;
+            this.value = value;
+        }
+
+        @Override
+        public boolean isSatisfied() throws Throwable {
+            return checker.checkRequirements(value);
+        }
+    }
+
+    /**
+     * Condition of deterministic checker, which remembers the result.
+     */
+    private final class MemoizedCondition implements CompilableRequirementChecker.Condition {
+
+        private final ResultKey key;
+
+        private final RequirementChecker checker;
+
+        MemoizedCondition(ResultKey key, RequirementChecker checker) {
+            this.key = key;
+            this.checker = checker;
+        }
+
+        @Override
+        public boolean isSatisfied() throws Throwable {
+            Boolean result = results.get(key);
+            CheckTrace trace = CheckTrace.current();
+            if (trace != null) {
+                trace.requirementResultLookup(key.key, result != null);
+            }
+            if (result != null) {
+                resultHits.incrementAndGet();
+                return result;
+            }
+            resultMisses.incrementAndGet();
+            boolean satisfied = checker.checkRequirements(key.value);
+            results.put(key, satisfied);
+            return satisfied;
+        }
+    }
+
+    /**
+     * Requirement key and value.
+     */
+    private static final class ResultKey {
+
+        private final String key;
+
+        private final String value;
+
+        ResultKey(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return key.equals(other.key) && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + value.hashCode();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Bounded pool of background threads which runs update checks.
+ * <p>
+ * Pool runs at most the configured number of checks at the same time. Other checks wait in a queue of limited capacity, ordered by
+ * {@link Priority} and then by the order in which they were submitted. When the queue is full, {@link RejectionPolicy} decides what
+ * happens with a new check. Threads which stay idle longer than keep alive time are stopped, so an idle pool holds no threads.
+ * </p>
+ * <p>
+ * Use {@code withExecutor(Executor)} of {@code PrinceOfVersions.Builder} to run checks of {@code PrinceOfVersions} on the pool, or pass
+ * the pool (or {@link #withPriority(Priority)} view of it) to methods which accept {@link Executor}.
+ * </p>
+ */
+public final class PrinceOfVersionsWorkerPool implements Executor {
+
+    private static final int DEFAULT_THREADS = 2;
+
+    private static final long DEFAULT_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Priority of a task in the queue.
+     */
+    public enum Priority {
+        /**
+         * Runs after all other tasks, e.g. background refresh.
+         */
+        LOW,
+        /**
+         * Default priority.
+         */
+        NORMAL,
+        /**
+         * Runs before all other tasks, e.g. check which blocks user interface.
+         */
+        HIGH
+    }
+
+    /**
+     * Decides what happens with a new task when all threads are busy and the queue is full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Throws {@link RejectedExecutionException} to the caller.
+         */
+        ABORT,
+        /**
+         * Runs the task on the caller's thread.
+         */
+        CALLER_RUNS
+    }
+
+    private final ThreadPoolExecutor service;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong startedTasks = new AtomicLong();
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+
+    private final AtomicLong totalWaitNanoseconds = new AtomicLong();
+
+    private final AtomicLong maxWaitNanoseconds = new AtomicLong();
+
+    private PrinceOfVersionsWorkerPool(int threads, int queueCapacity, long keepAliveMilliseconds, final RejectionPolicy rejectionPolicy,
+        final String threadName) {
+        service = new ThreadPoolExecutor(
+            threads,
+            threads,
+            keepAliveMilliseconds,
+            TimeUnit.MILLISECONDS,
+            new BoundedPriorityQueue(queueCapacity),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread t = new Thread(r, threadName + " #" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            },
+            new RejectedExecutionHandler() {
+                @Override
+                public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                    rejectedTasks.incrementAndGet();
+                    if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+                        r.run();
+                    } else {
+                        throw new RejectedExecutionException(
+                            "Update check rejected, " + executor.getQueue().size() + " checks are waiting");
+                    }
+                }
+            }
+        );
+        // idle threads are stopped after keep alive time
+        service.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable runnable) {
+        execute(runnable, Priority.NORMAL);
+    }
+
+    /**
+     * Runs task with provided priority.
+     *
+     * @param runnable Task.
+     * @param priority Priority of the task in the queue.
+     * @throws RejectedExecutionException if queue is full and rejection policy is {@link RejectionPolicy#ABORT}.
+     */
+    public void execute(Runnable runnable, Priority priority) {
+        service.execute(new Task(runnable, priority, sequence.getAndIncrement(), System.nanoTime()));
+    }
+
+    /**
+     * Creates a view of this pool which runs all tasks with provided priority.
+     *
+     * @param priority Priority of tasks in the queue.
+     * @return Executor which runs tasks on this pool.
+     */
+    public Executor withPriority(final Priority priority) {
+        return new Executor() {
+            @Override
+            public void execute(@Nonnull Runnable runnable) {
+                PrinceOfVersionsWorkerPool.this.execute(runnable, priority);
+            }
+        };
+    }
+
+    /**
+     * Returns number of tasks waiting in the queue.
+     *
+     * @return Queue depth.
+     */
+    public int getQueueDepth() {
+        return service.getQueue().size();
+    }
+
+    /**
+     * Returns number of tasks which are running right now.
+     *
+     * @return Number of busy threads.
+     */
+    public int getActiveCount() {
+        return service.getActiveCount();
+    }
+
+    /**
+     * Returns number of threads in the pool, including idle threads which are not stopped yet.
+     *
+     * @return Number of threads.
+     */
+    public int getThreadCount() {
+        return service.getPoolSize();
+    }
+
+    /**
+     * Returns number of tasks which were started.
+     *
+     * @return Number of started tasks.
+     */
+    public long getStartedTaskCount() {
+        return startedTasks.get();
+    }
+
+    /**
+     * Returns number of tasks which were rejected because the queue was full, including ones which ran on caller's thread.
+     *
+     * @return Number of rejected tasks.
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * Returns average time tasks spent in the queue before they started.
+     *
+     * @param unit Time unit of the result.
+     * @return Average wait time, zero if no task was started.
+     */
+    public long getAverageWaitTime(TimeUnit unit) {
+        long started = startedTasks.get();
+        return started == 0 ? 0 : unit.convert(totalWaitNanoseconds.get() / started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the longest time a task spent in the queue before it started.
+     *
+     * @param unit Time unit of the result.
+     * @return Maximum wait time.
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitNanoseconds.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private void recordWait(long waitNanoseconds) {
+        startedTasks.incrementAndGet();
+        totalWaitNanoseconds.addAndGet(waitNanoseconds);
+        long max = maxWaitNanoseconds.get();
+        while (waitNanoseconds > max && !maxWaitNanoseconds.compareAndSet(max, waitNanoseconds)) {
+            max = maxWaitNanoseconds.get();
+        }
+    }
+
+    /**
+     * Task ordered by priority and then by submission order.
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+
+        private final Runnable runnable;
+
+        private final Priority priority;
+
+        private final long sequence;
+
+        private final long submittedAt;
+
+        Task(Runnable runnable, Priority priority, long sequence, long submittedAt) {
+            this.runnable = runnable;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            recordWait(System.nanoTime() - submittedAt);
+            runnable.run();
+        }
+
+        @Override
+        public int compareTo(@Nonnull Task other) {
+            if (priority != other.priority) {
+                // higher priority first
+                return other.priority.compareTo(priority);
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * Priority queue which refuses new tasks once it holds capacity tasks, so thread pool rejects them.
+     */
+    private static final class BoundedPriorityQueue extends PriorityBlockingQueue<Runnable> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        BoundedPriorityQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized boolean offer(Runnable runnable) {
+            return size() < capacity && super.offer(runnable);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+    }
+
+    /**
+     * Helper class for building {@link PrinceOfVersionsWorkerPool} object.
+     * All methods are optional.
+     */
+    public static final class Builder {
+
+        private int threads = DEFAULT_THREADS;
+
+        private int queueCapacity = Integer.MAX_VALUE;
+
+        private long keepAliveMilliseconds = TimeUnit.SECONDS.toMillis(DEFAULT_KEEP_ALIVE_SECONDS);
+
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+        private String threadName = "PrinceOfVersions Thread";
+
+        /**
+         * Set maximum number of checks which run at the same time.
+         *
+         * @param threads Maximum number of threads, at least one
+         * @return this builder
+         */
+        public Builder withThreads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Pool needs at least one thread, but " + threads + " was set.");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Set maximum number of checks which wait for a free thread. By default queue is not limited.
+         *
+         * @param queueCapacity Queue capacity, at least one
+         * @return this builder
+         */
+        public Builder withQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Queue capacity should be positive, but " + queueCapacity + " was set.");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Set how long an idle thread is kept before it is stopped.
+         *
+         * @param keepAlive Keep alive time, positive
+         * @param unit      Time unit of keep alive time
+         * @return this builder
+         */
+        public Builder withKeepAlive(long keepAlive, TimeUnit unit) {
+            if (keepAlive <= 0) {
+                throw new IllegalArgumentException("Keep alive time should be positive, but " + keepAlive + " was set.");
+            }
+            this.keepAliveMilliseconds = unit.toMillis(keepAlive);
+            return this;
+        }
+
+        /**
+         * Set what happens with a new check when the queue is full. Default policy is {@link RejectionPolicy#ABORT}.
+         *
+         * @param rejectionPolicy Rejection policy
+         * @return this builder
+         */
+        public Builder withRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+            return this;
+        }
+
+        /**
+         * Set name of pool threads. Threads are numbered in order in which they were started.
+         *
+         * @param threadName Thread name
+         * @return this builder
+         */
+        public Builder withThreadName(String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * Create the {@link PrinceOfVersionsWorkerPool} instance using the configured values.
+         *
+         * @return PrinceOfVersionsWorkerPool instance
+         */
+        public PrinceOfVersionsWorkerPool build() {
+            return new PrinceOfVersionsWorkerPool(threads, queueCapacity, keepAliveMilliseconds, rejectionPolicy, threadName);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package co.infinum.princeofversions;
+
+import javax.annotation.Nullable;
+
+/**
+ * Check which runs on a thread and can be aborted from another thread.
+ * <p>
+ * Aborting cancels the loader if it is a {@link CancelableLoader} and interrupts the thread running the check, so blocking work
+ * stops as soon as possible. Interrupt never leaks to work which the thread runs after the check.
+ * </p>
+ */
+final class RunningCheck {
+
+    private final Loader loader;
+
+    /**
+     * Thread running the check, guarded by this.
+     */
+    @Nullable
+    private Thread thread;
+
+    /**
+     * Guarded by this.
+     */
+    private boolean aborted;
+
+    RunningCheck(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Marks that the check starts on the current thread.
+     *
+     * @return false if check was aborted before it started and shouldn't run at all.
+     */
+    synchronized boolean start() {
+        if (aborted) {
+            return false;
+        }
+        thread = Thread.currentThread();
+        return true;
+    }
+
+    /**
+     * Marks that the check finished on the current thread. Thread can't be interrupted afterwards.
+     */
+    synchronized void finish() {
+        thread = null;
+        if (aborted) {
+            // clear interrupt caused by abort
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Aborts the check, no matter if it already started or not.
+     */
+    void abort() {
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        if (loader instanceof CancelableLoader) {
+            ((CancelableLoader) loader).cancel();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package co.infinum.princeofversions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class coalesces concurrent update checks of the same resource into a single check.
+ * <p>
+ * While a check is in flight, later checks with a loader of the same key (see {@link LoaderKeys}) don't start their own check, but
+ * wait for the one in flight and get the same {@link UpdateResult}. Each asynchronous caller is notified on its own callback, and
+ * every caller, synchronous or asynchronous, can cancel independently. Shared check is aborted only when every caller canceled.
+ * </p>
+ */
+final class SingleFlightPresenter implements Presenter {
+
+    private final Presenter delegate;
+
+    /**
+     * Checks in flight by loader key. Also guards state of every flight.
+     */
+    private final Map<Object, Flight> flights = new HashMap<>();
+
+    SingleFlightPresenter(Presenter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig) throws Throwable {
+        return check(loader, appConfig, new UpdaterCancelable());
+    }
+
+    @Override
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig, UpdaterCancelable call) throws Throwable {
+        Object key = LoaderKeys.of(loader);
+        Flight flight;
+        final Waiter waiter;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight(key, loader, appConfig);
+                flights.put(key, flight);
+                leader = true;
+            }
+            waiter = new Waiter(flight);
+            flight.waiters.add(waiter);
+        }
+        call.doOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                waiter.cancel();
+            }
+        });
+        try {
+            if (leader) {
+                // canceled leader keeps running the check for callers which are still attached, it just doesn't get the result
+                flight.run();
+            }
+            return waiter.await();
+        } finally {
+            call.doOnCancel(null);
+        }
+    }
+
+    @Override
+    public PrinceOfVersionsCancelable check(Loader loader, Executor executor, UpdaterCallback callback,
+        ApplicationConfiguration appConfig) {
+        Object key = LoaderKeys.of(loader);
+        Flight flight;
+        Subscriber subscriber;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight(key, loader, appConfig);
+                flights.put(key, flight);
+                leader = true;
+            }
+            subscriber = new Subscriber(flight, callback);
+            flight.subscribers.add(subscriber);
+        }
+        if (leader) {
+            try {
+                executor.execute(flight);
+            } catch (RuntimeException rejected) {
+                // the caller gets the error thrown, callers which already joined get it through callbacks
+                flight.unsubscribe(subscriber);
+                flight.finish(null, rejected);
+                throw rejected;
+            }
+        }
+        return subscriber;
+    }
+
+    /**
+     * One shared check.
+     */
+    private final class Flight implements Runnable {
+
+        private final Object key;
+
+        private final Loader loader;
+
+        private final ApplicationConfiguration appConfig;
+
+        private final RunningCheck running;
+
+        /**
+         * Asynchronous callers which are still attached. Guarded by the lock.
+         */
+        private final List<Subscriber> subscribers = new ArrayList<>();
+
+        /**
+         * Synchronous callers which are still attached. Guarded by the lock.
+         */
+        private final List<Waiter> waiters = new ArrayList<>();
+
+        @Nullable
+        private UpdateResult result;
+
+        @Nullable
+        private Throwable error;
+
+        Flight(Object key, Loader loader, ApplicationConfiguration appConfig) {
+            this.key = key;
+            this.loader = loader;
+            this.appConfig = appConfig;
+            this.running = new RunningCheck(loader);
+        }
+
+        @Override
+        public void run() {
+            if (!running.start()) {
+                // every caller canceled before the check started
+                return;
+            }
+            UpdateResult checkResult = null;
+            Throwable checkError = null;
+            try {
+                checkResult = delegate.check(loader, appConfig);
+            } catch (Throwable t) {
+                checkError = t;
+            } finally {
+                running.finish();
+            }
+            finish(checkResult, checkError);
+        }
+
+        void unsubscribe(Subscriber subscriber) {
+            detach(subscribers, subscriber);
+        }
+
+        void leave(Waiter waiter) {
+            detach(waiters, waiter);
+        }
+
+        /**
+         * Removes the caller and aborts the check if it was the last one.
+         */
+        private void detach(List<?> callers, Object caller) {
+            boolean abandoned;
+            synchronized (flights) {
+                abandoned = callers.remove(caller) && subscribers.isEmpty() && waiters.isEmpty();
+                if (abandoned) {
+                    // new callers start a new check instead of joining the aborted one
+                    removeFromFlights();
+                }
+            }
+            if (abandoned) {
+                running.abort();
+            }
+        }
+
+        void finish(@Nullable UpdateResult checkResult, @Nullable Throwable checkError) {
+            List<Subscriber> notified;
+            List<Waiter> released;
+            synchronized (flights) {
+                result = checkResult;
+                error = checkError;
+                removeFromFlights();
+                notified = new ArrayList<>(subscribers);
+                subscribers.clear();
+                released = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+            for (Waiter waiter : released) {
+                waiter.release();
+            }
+            for (Subscriber subscriber : notified) {
+                subscriber.deliver(checkResult, checkError);
+            }
+        }
+
+        UpdateResult outcome() throws Throwable {
+            synchronized (flights) {
+                if (error != null) {
+                    throw error;
+                }
+                return result;
+            }
+        }
+
+        /**
+         * Must be called while holding the lock.
+         */
+        private void removeFromFlights() {
+            if (flights.get(key) == this) {
+                flights.remove(key);
+            }
+        }
+    }
+
+    /**
+     * One synchronous caller attached to a shared check.
+     */
+    private static final class Waiter {
+
+        private final Flight flight;
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private volatile boolean canceled;
+
+        Waiter(Flight flight) {
+            this.flight = flight;
+        }
+
+        void cancel() {
+            canceled = true;
+            flight.leave(this);
+            released.countDown();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        UpdateResult await() throws Throwable {
+            released.await();
+            if (canceled) {
+                throw new IOException("Canceled");
+            }
+            return flight.outcome();
+        }
+    }
+
+    /**
+     * One asynchronous caller attached to a shared check.
+     */
+    private static final class Subscriber implements PrinceOfVersionsCancelable {
+
+        private final Flight flight;
+
+        private final UpdaterCallback callback;
+
+        private volatile boolean canceled;
+
+        Subscriber(Flight flight, UpdaterCallback callback) {
+            this.flight = flight;
+            this.callback = callback;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            flight.unsubscribe(this);
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        void deliver(@Nullable UpdateResult result, @Nullable Throwable error) {
+            if (canceled) {
+                return;
+            }
+            if (error != null) {
+                callback.onError(error);
+            } else if (result != null) {
+                callback.onSuccess(result);
+            }
+        }
+    }
+}
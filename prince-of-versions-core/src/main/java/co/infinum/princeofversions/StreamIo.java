@@ -0,0 +1,221 @@
+package co.infinum.princeofversions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * Utility class for reading from input stream into string.
+ * <p>
+ * Stream is read as bytes into a reusable buffer and decoded in one pass, so no intermediate lines or readers are created. The
+ * buffer is returned to a single slot pool after decoding, so consecutive checks reuse it.
+ * </p>
+ */
+final class StreamIo {
+
+    /**
+     * Marks that the length of the stream is not known up front.
+     */
+    static final int UNKNOWN_LENGTH = -1;
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Buffers larger than this are not kept in the pool, so one large response doesn't stay in memory.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Expected length is only a hint, so buffer created from it up front is capped.
+     */
+    private static final int MAX_INITIAL_BUFFER_SIZE = 1024 * 1024;
+
+    private static final AtomicReference<byte[]> POOL = new AtomicReference<>();
+
+    private StreamIo() {
+
+    }
+
+    /**
+     * Returns whether content decoded with provided charset can be streamed to a parser as it is. Streaming parsers decode text as
+     * UTF-8, so content in any other charset has to be decoded by the loader.
+     *
+     * @param charset Charset of the content, null for the default one.
+     * @return true if the charset is UTF-8.
+     */
+    static boolean isStreamable(@Nullable Charset charset) {
+        return charset == null || DEFAULT_CHARSET.equals(charset);
+    }
+
+    /**
+     * Transform input stream into string using UTF-8 charset.
+     *
+     * @param is Input stream.
+     * @return String read from stream.
+     * @throws IOException if reading error occurred.
+     */
+    static String toString(InputStream is) throws IOException {
+        return toString(is, UNKNOWN_LENGTH, DEFAULT_CHARSET);
+    }
+
+    /**
+     * Transforming input stream into string using given charset.
+     *
+     * @param is      Input stream.
+     * @param charset Charset used while reading stream.
+     * @return String read from stream.
+     * @throws IOException if reading error occurred.
+     */
+    static String toString(InputStream is, Charset charset) throws IOException {
+        return toString(is, UNKNOWN_LENGTH, charset);
+    }
+
+    /**
+     * Transforming input stream with known length into string using UTF-8 charset.
+     *
+     * @param is             Input stream.
+     * @param expectedLength Expected number of bytes in stream, e.g. from Content-Length header, or {@link #UNKNOWN_LENGTH}.
+     * @return String read from stream.
+     * @throws IOException if reading error occurred.
+     */
+    static String toString(InputStream is, int expectedLength) throws IOException {
+        return toString(is, expectedLength, DEFAULT_CHARSET);
+    }
+
+    /**
+     * Transforming input stream with known length into string using given charset.
+     *
+     * @param is             Input stream.
+     * @param expectedLength Expected number of bytes in stream, e.g. from Content-Length header, or {@link #UNKNOWN_LENGTH}.
+     * @param charset        Charset used while reading stream.
+     * @return String read from stream.
+     * @throws IOException if reading error occurred.
+     */
+    static String toString(InputStream is, int expectedLength, Charset charset) throws IOException {
+        Bytes bytes = read(is, expectedLength);
+        try {
+            return new String(bytes.buffer, 0, bytes.length, charset);
+        } finally {
+            bytes.release();
+        }
+    }
+
+    /**
+     * Transforming input stream into characters using UTF-8 charset.
+     * Unlike {@link #toString(InputStream, int)}, decoded characters are not copied into a {@link String}, returned sequence is
+     * a view over them.
+     *
+     * @param is             Input stream.
+     * @param expectedLength Expected number of bytes in stream, e.g. from Content-Length header, or {@link #UNKNOWN_LENGTH}.
+     * @return Characters read from stream.
+     * @throws IOException if reading error occurred.
+     */
+    static CharSequence toCharSequence(InputStream is, int expectedLength) throws IOException {
+        Bytes bytes = read(is, expectedLength);
+        try {
+            return DEFAULT_CHARSET.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(bytes.buffer, 0, bytes.length));
+        } catch (CharacterCodingException e) {
+            // cannot happen since invalid input is replaced
+            throw new IOException(e);
+        } finally {
+            bytes.release();
+        }
+    }
+
+    /**
+     * Reads the whole stream into a byte array.
+     *
+     * @param is Input stream.
+     * @return Bytes read from stream.
+     * @throws IOException if reading error occurred.
+     */
+    static byte[] toByteArray(InputStream is) throws IOException {
+        Bytes bytes = read(is, UNKNOWN_LENGTH);
+        try {
+            return Arrays.copyOf(bytes.buffer, bytes.length);
+        } finally {
+            bytes.release();
+        }
+    }
+
+    /**
+     * Reads the whole stream and closes it.
+     */
+    private static Bytes read(InputStream is, int expectedLength) throws IOException {
+        byte[] buffer = acquire(expectedLength);
+        int length = 0;
+        try {
+            while (true) {
+                if (length == buffer.length) {
+                    // stream of expected length fits exactly, so check for the end before growing the buffer
+                    int next = is.read();
+                    if (next == -1) {
+                        break;
+                    }
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    buffer[length++] = (byte) next;
+                }
+                int count = is.read(buffer, length, buffer.length - length);
+                if (count == -1) {
+                    break;
+                }
+                length += count;
+            }
+        } finally {
+            try {
+                is.close();
+            } catch (Exception ignorable) {
+                // ignorable exception
+            }
+        }
+        return new Bytes(buffer, length);
+    }
+
+    private static byte[] acquire(int expectedLength) {
+        int size = expectedLength > 0 ? Math.min(expectedLength, MAX_INITIAL_BUFFER_SIZE) : DEFAULT_BUFFER_SIZE;
+        byte[] pooled = POOL.getAndSet(null);
+        if (pooled != null) {
+            if (pooled.length >= size) {
+                return pooled;
+            }
+            POOL.compareAndSet(null, pooled);
+        }
+        return new byte[size];
+    }
+
+    /**
+     * Bytes read from stream.
+     */
+    private static final class Bytes {
+
+        private final byte[] buffer;
+
+        private final int length;
+
+        Bytes(byte[] buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+
+        /**
+         * Returns buffer to the pool. Bytes must not be used afterwards.
+         */
+        void release() {
+            if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+                POOL.set(buffer);
+            }
+        }
+    }
+}
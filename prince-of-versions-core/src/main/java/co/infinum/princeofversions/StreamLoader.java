@@ -0,0 +1,66 @@
+package co.infinum.princeofversions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a concrete loader that load resource from stream.
+ */
+public final class StreamLoader implements StreamingLoader {
+
+    /**
+     * Used input stream.
+     */
+    private InputStream is;
+
+    /**
+     * Charset which decodes the stream, null for the default one.
+     */
+    @Nullable
+    private Charset charset;
+
+    /**
+     * Creates a new stream loader using provided input stream.
+     *
+     * @param is Input stream.
+     */
+    public StreamLoader(InputStream is) {
+        this.is = is;
+    }
+
+    /**
+     * Creates a new stream loader using provided input stream and charset, e.g. {@link BinaryConfigurationEncoder#CHARSET} for binary
+     * configuration.
+     *
+     * @param is      Input stream.
+     * @param charset Charset of the stream.
+     */
+    public StreamLoader(InputStream is, Charset charset) {
+        this.is = is;
+        this.charset = charset;
+    }
+
+    @Override
+    public String load() throws IOException {
+        // for local streams, such as resources and assets, available bytes are the whole remaining content
+        if (charset != null) {
+            return StreamIo.toString(is, is.available(), charset);
+        }
+        return StreamIo.toString(is, is.available());
+    }
+
+    /**
+     * Returns the stream itself, whose bytes are parsed as they are. Stream in charset other than UTF-8 is decoded using
+     * {@link #load()} instead, so null is returned.
+     *
+     * @return Used input stream, or null if the stream is not UTF-8 encoded.
+     */
+    @Nullable
+    @Override
+    public InputStream open() {
+        return StreamIo.isStreamable(charset) ? is : null;
+    }
+}
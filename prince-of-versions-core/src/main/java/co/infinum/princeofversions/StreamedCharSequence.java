@@ -0,0 +1,99 @@
+package co.infinum.princeofversions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Characters which are read from a {@link Reader} only when they are needed.
+ * <p>
+ * All characters which were read are kept, so positions of already read content stay valid. {@link #length()} is the number of
+ * characters read so far, {@link JsonTokenReader} reads more using {@link #fill(int)} once it reaches the end of them.
+ * </p>
+ */
+final class StreamedCharSequence implements CharSequence {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final Reader reader;
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+
+    private int length;
+
+    private boolean complete;
+
+    StreamedCharSequence(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads characters until there are at least given number of them or the end of the reader is reached.
+     *
+     * @param minLength Required number of characters.
+     * @return Number of characters read so far, which is less than required only at the end of the reader.
+     * @throws ReadException if reading error occurred.
+     */
+    int fill(int minLength) {
+        try {
+            while (length < minLength && !complete) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                // takes whatever is available, so characters already received are parsed without waiting for the rest
+                int count = reader.read(buffer, length, buffer.length - length);
+                if (count == -1) {
+                    complete = true;
+                } else {
+                    length += count;
+                }
+            }
+        } catch (IOException error) {
+            throw new ReadException(error);
+        }
+        return length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException("Character " + index + " is not read yet");
+        }
+        return buffer[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + ".." + end + " of " + length);
+        }
+        return new String(buffer, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Wraps error of the reader, since characters are read where checked exceptions can't be thrown.
+     */
+    static final class ReadException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ReadException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package co.infinum.princeofversions;
+
+import java.io.InputStream;
+
+/**
+ * This class parses update resource into {@link PrinceOfVersionsConfig} while it is read from a stream.
+ * <p>
+ * Parser reads only as much of the stream as it needs, so resource which is still being received is parsed in parallel with receiving
+ * it, and the rest of the resource isn't waited for once the configuration is known.
+ * </p>
+ */
+public interface StreamingConfigurationParser extends ConfigurationParser {
+
+    /**
+     * Parses update resource from a stream into {@link PrinceOfVersionsConfig}. Stream is not closed by the parser.
+     *
+     * @param stream stream of update resource bytes.
+     * @return Class which holds all relevant data.
+     * @throws Throwable if error happens during reading or parsing.
+     */
+    PrinceOfVersionsConfig parse(InputStream stream) throws Throwable;
+
+}
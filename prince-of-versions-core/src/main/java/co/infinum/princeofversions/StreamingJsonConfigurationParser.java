@@ -0,0 +1,543 @@
+package co.infinum.princeofversions;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class represents parser for the same <a href="http://www.json.org/">JSON</a> format as {@link JsonConfigurationParser}, but
+ * it reads content token by token instead of building the whole JSON tree first.
+ * <p>
+ * Updates are evaluated one at a time in the order they are written. As soon as the first feasible update is found, remaining updates
+ * are skipped without decoding them. Metadata is not decoded while parsing, only text of root metadata and metadata of the selected
+ * update is kept and decoded when it is read. Reading stops once both the selected update and root metadata are known. When
+ * asynchronous requirement checkers are installed, all updates are read first, so their checks can run in parallel.
+ * </p>
+ * <p>
+ * Result is the same {@link PrinceOfVersionsConfig} as the one created by {@link JsonConfigurationParser}. Numbers and nested values
+ * in metadata and requirements are converted to strings by {@code org.json}, the same as in the tree parser (see {@link JsonValues}).
+ * </p>
+ * <p>
+ * Content can also be parsed from a stream while it is being received, in which case the stream is read only up to the point where
+ * reading stops.
+ * </p>
+ */
+final class StreamingJsonConfigurationParser implements StreamingConfigurationParser {
+
+    private static final String ANDROID_FALLBACK_KEY = "android";
+
+    private static final String ANDROID_KEY = "android2";
+
+    private static final String MINIMUM_VERSION = "required_version";
+
+    private static final String LATEST_VERSION = "last_version_available";
+
+    private static final String NOTIFICATION = "notify_last_version_frequency";
+
+    private static final String META = "meta";
+
+    private static final String NOTIFICATION_ALWAYS = "always";
+
+    private static final String REQUIREMENTS = "requirements";
+
+    /**
+     * Marks that the value wasn't found at all.
+     */
+    private static final int NOT_FOUND = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final PrinceOfVersionsRequirementsProcessor requirementsProcessor;
+
+    StreamingJsonConfigurationParser(PrinceOfVersionsRequirementsProcessor requirementsProcessor) {
+        this.requirementsProcessor = requirementsProcessor;
+    }
+
+    @Override
+    public PrinceOfVersionsConfig parse(String content) throws Throwable {
+        return parse((CharSequence) content);
+    }
+
+    /**
+     * Parses UTF-8 encoded configuration, which is decoded as it is read from the stream.
+     *
+     * @param stream Stream of configuration content.
+     * @return Parsed configuration.
+     * @throws Throwable if content is not valid configuration, requirements are not satisfied or reading error occurred.
+     */
+    @Override
+    public PrinceOfVersionsConfig parse(InputStream stream) throws Throwable {
+        try {
+            return parse(new StreamedCharSequence(new InputStreamReader(stream, UTF_8)));
+        } catch (StreamedCharSequence.ReadException error) {
+            throw error.getCause();
+        }
+    }
+
+    /**
+     * Parses configuration from characters which are not copied into a {@link String} first, e.g. ones decoded by
+     * {@link StreamIo#toCharSequence(java.io.InputStream, int)}.
+     *
+     * @param content Configuration content.
+     * @return Parsed configuration.
+     * @throws Throwable if content is not valid configuration or requirements are not satisfied.
+     */
+    PrinceOfVersionsConfig parse(CharSequence content) throws Throwable {
+        JsonTokenReader reader = new JsonTokenReader(content);
+        if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+            throw new IllegalArgumentException("Config resource is not a JSON object");
+        }
+        reader.beginObject();
+
+        int metaStart = NOT_FOUND;
+        boolean metaFound = false;
+        Selection selection = null;
+        int fallbackStart = NOT_FOUND;
+
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (META.equals(key)) {
+                metaFound = true;
+                metaStart = reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT ? reader.valueStart() : NOT_FOUND;
+                reader.skipValue();
+            } else if (ANDROID_KEY.equals(key) && selection == null && reader.peek() != JsonTokenReader.Token.NULL) {
+                selection = selectUpdate(reader, !metaFound);
+            } else if (ANDROID_FALLBACK_KEY.equals(key) && fallbackStart == NOT_FOUND
+                && reader.peek() != JsonTokenReader.Token.NULL) {
+                fallbackStart = reader.valueStart();
+                reader.skipValue();
+            } else {
+                reader.skipValue();
+            }
+            if (selection != null && metaFound) {
+                // everything needed is known, the rest of the content doesn't matter
+                break;
+            }
+        }
+
+        if (selection == null) {
+            if (fallbackStart == NOT_FOUND) {
+                throw new IllegalStateException("Config resource does not contain android key");
+            }
+            selection = selectUpdate(new JsonTokenReader(content, fallbackStart), false);
+        }
+
+        if (selection.notSatisfied) {
+            throw new RequirementsNotSatisfiedException(metadata(content, metaStart, NOT_FOUND));
+        }
+
+        return toConfig(content, metaStart, selection.entry);
+    }
+
+    /**
+     * Reads all updates which can be selected, in order in which they are written, without checking their requirements.
+     * Reading stops after the first update without requirements, since updates after it are never selected.
+     * Invalid updates are returned with the error which {@link #parse(CharSequence)} throws when such update is selected.
+     *
+     * @param content Configuration content.
+     * @return Updates in order of preference.
+     * @throws Throwable if content is not valid configuration, regardless of selected update.
+     */
+    static List<Candidate> parseCandidates(CharSequence content) throws Throwable {
+        JsonTokenReader reader = new JsonTokenReader(content);
+        if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+            throw new IllegalArgumentException("Config resource is not a JSON object");
+        }
+        reader.beginObject();
+
+        int metaStart = NOT_FOUND;
+        boolean metaFound = false;
+        int androidStart = NOT_FOUND;
+        int fallbackStart = NOT_FOUND;
+
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (META.equals(key)) {
+                metaFound = true;
+                metaStart = reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT ? reader.valueStart() : NOT_FOUND;
+                reader.skipValue();
+            } else if (ANDROID_KEY.equals(key) && androidStart == NOT_FOUND && reader.peek() != JsonTokenReader.Token.NULL) {
+                androidStart = reader.valueStart();
+                reader.skipValue();
+            } else if (ANDROID_FALLBACK_KEY.equals(key) && fallbackStart == NOT_FOUND
+                && reader.peek() != JsonTokenReader.Token.NULL) {
+                fallbackStart = reader.valueStart();
+                reader.skipValue();
+            } else {
+                reader.skipValue();
+            }
+            if (androidStart != NOT_FOUND && metaFound) {
+                break;
+            }
+        }
+
+        int start = androidStart != NOT_FOUND ? androidStart : fallbackStart;
+        if (start == NOT_FOUND) {
+            throw new IllegalStateException("Config resource does not contain android key");
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        reader = new JsonTokenReader(content, start);
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+                    candidates.add(new Candidate(null, null,
+                        new IllegalArgumentException("Every update in " + ANDROID_KEY + " array should be JSON object")));
+                    break;
+                }
+                Entry entry = readEntry(reader);
+                candidates.add(Candidate.of(content, metaStart, entry));
+                if (entry.requirements == null) {
+                    break;
+                }
+            }
+            if (candidates.isEmpty()) {
+                throw new IllegalArgumentException("JSON doesn't contain any feasible update. Check JSON update format!");
+            }
+        } else if (token == JsonTokenReader.Token.BEGIN_OBJECT) {
+            candidates.add(Candidate.of(content, metaStart, readEntry(reader)));
+        } else {
+            candidates.add(Candidate.of(content, metaStart, null));
+        }
+        return candidates;
+    }
+
+    private static PrinceOfVersionsConfig toConfig(CharSequence content, int rootMetaStart, @Nullable Entry entry) {
+        PrinceOfVersionsConfig.Builder builder = new PrinceOfVersionsConfig.Builder();
+        builder.withMetadata(metadata(content, rootMetaStart, entry != null ? entry.metaStart : NOT_FOUND));
+        if (entry != null) {
+            entry.saveTo(builder);
+            if (entry.requirements != null) {
+                builder.withRequirements(entry.requirements);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates metadata which is decoded when it is used, where metadata of the update overrides root metadata.
+     * Only the text of metadata objects is kept, not the whole content.
+     */
+    private static Map<String, String> metadata(CharSequence content, int rootMetaStart, int updateMetaStart) {
+        if (rootMetaStart == NOT_FOUND && updateMetaStart == NOT_FOUND) {
+            return CompactMap.EMPTY;
+        } else if (rootMetaStart == NOT_FOUND) {
+            return new JsonMetadata(rawValue(content, updateMetaStart));
+        } else if (updateMetaStart == NOT_FOUND) {
+            return new JsonMetadata(rawValue(content, rootMetaStart));
+        }
+        return new JsonMetadata(rawValue(content, rootMetaStart), rawValue(content, updateMetaStart));
+    }
+
+    private static String rawValue(CharSequence content, int start) {
+        return new JsonTokenReader(content, start).nextRawValue();
+    }
+
+    /**
+     * Reads value of android key and finds the first feasible update in it.
+     *
+     * @param readRemaining whether remaining updates should be skipped so reader can continue after the value
+     */
+    private Selection selectUpdate(JsonTokenReader reader, boolean readRemaining) throws Throwable {
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.BEGIN_ARRAY) {
+            reader.beginArray();
+            if (requirementsProcessor.hasAsyncCheckers()) {
+                return selectFromAllUpdates(reader, readRemaining);
+            }
+            boolean empty = true;
+            while (reader.hasNext()) {
+                empty = false;
+                if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+                    throw new IllegalArgumentException("Every update in " + ANDROID_KEY + " array should be JSON object");
+                }
+                Entry entry = readEntry(reader);
+                if (entry.isSatisfied(requirementsProcessor)) {
+                    // return after finding the first feasible update
+                    if (readRemaining) {
+                        while (reader.hasNext()) {
+                            reader.skipValue();
+                        }
+                        reader.endArray();
+                    }
+                    return new Selection(entry, false);
+                }
+            }
+            reader.endArray();
+            if (empty) {
+                throw new IllegalArgumentException("JSON doesn't contain any feasible update. Check JSON update format!");
+            }
+            return new Selection(null, true);
+        } else if (token == JsonTokenReader.Token.BEGIN_OBJECT) {
+            Entry entry = readEntry(reader);
+            return new Selection(entry, !entry.isSatisfied(requirementsProcessor));
+        } else {
+            reader.skipValue();
+            return new Selection(null, false);
+        }
+    }
+
+    /**
+     * Reads updates of android array and checks requirements of all of them at once, so asynchronous checks run in parallel.
+     * Updates after the first update without requirements are not read, since they can't be selected.
+     */
+    private Selection selectFromAllUpdates(JsonTokenReader reader, boolean readRemaining) {
+        List<Entry> entries = new ArrayList<>();
+        List<Map<String, String>> candidates = new ArrayList<>();
+        boolean invalid = false;
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+                // reported only if no update before it is feasible
+                invalid = true;
+                break;
+            }
+            Entry entry = readEntry(reader);
+            entries.add(entry);
+            candidates.add(entry.requirements);
+            if (entry.requirements == null) {
+                break;
+            }
+        }
+        int selected = requirementsProcessor.firstSatisfied(candidates);
+        if (selected != PrinceOfVersionsRequirementsProcessor.NONE_SATISFIED) {
+            if (readRemaining) {
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                }
+                reader.endArray();
+            }
+            return new Selection(entries.get(selected), false);
+        }
+        if (invalid) {
+            throw new IllegalArgumentException("Every update in " + ANDROID_KEY + " array should be JSON object");
+        }
+        reader.endArray();
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("JSON doesn't contain any feasible update. Check JSON update format!");
+        }
+        return new Selection(null, true);
+    }
+
+    /**
+     * Reads one update object. Metadata is only located, not decoded.
+     */
+    private static Entry readEntry(JsonTokenReader reader) {
+        Entry entry = new Entry();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (MINIMUM_VERSION.equals(key)) {
+                entry.mandatoryVersion = readVersion(reader);
+            } else if (LATEST_VERSION.equals(key)) {
+                entry.optionalVersion = readVersion(reader);
+            } else if (NOTIFICATION.equals(key)) {
+                entry.notification = readNotification(reader);
+            } else if (REQUIREMENTS.equals(key)) {
+                entry.requirements = reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT ? readMap(reader) : skip(reader);
+            } else if (META.equals(key) && reader.peek() == JsonTokenReader.Token.BEGIN_OBJECT) {
+                entry.metaStart = reader.valueStart();
+                reader.skipValue();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return entry;
+    }
+
+    /**
+     * Reads version as {@link Integer}. Invalid value is returned as its text, so the error can be reported if the update gets selected.
+     */
+    @Nullable
+    private static Object readVersion(JsonTokenReader reader) {
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        } else if (token == JsonTokenReader.Token.NUMBER) {
+            String text = reader.nextString();
+            Integer version = parseInteger(text);
+            return version != null ? version : new InvalidValue(text);
+        }
+        return new InvalidValue(reader.nextRawValue());
+    }
+
+    /**
+     * Parses number written as integer, which fits in {@code int}.
+     */
+    @Nullable
+    private static Integer parseInteger(String text) {
+        for (int i = text.charAt(0) == '-' ? 1 : 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return null;
+            }
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException outOfRange) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object readNotification(JsonTokenReader reader) {
+        JsonTokenReader.Token token = reader.peek();
+        if (token == JsonTokenReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        } else if (token == JsonTokenReader.Token.STRING) {
+            return reader.nextString().equalsIgnoreCase(NOTIFICATION_ALWAYS) ? NotificationType.ALWAYS : NotificationType.ONCE;
+        }
+        return new InvalidValue(reader.nextRawValue());
+    }
+
+    /**
+     * Reads JSON object into map, where every value is converted to string. Keys with null values are left out.
+     */
+    private static Map<String, String> readMap(JsonTokenReader reader) {
+        CompactMap.Builder map = new CompactMap.Builder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            String value = JsonMetadata.readString(reader);
+            if (value != null) {
+                map.put(key, value);
+            }
+        }
+        reader.endObject();
+        return map.build();
+    }
+
+    @Nullable
+    private static Map<String, String> skip(JsonTokenReader reader) {
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Result of looking for the first feasible update.
+     */
+    private static final class Selection {
+
+        @Nullable
+        private final Entry entry;
+
+        private final boolean notSatisfied;
+
+        Selection(@Nullable Entry entry, boolean notSatisfied) {
+            this.entry = entry;
+            this.notSatisfied = notSatisfied;
+        }
+    }
+
+    /**
+     * Update read by {@link #parseCandidates(CharSequence)}.
+     */
+    static final class Candidate {
+
+        /**
+         * Requirements of the update, null if update has no requirements.
+         */
+        @Nullable
+        final Map<String, String> requirements;
+
+        /**
+         * Configuration used when the update is selected, null if update is invalid.
+         */
+        @Nullable
+        final PrinceOfVersionsConfig config;
+
+        /**
+         * Error thrown when the update is selected, null if update is valid.
+         */
+        @Nullable
+        final RuntimeException error;
+
+        Candidate(@Nullable Map<String, String> requirements, @Nullable PrinceOfVersionsConfig config, @Nullable RuntimeException error) {
+            this.requirements = requirements;
+            this.config = config;
+            this.error = error;
+        }
+
+        static Candidate of(CharSequence content, int rootMetaStart, @Nullable Entry entry) {
+            Map<String, String> requirements = entry != null ? entry.requirements : null;
+            try {
+                return new Candidate(requirements, toConfig(content, rootMetaStart, entry), null);
+            } catch (RuntimeException invalid) {
+                return new Candidate(requirements, null, invalid);
+            }
+        }
+    }
+
+    /**
+     * Values read from one update object.
+     */
+    private static final class Entry {
+
+        @Nullable
+        private Object mandatoryVersion;
+
+        @Nullable
+        private Object optionalVersion;
+
+        @Nullable
+        private Object notification;
+
+        @Nullable
+        private Map<String, String> requirements;
+
+        private int metaStart = NOT_FOUND;
+
+        boolean isSatisfied(PrinceOfVersionsRequirementsProcessor processor) {
+            return requirements == null || processor.areRequirementsSatisfied(requirements);
+        }
+
+        void saveTo(PrinceOfVersionsConfig.Builder builder) {
+            if (mandatoryVersion != null) {
+                builder.withMandatoryVersion(version(mandatoryVersion, MINIMUM_VERSION));
+            }
+            if (optionalVersion != null) {
+                builder.withOptionalVersion(version(optionalVersion, LATEST_VERSION));
+            }
+            if (notification instanceof InvalidValue) {
+                throw new IllegalArgumentException("In update configuration " + NOTIFICATION + " it should be String, but the actual "
+                    + "value is "
+                    + notification);
+            } else if (notification != null) {
+                builder.withOptionalNotificationType((NotificationType) notification);
+            }
+        }
+
+        private static Integer version(Object value, String key) {
+            if (value instanceof Integer) {
+                return (Integer) value;
+            }
+            throw new IllegalArgumentException("In update configuration " + key + " it should be int, but the actual "
+                + "value is "
+                + value);
+        }
+    }
+
+    /**
+     * Value of unexpected type. It is reported only if the update containing it gets selected.
+     */
+    private static final class InvalidValue {
+
+        private final String text;
+
+        InvalidValue(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
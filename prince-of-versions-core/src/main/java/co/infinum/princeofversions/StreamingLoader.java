@@ -0,0 +1,25 @@
+package co.infinum.princeofversions;
+
+import java.io.InputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class loads update resource as a stream, so the resource can be parsed while it is still being received.
+ * <p>
+ * Stream is used only when the parser is a {@link StreamingConfigurationParser}, otherwise resource is loaded using {@link #load()}.
+ * </p>
+ */
+public interface StreamingLoader extends Loader {
+
+    /**
+     * Opens stream of update resource bytes, e.g. UTF-8 encoded JSON or binary configuration. Stream is closed by the caller.
+     * Resource in any other charset should be loaded using {@link #load()}, which decodes it.
+     *
+     * @return Stream of the resource, or null if the resource should be loaded using {@link #load()} instead.
+     * @throws Throwable if error happens while opening the stream.
+     */
+    @Nullable
+    InputStream open() throws Throwable;
+
+}
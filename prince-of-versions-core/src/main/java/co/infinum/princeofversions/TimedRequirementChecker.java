@@ -0,0 +1,105 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Binds {@link AsyncRequirementChecker} to its timeout, so it can be installed among other requirement checkers.
+ * <p>
+ * {@link PrinceOfVersionsRequirementsProcessor} starts checks of these checkers in parallel using {@link #start(String)}. Calling
+ * {@link #checkRequirements(String)} starts the check and waits for it.
+ * </p>
+ */
+final class TimedRequirementChecker implements RequirementChecker {
+
+    private final AsyncRequirementChecker checker;
+
+    private final long timeoutNanoseconds;
+
+    private final boolean timeoutVerdict;
+
+    /**
+     * Creates checker with a timeout.
+     *
+     * @param checker        Asynchronous checker.
+     * @param timeout        Time after which check is abandoned.
+     * @param unit           Time unit of timeout.
+     * @param timeoutVerdict Whether requirement is considered satisfied when check times out.
+     */
+    TimedRequirementChecker(AsyncRequirementChecker checker, long timeout, TimeUnit unit, boolean timeoutVerdict) {
+        this.checker = checker;
+        this.timeoutNanoseconds = unit.toNanos(timeout);
+        this.timeoutVerdict = timeoutVerdict;
+    }
+
+    @Override
+    public boolean checkRequirements(String value) {
+        return start(value).await();
+    }
+
+    /**
+     * Starts check of provided value.
+     *
+     * @param value Value of the requirement.
+     * @return Pending check.
+     */
+    Pending start(String value) {
+        Pending pending = new Pending(System.nanoTime() + timeoutNanoseconds);
+        try {
+            checker.checkRequirements(value, pending);
+        } catch (Throwable error) {
+            pending.onError(error);
+        }
+        return pending;
+    }
+
+    /**
+     * Check which was started, but might not be done yet.
+     */
+    final class Pending implements AsyncRequirementChecker.Callback {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        /**
+         * Value of {@link System#nanoTime()} after which check is abandoned.
+         */
+        private final long deadline;
+
+        private final AtomicReference<Boolean> result = new AtomicReference<>();
+
+        Pending(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void onResult(boolean satisfied) {
+            if (result.compareAndSet(null, satisfied)) {
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            onResult(false);
+        }
+
+        /**
+         * Waits for the result until deadline.
+         *
+         * @return Result of the check, or verdict for timeout if check is not done before deadline.
+         */
+        boolean await() {
+            try {
+                if (done.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return result.get();
+                }
+                return timeoutVerdict;
+            } catch (InterruptedException canceled) {
+                // check is canceled, keep the interrupt for the caller
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
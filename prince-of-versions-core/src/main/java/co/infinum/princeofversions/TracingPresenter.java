@@ -0,0 +1,100 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * This class reports every check of the delegate presenter to {@link PrinceOfVersionsEventListener}.
+ * <p>
+ * Trace of a check covers everything which runs on the check's thread, including passing the result to callbacks. It is used only when
+ * a listener is registered, so checks without listener run exactly as before.
+ * </p>
+ */
+final class TracingPresenter implements Presenter {
+
+    private final Presenter delegate;
+
+    private final PrinceOfVersionsEventListener listener;
+
+    TracingPresenter(Presenter delegate, PrinceOfVersionsEventListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+        CheckTrace.install();
+    }
+
+    @Override
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig) throws Throwable {
+        CheckTrace trace = CheckTrace.begin(listener);
+        Throwable error = null;
+        try {
+            return delegate.check(loader, appConfig);
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            trace.end(error);
+        }
+    }
+
+    @Override
+    public UpdateResult check(Loader loader, ApplicationConfiguration appConfig, UpdaterCancelable call) throws Throwable {
+        CheckTrace trace = CheckTrace.begin(listener);
+        Throwable error = null;
+        try {
+            return delegate.check(loader, appConfig, call);
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            trace.end(error);
+        }
+    }
+
+    @Override
+    public PrinceOfVersionsCancelable check(Loader loader, final Executor executor, final UpdaterCallback callback,
+        ApplicationConfiguration appConfig) {
+        Executor tracingExecutor = new Executor() {
+            @Override
+            public void execute(@Nonnull final Runnable runnable) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        CheckTrace trace = CheckTrace.begin(listener);
+                        Throwable error = null;
+                        try {
+                            runnable.run();
+                        } catch (RuntimeException | Error e) {
+                            error = e;
+                            throw e;
+                        } finally {
+                            trace.end(error);
+                        }
+                    }
+                });
+            }
+        };
+        UpdaterCallback tracingCallback = new UpdaterCallback() {
+            @Override
+            public void onSuccess(@Nonnull UpdateResult result) {
+                dispatch(null);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                dispatch(error);
+                callback.onError(error);
+            }
+        };
+        return delegate.check(loader, tracingExecutor, tracingCallback, appConfig);
+    }
+
+    private static void dispatch(@Nullable Throwable error) {
+        CheckTrace trace = CheckTrace.current();
+        if (trace != null) {
+            trace.callbackDispatch(error);
+        }
+    }
+}
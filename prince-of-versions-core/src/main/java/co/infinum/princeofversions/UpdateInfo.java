@@ -65,6 +65,11 @@ public class UpdateInfo {
         return requiredVersion;
     }
 
+    /**
+     * Returns requirements of the update. Returned map is unmodifiable, so it has to be copied before it is changed.
+     *
+     * @return Unmodifiable requirements.
+     */
     public Map<String, String> getRequirements() {
         return requirements;
     }
@@ -0,0 +1,161 @@
+package co.infinum.princeofversions;
+
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Represents the all information from update check.
+ */
+public class UpdateResult {
+
+    /**
+     * Merged metadata from JSON
+     */
+    private final Map<String, String> metadata;
+
+    /**
+     * Update configuration values used to check
+     */
+    private final UpdateInfo info;
+
+    /**
+     * Resolution of the update check
+     */
+    private final UpdateStatus status;
+
+    /**
+     * The biggest version it is possible to update to, or current version of the app if it isn't possible to update
+     */
+    private final int updateVersion;
+
+    public UpdateResult(UpdateInfo info, Map<String, String> metadata, UpdateStatus status, int updateVersion) {
+        this.info = info;
+        this.metadata = metadata;
+        this.status = status;
+        this.updateVersion = updateVersion;
+    }
+
+    /**
+     * Returns merged metadata of the update. Returned map is unmodifiable and is shared by all results of the same configuration,
+     * so it has to be copied before it is changed.
+     *
+     * @return Unmodifiable metadata.
+     */
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns metadata value as int. Value is decoded when this method is called.
+     *
+     * @param key          Metadata key
+     * @param defaultValue Value returned if there is no such key, or its value isn't an integer which fits in int
+     * @return Value of the key
+     */
+    public int getMetadataInt(String key, int defaultValue) {
+        Long value = MetadataValues.longValue(metadata, key);
+        return value != null && value == value.intValue() ? value.intValue() : defaultValue;
+    }
+
+    /**
+     * Returns metadata value as long. Value is decoded when this method is called.
+     *
+     * @param key          Metadata key
+     * @param defaultValue Value returned if there is no such key, or its value isn't an integer which fits in long
+     * @return Value of the key
+     */
+    public long getMetadataLong(String key, long defaultValue) {
+        Long value = MetadataValues.longValue(metadata, key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Returns metadata value as boolean. Value is decoded when this method is called.
+     *
+     * @param key          Metadata key
+     * @param defaultValue Value returned if there is no such key, or its value isn't true or false
+     * @return Value of the key
+     */
+    public boolean getMetadataBoolean(String key, boolean defaultValue) {
+        Boolean value = MetadataValues.booleanValue(metadata, key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Returns metadata value which is a JSON object, as map where every value is converted to string in the same way as in
+     * {@link #getMetadata()}. Value is decoded when this method is called, and values of the returned map when they are read.
+     *
+     * @param key Metadata key
+     * @return Value of the key, or null if there is no such key or its value isn't an object
+     */
+    @Nullable
+    public Map<String, String> getMetadataObject(String key) {
+        return MetadataValues.objectValue(metadata, key);
+    }
+
+    /**
+     * Returns metadata value which is a JSON array, as list where every element is converted to string in the same way as values in
+     * {@link #getMetadata()}. Value is decoded when this method is called.
+     *
+     * @param key Metadata key
+     * @return Value of the key, or null if there is no such key or its value isn't an array
+     */
+    @Nullable
+    public List<String> getMetadataArray(String key) {
+        return MetadataValues.arrayValue(metadata, key);
+    }
+
+    public UpdateInfo getInfo() {
+        return info;
+    }
+
+    public UpdateStatus getStatus() {
+        return status;
+    }
+
+    public int getUpdateVersion() {
+        return updateVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateResult{"
+            + "metadata=" + metadata
+            + ", info=" + info
+            + ", status=" + status
+            + ", updateVersion=" + updateVersion
+            + '}';
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UpdateResult)) {
+            return false;
+        }
+
+        UpdateResult result = (UpdateResult) obj;
+
+        if (this.status != result.status) {
+            return false;
+        }
+        if (this.updateVersion != result.getUpdateVersion()) {
+            return false;
+        }
+        if (!this.info.equals(result.getInfo())) {
+            return false;
+        }
+        return metadata.equals(result.metadata);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = status.hashCode();
+        result = 31 * result + info.hashCode();
+        result = 31 * result + metadata.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package co.infinum.princeofversions;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * This class represents a started check for update request which can be canceled.
+ */
+public class UpdaterCancelable implements PrinceOfVersionsCancelable {
+
+    /**
+     * Flag.
+     * {@code true} if call is canceled, {@code false} otherwise
+     */
+    private volatile boolean flag;
+
+    /**
+     * Action which aborts work of the call, run at most once.
+     */
+    private final AtomicReference<Runnable> onCancel = new AtomicReference<>();
+
+    @Override
+    public void cancel() {
+        this.flag = true;
+        runOnCancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return flag;
+    }
+
+    /**
+     * Sets action which aborts work of the call. If call is already canceled, action runs right away.
+     *
+     * @param action Action run on cancel, or null to remove the previous one.
+     */
+    void doOnCancel(@Nullable Runnable action) {
+        onCancel.set(action);
+        if (flag) {
+            runOnCancel();
+        }
+    }
+
+    private void runOnCancel() {
+        Runnable action = onCancel.getAndSet(null);
+        if (action != null) {
+            action.run();
+        }
+    }
+}
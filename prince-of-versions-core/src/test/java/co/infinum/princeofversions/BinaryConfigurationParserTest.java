@@ -0,0 +1,193 @@
+package co.infinum.princeofversions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.princeofversions.mocks.MockDefaultRequirementChecker;
+import co.infinum.princeofversions.util.MapUtil;
+import co.infinum.princeofversions.util.ResourceUtils;
+
+import static co.infinum.princeofversions.BinaryConfigurationEncoder.FLAG_REQUIREMENTS;
+import static co.infinum.princeofversions.util.MapUtil.entry;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class BinaryConfigurationParserTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private JsonConfigurationParser jsonParser;
+
+    private BinaryConfigurationParser parser;
+
+    @Before
+    public void setUp() {
+        Map<String, RequirementChecker> defaultRequirements = new HashMap<>();
+        defaultRequirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new MockDefaultRequirementChecker(21));
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(defaultRequirements);
+        jsonParser = new JsonConfigurationParser(processor);
+        parser = new BinaryConfigurationParser(processor);
+    }
+
+    @Test
+    public void sameResultAsJsonParserForAllEncodableMockData() throws Throwable {
+        assertSameResultAsJsonParserForAllMockData(parser);
+    }
+
+    @Test
+    public void sameResultWithAsyncCheckerForAllEncodableMockData() throws Throwable {
+        final RequirementChecker checker = new MockDefaultRequirementChecker(21);
+        Map<String, RequirementChecker> asyncRequirements = new HashMap<>();
+        asyncRequirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new TimedRequirementChecker(new AsyncRequirementChecker() {
+            @Override
+            public void checkRequirements(String value, Callback callback) {
+                try {
+                    callback.onResult(checker.checkRequirements(value));
+                } catch (Throwable error) {
+                    callback.onError(error);
+                }
+            }
+        }, TIMEOUT_SECONDS, TimeUnit.SECONDS, false));
+
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(asyncRequirements);
+
+        assertSameResultAsJsonParserForAllMockData(new BinaryConfigurationParser(processor));
+    }
+
+    private void assertSameResultAsJsonParserForAllMockData(BinaryConfigurationParser binaryParser) throws Throwable {
+        File directory = new File(getClass().getClassLoader().getResource("mockdata").toURI());
+        int encoded = 0;
+        for (File file : directory.listFiles()) {
+            String content = ResourceUtils.readFromFile(file.getName());
+            String binary;
+            try {
+                binary = BinaryConfigurationEncoder.encodeToString(content);
+            } catch (RuntimeException invalid) {
+                // configuration which is not valid as a whole is rejected by encoder
+                continue;
+            }
+            encoded++;
+            PrinceOfVersionsConfig expected = null;
+            Throwable expectedError = null;
+            try {
+                expected = jsonParser.parse(content);
+            } catch (Throwable error) {
+                expectedError = error;
+            }
+            try {
+                PrinceOfVersionsConfig actual = binaryParser.parse(binary);
+                if (expectedError != null) {
+                    fail(file.getName() + " should fail with " + expectedError);
+                }
+                assertThat(actual).as(file.getName()).isEqualTo(expected);
+            } catch (RequirementsNotSatisfiedException error) {
+                assertThat(expectedError).as(file.getName()).isInstanceOf(RequirementsNotSatisfiedException.class);
+                assertThat(error.getMetadata()).isEqualTo(((RequirementsNotSatisfiedException) expectedError).getMetadata());
+            }
+        }
+        assertThat(encoded).isGreaterThan(0);
+    }
+
+    @Test
+    public void updateMetadataOverridesRootMetadata() throws Throwable {
+        String json = "{\"android2\": ["
+            + "{\"required_version\": 10, \"requirements\": {\"required_os_version\": 25}, \"meta\": {\"x\": \"skipped\"}},"
+            + "{\"required_version\": -3, \"last_version_available\": 300, \"notify_last_version_frequency\": \"ALWAYS\","
+            + "\"meta\": {\"x\": \"selected\", \"empty\": null, \"nested\": {\"k\": [1, \"\u00e9\"]}}}"
+            + "], \"meta\": {\"x\": \"root\", \"y\": \"root\"}}";
+
+        PrinceOfVersionsConfig config = parser.parse(BinaryConfigurationEncoder.encodeToString(json));
+
+        assertThat(config).isEqualTo(
+            new PrinceOfVersionsConfig.Builder()
+                .withMandatoryVersion(-3)
+                .withOptionalVersion(300)
+                .withOptionalNotificationType(NotificationType.ALWAYS)
+                .withMetadata(MapUtil.from(
+                    entry("x", "selected"),
+                    entry("y", "root"),
+                    entry("empty", null),
+                    entry("nested", "{\"k\":[1,\"\u00e9\"]}")
+                ))
+                .build()
+        );
+    }
+
+    @Test
+    public void bufferIsReadBetweenPositionAndLimitWithoutChangingIt() throws Throwable {
+        byte[] binary = BinaryConfigurationEncoder.encode("{\"android2\": {\"required_version\": 10}}");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(binary.length + 2);
+        buffer.put((byte) 0).put(binary).put((byte) 0);
+        buffer.position(1);
+        buffer.limit(1 + binary.length);
+
+        PrinceOfVersionsConfig config = parser.parse(buffer);
+
+        assertThat(config.getMandatoryVersion()).isEqualTo(10);
+        assertThat(buffer.position()).isEqualTo(1);
+    }
+
+    @Test
+    public void streamIsParsedFromBytes() throws Throwable {
+        String json = "{\"android2\": {\"required_version\": 10, \"meta\": {\"title\": \"\u00e9\"}}}";
+
+        PrinceOfVersionsConfig config = parser.parse(new ByteArrayInputStream(BinaryConfigurationEncoder.encode(json)));
+
+        assertThat(config).isEqualTo(jsonParser.parse(json));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jsonIsRejected() throws Throwable {
+        parser.parse("{\"android2\": {\"required_version\": 10}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedConfigurationIsRejected() throws Throwable {
+        String binary = BinaryConfigurationEncoder.encodeToString("{\"android2\": {\"required_version\": 10, \"meta\": {\"a\": \"b\"}}}");
+
+        parser.parse(binary.substring(0, binary.length() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requirementsCountBeyondEndIsRejected() throws Throwable {
+        // no strings, no root metadata, one update with requirements whose count is the largest int
+        parser.parse(binary(0, 0, 1, 6, FLAG_REQUIREMENTS, 0xFF, 0xFF, 0xFF, 0xFF, 0x07));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateCountBeyondEndIsRejected() throws Throwable {
+        parser.parse(binary(0, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 1, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void updateLengthBeyondEndIsRejected() throws Throwable {
+        parser.parse(binary(0, 0, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stringLengthBeyondEndIsRejected() throws Throwable {
+        parser.parse(binary(1, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F, 0, 1, 1, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidVersionIsRejectedByEncoder() {
+        BinaryConfigurationEncoder.encode("{\"android2\": [{\"required_version\": \"1.0\"}]}");
+    }
+
+    private static ByteBuffer binary(int... content) {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryConfigurationEncoder.MAGIC.length + content.length);
+        buffer.put(BinaryConfigurationEncoder.MAGIC);
+        for (int value : content) {
+            buffer.put((byte) value);
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
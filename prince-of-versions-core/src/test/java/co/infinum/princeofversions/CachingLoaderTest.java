@@ -0,0 +1,167 @@
+package co.infinum.princeofversions;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.princeofversions.mocks.SingleThreadExecutor;
+import co.infinum.princeofversions.util.ResourceUtils;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingLoaderTest {
+
+    private static final String FIRST_CONTENT = "{\"version\":1}";
+
+    private static final String SECOND_CONTENT = "{\"version\":2}";
+
+    private static final long HOUR_MILLISECONDS = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    Loader delegate;
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), CachingLoader.fileNameFor("http://example.com/update.json"));
+    }
+
+    @Test
+    public void loadsFromDelegateWhenNothingIsSaved() throws Throwable {
+        when(delegate.load()).thenReturn(FIRST_CONTENT);
+
+        String content = new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+
+        assertThat(content).isEqualTo(FIRST_CONTENT);
+        assertThat(file.exists()).isTrue();
+        verify(delegate, times(1)).load();
+    }
+
+    @Test
+    public void onlyCacheFileIsLeftAfterSave() throws Throwable {
+        when(delegate.load()).thenReturn(FIRST_CONTENT);
+
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+
+        assertThat(folder.getRoot().list()).containsExactly(file.getName());
+    }
+
+    @Test
+    public void freshContentIsServedWithoutDelegate() throws Throwable {
+        when(delegate.load()).thenReturn(FIRST_CONTENT);
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+
+        String content = new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+
+        assertThat(content).isEqualTo(FIRST_CONTENT);
+        verify(delegate, times(1)).load();
+    }
+
+    @Test
+    public void staleContentIsServedAndRefreshedInBackground() throws Throwable {
+        when(delegate.load()).thenReturn(FIRST_CONTENT, SECOND_CONTENT);
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+        assertThat(file.setLastModified(System.currentTimeMillis() - 2 * HOUR_MILLISECONDS)).isTrue();
+
+        String stale = new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+        String refreshed = new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+
+        assertThat(stale).isEqualTo(FIRST_CONTENT);
+        assertThat(refreshed).isEqualTo(SECOND_CONTENT);
+        verify(delegate, times(2)).load();
+    }
+
+    @Test
+    public void staleContentIsKeptWhenRefreshFails() throws Throwable {
+        when(delegate.load()).thenReturn(FIRST_CONTENT).thenThrow(new IOException());
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+        assertThat(file.setLastModified(System.currentTimeMillis() - 2 * HOUR_MILLISECONDS)).isTrue();
+
+        String content = new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+
+        assertThat(content).isEqualTo(FIRST_CONTENT);
+        assertThat(ResourceUtils.convertStreamToString(new FileInputStream(file))).isEqualTo(FIRST_CONTENT);
+    }
+
+    @Test
+    public void pendingRefreshIsNotStartedTwice() throws Throwable {
+        when(delegate.load()).thenReturn(FIRST_CONTENT);
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+        assertThat(file.setLastModified(System.currentTimeMillis() - 2 * HOUR_MILLISECONDS)).isTrue();
+        Executor queued = mock(Executor.class);
+
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, queued).load();
+        Executor second = mock(Executor.class);
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, second).load();
+
+        verify(queued, times(1)).execute(any(Runnable.class));
+        verify(second, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void cancelAbortsLoadOfCaller() throws Throwable {
+        CancelableLoader cancelable = mock(CancelableLoader.class);
+        final CachingLoader loader = new CachingLoader(cancelable, file, 1, TimeUnit.HOURS, new SingleThreadExecutor());
+        when(cancelable.load()).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                loader.cancel();
+                return FIRST_CONTENT;
+            }
+        });
+
+        loader.load();
+
+        verify(cancelable, times(1)).cancel();
+    }
+
+    @Test
+    public void cancelDoesNotAbortBackgroundRefresh() throws Throwable {
+        CancelableLoader cancelable = mock(CancelableLoader.class);
+        when(cancelable.load()).thenReturn(FIRST_CONTENT, SECOND_CONTENT);
+        new CachingLoader(cancelable, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+        assertThat(file.setLastModified(System.currentTimeMillis() - 2 * HOUR_MILLISECONDS)).isTrue();
+        Executor queued = mock(Executor.class);
+        CachingLoader loader = new CachingLoader(cancelable, file, 1, TimeUnit.HOURS, queued);
+
+        loader.load();
+        loader.cancel();
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(queued).execute(refresh.capture());
+        refresh.getValue().run();
+
+        verify(cancelable, never()).cancel();
+        assertThat(ResourceUtils.convertStreamToString(new FileInputStream(file))).isEqualTo(SECOND_CONTENT);
+    }
+
+    @Test(expected = IOException.class)
+    public void delegateErrorIsThrownWhenNothingIsSaved() throws Throwable {
+        when(delegate.load()).thenThrow(new IOException());
+
+        new CachingLoader(delegate, file, 1, TimeUnit.HOURS, new SingleThreadExecutor()).load();
+    }
+}
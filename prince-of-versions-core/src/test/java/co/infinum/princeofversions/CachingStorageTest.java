@@ -0,0 +1,132 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import co.infinum.princeofversions.mocks.SingleThreadExecutor;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingStorageTest {
+
+    @Mock
+    Storage delegate;
+
+    @Test
+    public void delegateIsReadOnce() {
+        when(delegate.lastNotifiedVersion(null)).thenReturn(10);
+        CachingStorage storage = new CachingStorage(delegate, new SingleThreadExecutor());
+
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(10);
+        assertThat(storage.lastNotifiedVersion(5)).isEqualTo(10);
+
+        verify(delegate, times(1)).lastNotifiedVersion(null);
+    }
+
+    @Test
+    public void defaultValueIsReturnedWhenNothingIsSaved() {
+        when(delegate.lastNotifiedVersion(null)).thenReturn(null);
+        CachingStorage storage = new CachingStorage(delegate, new SingleThreadExecutor());
+
+        assertThat(storage.lastNotifiedVersion(null)).isNull();
+        assertThat(storage.lastNotifiedVersion(5)).isEqualTo(5);
+
+        verify(delegate, times(1)).lastNotifiedVersion(null);
+    }
+
+    @Test
+    public void savedVersionIsReadFromMemory() {
+        CachingStorage storage = new CachingStorage(delegate, new SingleThreadExecutor());
+
+        storage.rememberLastNotifiedVersion(20);
+
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(20);
+        verify(delegate, never()).lastNotifiedVersion(any(Integer.class));
+        verify(delegate, times(1)).rememberLastNotifiedVersion(20);
+    }
+
+    @Test
+    public void sameVersionIsNotPersistedAgain() {
+        when(delegate.lastNotifiedVersion(null)).thenReturn(10);
+        CachingStorage storage = new CachingStorage(delegate, new SingleThreadExecutor());
+
+        storage.lastNotifiedVersion(null);
+        storage.rememberLastNotifiedVersion(10);
+        storage.rememberLastNotifiedVersion(20);
+        storage.rememberLastNotifiedVersion(20);
+
+        verify(delegate, never()).rememberLastNotifiedVersion(10);
+        verify(delegate, times(1)).rememberLastNotifiedVersion(20);
+    }
+
+    @Test
+    public void burstOfVersionsIsPersistedOnceWithLatestVersion() {
+        QueueExecutor executor = new QueueExecutor();
+        CachingStorage storage = new CachingStorage(delegate, executor);
+
+        storage.rememberLastNotifiedVersion(20);
+        storage.rememberLastNotifiedVersion(30);
+        storage.rememberLastNotifiedVersion(null);
+        storage.rememberLastNotifiedVersion(40);
+
+        assertThat(executor.tasks).hasSize(1);
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(40);
+        verify(delegate, never()).rememberLastNotifiedVersion(anyInt());
+
+        executor.runAll();
+        storage.rememberLastNotifiedVersion(50);
+        executor.runAll();
+
+        verify(delegate, times(1)).rememberLastNotifiedVersion(40);
+        verify(delegate, times(1)).rememberLastNotifiedVersion(50);
+        verify(delegate, times(2)).rememberLastNotifiedVersion(anyInt());
+    }
+
+    @Test
+    public void versionIsPersistedWhenExecutorRejectsIt() {
+        CachingStorage storage = new CachingStorage(delegate, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+
+        storage.rememberLastNotifiedVersion(20);
+        storage.rememberLastNotifiedVersion(30);
+
+        verify(delegate, times(1)).rememberLastNotifiedVersion(20);
+        verify(delegate, times(1)).rememberLastNotifiedVersion(30);
+    }
+
+    private static final class QueueExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            tasks.add(runnable);
+        }
+
+        void runAll() {
+            List<Runnable> scheduled = new ArrayList<>(tasks);
+            tasks.clear();
+            for (Runnable task : scheduled) {
+                task.run();
+            }
+        }
+    }
+}
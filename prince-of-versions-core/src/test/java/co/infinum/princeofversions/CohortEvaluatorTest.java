@@ -0,0 +1,225 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import co.infinum.princeofversions.mocks.ResourceFileLoader;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CohortEvaluatorTest {
+
+    private static final int PROFILES = 100000;
+
+    private static final int[] VERSIONS = {1, 100, 250, 400};
+
+    private static final int[] SDK_VERSIONS = {15, 21, 23, 30};
+
+    @Test
+    public void sameDecisionsAsEngineForAllMockData() throws Throwable {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        for (int version : VERSIONS) {
+            for (int sdkVersion : SDK_VERSIONS) {
+                profiles.add(new DeviceProfile(version, sdkVersion));
+            }
+        }
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().build();
+        CohortEvaluator evaluator = new CohortEvaluator.Builder().build();
+        File[] files = new File(getClass().getClassLoader().getResource("mockdata").toURI()).listFiles();
+        assertThat(files).isNotEmpty();
+
+        for (File file : files) {
+            Loader loader = new ResourceFileLoader(file.getName());
+            CohortReport report;
+            try {
+                report = evaluator.evaluateCandidates(
+                    StreamingJsonConfigurationParser.parseCandidates(loader.load()), profiles.iterator(), true);
+            } catch (Throwable error) {
+                for (DeviceProfile profile : profiles) {
+                    assertCheckFails(engine, loader, profile, file.getName());
+                }
+                continue;
+            }
+            long notSatisfied = 0;
+            long failed = 0;
+            for (int i = 0; i < profiles.size(); i++) {
+                String description = file.getName() + " " + profiles.get(i);
+                try {
+                    assertThat(report.getResult(i)).as(description).isEqualTo(engine.check(loader, profiles.get(i)));
+                } catch (RequirementsNotSatisfiedException error) {
+                    assertThat(report.getResult(i)).as(description).isNull();
+                    notSatisfied++;
+                } catch (AssertionError error) {
+                    throw error;
+                } catch (Throwable error) {
+                    assertThat(report.getResult(i)).as(description).isNull();
+                    failed++;
+                }
+            }
+            assertThat(report.getRequirementsNotSatisfiedCount()).as(file.getName()).isEqualTo(notSatisfied);
+            assertThat(report.getFailedCount()).as(file.getName()).isEqualTo(failed);
+            assertThat(report.getTotalCount()).isEqualTo(profiles.size());
+        }
+    }
+
+    @Test
+    public void profilesAreCountedPerStatus() throws Throwable {
+        CohortEvaluator evaluator = new CohortEvaluator.Builder()
+            .addRequirementsChecker("region", new CohortRequirementChecker() {
+                @Override
+                public boolean checkRequirements(String value, DeviceProfile profile) {
+                    return value.equals(profile.getRequirementInput("region"));
+                }
+            })
+            .withPool(new ForkJoinPool(4))
+            .build();
+
+        CohortReport report = evaluator.evaluate(updates(), new GeneratedProfiles(PROFILES));
+
+        long required = 0;
+        long optional = 0;
+        long notSatisfied = 0;
+        for (int i = 0; i < PROFILES; i++) {
+            if (i % 4 == 0) {
+                // version 150 of the first update: required 100, latest 300
+                optional++;
+            } else if (i % 3 == 0) {
+                notSatisfied++;
+            } else if (i % 2 == 0) {
+                required++;
+            } else {
+                optional++;
+            }
+        }
+        assertThat(report.getCount(UpdateStatus.REQUIRED_UPDATE_NEEDED)).isEqualTo(required);
+        assertThat(report.getCount(UpdateStatus.NEW_UPDATE_AVAILABLE)).isEqualTo(optional);
+        assertThat(report.getCount(UpdateStatus.NO_UPDATE_AVAILABLE)).isEqualTo(0);
+        assertThat(report.getRequirementsNotSatisfiedCount()).isEqualTo(notSatisfied);
+        assertThat(report.getTotalCount()).isEqualTo(PROFILES);
+        assertThat(report.hasResults()).isFalse();
+    }
+
+    @Test
+    public void resultsAreKeptInOrderOfProfiles() {
+        CohortEvaluator evaluator = new CohortEvaluator.Builder()
+            .withPool(new ForkJoinPool(4))
+            .build();
+        List<DeviceProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 3 * CohortEvaluator.BATCH_SIZE + 1; i++) {
+            profiles.add(new DeviceProfile(i % 300, 30));
+        }
+
+        CohortReport report = evaluator.evaluate(updates(), profiles.iterator(), true);
+
+        for (int i = 0; i < profiles.size(); i++) {
+            // the first update requires a region, which has no checker, so the second one is selected
+            UpdateStatus expected = i % 300 < 200
+                ? UpdateStatus.REQUIRED_UPDATE_NEEDED
+                : i % 300 < 250 ? UpdateStatus.NEW_UPDATE_AVAILABLE : UpdateStatus.NO_UPDATE_AVAILABLE;
+            assertThat(report.getResult(i).getStatus()).as("profile " + i).isEqualTo(expected);
+        }
+        assertThat(report.getTotalCount()).isEqualTo(profiles.size());
+    }
+
+    @Test
+    public void requirementWithoutCheckerIsNeverSatisfied() throws Throwable {
+        CohortEvaluator evaluator = new CohortEvaluator.Builder().build();
+
+        CohortReport report = evaluator.evaluate(updates(), Collections.singletonList(new DeviceProfile(150, 30)).iterator(), true);
+
+        assertThat(report.getResult(0).getUpdateVersion()).isEqualTo(250);
+        assertThat(report.getCount(UpdateStatus.REQUIRED_UPDATE_NEEDED)).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidSelectedUpdateFails() throws Throwable {
+        CohortEvaluator evaluator = new CohortEvaluator.Builder().build();
+        String config = "{\"android2\": ["
+            + "{\"required_version\": \"x\", \"requirements\": {\"required_os_version\": 23}},"
+            + "{\"required_version\": 100}"
+            + "]}";
+
+        CohortReport report = evaluator.evaluateCandidates(StreamingJsonConfigurationParser.parseCandidates(config), Arrays.asList(
+            new DeviceProfile(50, 23),
+            new DeviceProfile(50, 21)
+        ).iterator(), false);
+
+        assertThat(report.getFailedCount()).isEqualTo(1);
+        assertThat(report.getCount(UpdateStatus.REQUIRED_UPDATE_NEEDED)).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void resultsAreNotKeptUnlessRequested() throws Throwable {
+        CohortEvaluator evaluator = new CohortEvaluator.Builder().build();
+
+        evaluator.evaluate(updates(), Collections.singletonList(new DeviceProfile(150, 30)).iterator()).getResult(0);
+    }
+
+    private static void assertCheckFails(PrinceOfVersionsEngine engine, Loader loader, DeviceProfile profile, String description) {
+        try {
+            engine.check(loader, profile);
+        } catch (RequirementsNotSatisfiedException error) {
+            throw new AssertionError(description + " fails only because requirements are not satisfied");
+        } catch (Throwable expected) {
+            return;
+        }
+        throw new AssertionError(description + " should fail");
+    }
+
+    /**
+     * Returns two updates: the first one for devices in eu, the second one for android 21 and newer.
+     */
+    private static List<PrinceOfVersionsConfig> updates() {
+        return Arrays.asList(
+            new PrinceOfVersionsConfig.Builder()
+                .withMandatoryVersion(100)
+                .withOptionalVersion(300)
+                .withRequirements(Collections.singletonMap("region", "eu"))
+                .build(),
+            new PrinceOfVersionsConfig.Builder()
+                .withMandatoryVersion(200)
+                .withOptionalVersion(250)
+                .withRequirements(Collections.singletonMap("required_os_version", "21"))
+                .build()
+        );
+    }
+
+    /**
+     * Profiles which are created while they are evaluated: every fourth device is in eu and gets the first update of {@link #updates()},
+     * others depend on android version.
+     */
+    private static final class GeneratedProfiles implements Iterator<DeviceProfile> {
+
+        private final int count;
+
+        private int next;
+
+        GeneratedProfiles(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public DeviceProfile next() {
+            int i = next++;
+            String region = i % 4 == 0 ? "eu" : "us";
+            return new DeviceProfile(i % 2 == 0 ? 150 : 220, i % 3 == 0 ? 19 : 21, Collections.singletonMap("region", region));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
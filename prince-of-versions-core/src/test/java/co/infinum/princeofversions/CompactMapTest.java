@@ -0,0 +1,112 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.entry;
+
+public class CompactMapTest {
+
+    @Test
+    public void behavesAsMapWithSameEntries() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "1");
+        expected.put("b", null);
+        expected.put("c", "3");
+
+        CompactMap map = new CompactMap.Builder().put("a", "1").put("b", null).put("c", "3").build();
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(expected).isEqualTo(map);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(map.get("c")).isEqualTo("3");
+        assertThat(map.containsKey("b")).isTrue();
+        assertThat(map.get("d")).isNull();
+        assertThat(map).containsExactly(entry("a", "1"), entry("b", null), entry("c", "3"));
+    }
+
+    @Test
+    public void laterValueReplacesEarlierOne() {
+        CompactMap map = new CompactMap.Builder().put("a", "1").put("a", "2").build();
+
+        assertThat(map).hasSize(1).containsEntry("a", "2");
+    }
+
+    @Test
+    public void laterValueReplacesEarlierOneInLargeMap() {
+        CompactMap.Builder builder = new CompactMap.Builder();
+        int size = CompactMap.Builder.INDEX_THRESHOLD * 2;
+        for (int i = 0; i < size; i++) {
+            builder.put("key" + i, "first");
+        }
+        for (int i = 0; i < size; i++) {
+            builder.put("key" + i, "second" + i);
+        }
+        CompactMap map = builder.build();
+
+        assertThat(map).hasSize(size);
+        assertThat(map.get("key0")).isEqualTo("second0");
+        assertThat(map.get("key" + (size - 1))).isEqualTo("second" + (size - 1));
+    }
+
+    @Test
+    public void largeMapBehavesAsMapWithSameEntries() {
+        Map<String, String> expected = new HashMap<>();
+        CompactMap.Builder builder = new CompactMap.Builder();
+        CompactMap.Builder reversed = new CompactMap.Builder();
+        int size = CompactMap.Builder.INDEX_THRESHOLD * 3;
+        for (int i = 0; i < size; i++) {
+            expected.put("key" + i, i % 7 == 0 ? null : "value" + i);
+            builder.put("key" + i, i % 7 == 0 ? null : "value" + i);
+            reversed.put("key" + (size - 1 - i), (size - 1 - i) % 7 == 0 ? null : "value" + (size - 1 - i));
+        }
+        CompactMap map = builder.build();
+
+        for (int i = 0; i < size; i++) {
+            assertThat(map.containsKey(new String("key" + i))).isTrue();
+            assertThat(map.get("key" + i)).isEqualTo(expected.get("key" + i));
+        }
+        assertThat(map.containsKey("key" + size)).isFalse();
+        assertThat(map.get(null)).isNull();
+        assertThat(map).isEqualTo(expected).isEqualTo(reversed.build());
+        assertThat(expected).isEqualTo(map);
+    }
+
+    @Test
+    public void mergeOverridesFirstMapAndSharesMapWhenOtherIsEmpty() {
+        CompactMap first = new CompactMap.Builder().put("x", "1").put("y", "2").build();
+        CompactMap second = new CompactMap.Builder().put("x", "3").build();
+
+        assertThat(CompactMap.merge(first, second)).containsExactly(entry("x", "3"), entry("y", "2"));
+        assertThat(CompactMap.merge(CompactMap.EMPTY, first)).isSameAs(first);
+        assertThat(CompactMap.merge(first, CompactMap.EMPTY)).isSameAs(first);
+        assertThat(CompactMap.copyOf(first)).isSameAs(first);
+    }
+
+    @Test
+    public void keysArePooled() {
+        CompactMap first = new CompactMap.Builder().put(new String("region"), "eu").build();
+        CompactMap second = new CompactMap.Builder().put(new String("region"), "us").build();
+
+        assertThat(first.keySet().iterator().next()).isSameAs(second.keySet().iterator().next());
+    }
+
+    @Test
+    public void mapsWithDifferentValuesAreNotEqual() {
+        CompactMap first = new CompactMap.Builder().put("a", "1").put("b", "2").build();
+        CompactMap second = new CompactMap.Builder().put("b", "2").put("a", "1").build();
+        CompactMap third = new CompactMap.Builder().put("a", "1").put("b", null).build();
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first).isNotEqualTo(third);
+        assertThat(third).isNotEqualTo(first);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mapCannotBeModified() {
+        new CompactMap.Builder().put("a", "1").build().put("b", "2");
+    }
+}
@@ -0,0 +1,56 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ConcurrentHistogramTest {
+
+    @Test
+    public void everyValueFallsIntoBucketStartingAtOrBelowIt() {
+        long[] values = {0, 1, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = ConcurrentHistogram.bucketOf(value);
+
+            assertThat(bucket).isBetween(0, ConcurrentHistogram.BUCKETS - 1);
+            assertThat(ConcurrentHistogram.lowestValueOf(bucket)).isLessThanOrEqualTo(value);
+            if (bucket + 1 < ConcurrentHistogram.BUCKETS) {
+                assertThat(ConcurrentHistogram.lowestValueOf(bucket + 1)).isGreaterThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void bucketsAreWithinEighthOfValue() {
+        for (long value = ConcurrentHistogram.SUB_BUCKETS; value < 1_000_000; value = value * 3 / 2) {
+            long lowest = ConcurrentHistogram.lowestValueOf(ConcurrentHistogram.bucketOf(value));
+
+            assertThat(value - lowest).isLessThanOrEqualTo(value / ConcurrentHistogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void snapshotReportsPercentilesCountAndMax() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value * 1000L);
+        }
+
+        PrinceOfVersionsMetrics.Histogram snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getMax()).isEqualTo(100_000);
+        assertThat(snapshot.getMean()).isEqualTo(50_500);
+        assertThat(snapshot.getValueAtPercentile(50)).isBetween(50_000L, 50_000L + 50_000L / ConcurrentHistogram.SUB_BUCKETS);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(100_000);
+    }
+
+    @Test
+    public void emptySnapshotReportsZeros() {
+        PrinceOfVersionsMetrics.Histogram snapshot = new ConcurrentHistogram().snapshot();
+
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getMean()).isZero();
+        assertThat(snapshot.getValueAtPercentile(99)).isZero();
+    }
+}
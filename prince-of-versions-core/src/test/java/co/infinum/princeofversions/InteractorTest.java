@@ -7,10 +7,17 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
 import co.infinum.princeofversions.mocks.MockApplicationConfiguration;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -169,4 +176,123 @@ public class InteractorTest {
             CheckResult.noUpdate(appConfig.version(), config.getMetadata(), updateInfo)
         );
     }
+
+    @Test
+    public void checkSameContentIsParsedAgain() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        when(configurationParser.parse(anyString())).thenReturn(config);
+
+        interactor.check(loader, new MockApplicationConfiguration(1, 1));
+        CheckResult result = interactor.check(loader, new MockApplicationConfiguration(1, 1));
+
+        verify(loader, times(2)).load();
+        verify(configurationParser, times(2)).parse(DEFAULT_LOADER_RESULT);
+        assertThat(result.status()).isEqualTo(UpdateStatus.REQUIRED_UPDATE_NEEDED);
+    }
+
+    @Test
+    public void checkNotModifiedResponseIsNotParsedAgain() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        NetworkLoader networkLoader = mock(NetworkLoader.class);
+        when(networkLoader.loadEntry()).thenReturn(new ConditionalRequestCache.Entry("etag", null, DEFAULT_LOADER_RESULT));
+        when(configurationParser.parse(anyString())).thenReturn(config);
+        Interactor reusingInteractor = new InteractorImpl(configurationParser, true);
+
+        reusingInteractor.check(networkLoader, new MockApplicationConfiguration(1, 1));
+        CheckResult result = reusingInteractor.check(networkLoader, new MockApplicationConfiguration(1, 1));
+
+        verify(networkLoader, times(2)).loadEntry();
+        verify(configurationParser, times(1)).parse(DEFAULT_LOADER_RESULT);
+        assertThat(result.status()).isEqualTo(UpdateStatus.REQUIRED_UPDATE_NEEDED);
+    }
+
+    @Test
+    public void checkModifiedResponseIsParsedAgain() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        NetworkLoader networkLoader = mock(NetworkLoader.class);
+        when(networkLoader.loadEntry()).thenReturn(
+            new ConditionalRequestCache.Entry("first", null, DEFAULT_LOADER_RESULT),
+            new ConditionalRequestCache.Entry("second", null, DEFAULT_LOADER_RESULT)
+        );
+        when(configurationParser.parse(anyString())).thenReturn(config);
+        Interactor reusingInteractor = new InteractorImpl(configurationParser, true);
+
+        reusingInteractor.check(networkLoader, new MockApplicationConfiguration(1, 1));
+        reusingInteractor.check(networkLoader, new MockApplicationConfiguration(1, 1));
+
+        verify(configurationParser, times(2)).parse(DEFAULT_LOADER_RESULT);
+    }
+
+    @Test
+    public void checkChangedContentIsParsedAgain() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        when(loader.load()).thenReturn(new String("{}"), new String("{}"));
+        when(configurationParser.parse(anyString())).thenReturn(config);
+
+        interactor.check(loader, new MockApplicationConfiguration(1, 1));
+        interactor.check(loader, new MockApplicationConfiguration(1, 1));
+
+        verify(configurationParser, times(2)).parse("{}");
+    }
+
+    @Test
+    public void checkStreamInOtherCharsetIsDecodedBeforeParsing() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        Charset utf16 = Charset.forName("UTF-16");
+        StreamingConfigurationParser streamingParser = mock(StreamingConfigurationParser.class);
+        when(streamingParser.parse("{}")).thenReturn(config);
+
+        new InteractorImpl(streamingParser).check(
+            new StreamLoader(new ByteArrayInputStream("{}".getBytes(utf16)), utf16),
+            new MockApplicationConfiguration(1, 1)
+        );
+
+        verify(streamingParser).parse("{}");
+        verify(streamingParser, never()).parse(any(InputStream.class));
+    }
+
+    @Test
+    public void checkStreamIsParsedWhenLoaderAndParserSupportIt() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        StreamingLoader streamingLoader = mock(StreamingLoader.class);
+        StreamingConfigurationParser streamingParser = mock(StreamingConfigurationParser.class);
+        InputStream stream = mock(InputStream.class);
+        when(streamingLoader.open()).thenReturn(stream);
+        when(streamingParser.parse(stream)).thenReturn(config);
+
+        CheckResult result = new InteractorImpl(streamingParser).check(streamingLoader, new MockApplicationConfiguration(1, 1));
+
+        verify(streamingLoader, never()).load();
+        verify(streamingParser, never()).parse(anyString());
+        verify(stream).close();
+        assertThat(result.status()).isEqualTo(UpdateStatus.REQUIRED_UPDATE_NEEDED);
+    }
+
+    @Test
+    public void checkContentIsLoadedWhenLoaderDoesNotOpenStream() throws Throwable {
+        PrinceOfVersionsConfig config = new PrinceOfVersionsConfig.Builder()
+            .withMandatoryVersion(2)
+            .build();
+        StreamingLoader streamingLoader = mock(StreamingLoader.class);
+        StreamingConfigurationParser streamingParser = mock(StreamingConfigurationParser.class);
+        when(streamingLoader.open()).thenReturn(null);
+        when(streamingLoader.load()).thenReturn(DEFAULT_LOADER_RESULT);
+        when(streamingParser.parse(DEFAULT_LOADER_RESULT)).thenReturn(config);
+
+        CheckResult result = new InteractorImpl(streamingParser).check(streamingLoader, new MockApplicationConfiguration(1, 1));
+
+        assertThat(result.status()).isEqualTo(UpdateStatus.REQUIRED_UPDATE_NEEDED);
+    }
 }
@@ -0,0 +1,107 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LazyTest {
+
+    @Test
+    public void valueIsCreatedOnce() {
+        final AtomicInteger calls = new AtomicInteger();
+        Lazy<String> lazy = new Lazy<>(new Callable<String>() {
+            @Override
+            public String call() {
+                return "value-" + calls.incrementAndGet();
+            }
+        });
+
+        assertThat(calls.get()).isEqualTo(0);
+        assertThat(lazy.get()).isEqualTo("value-1");
+        assertThat(lazy.get()).isEqualTo("value-1");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void prefetchCreatesValueOnExecutor() {
+        final AtomicInteger calls = new AtomicInteger();
+        Lazy<String> lazy = new Lazy<>(new Callable<String>() {
+            @Override
+            public String call() {
+                calls.incrementAndGet();
+                return "value";
+            }
+        });
+        QueueExecutor executor = new QueueExecutor();
+
+        lazy.prefetch(executor);
+        assertThat(calls.get()).isEqualTo(0);
+        executor.runAll();
+        assertThat(calls.get()).isEqualTo(1);
+
+        lazy.prefetch(executor);
+        assertThat(executor.tasks).isEmpty();
+        assertThat(lazy.get()).isEqualTo("value");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void failedCreationIsRepeatedOnNextAccess() {
+        final AtomicInteger calls = new AtomicInteger();
+        Lazy<String> lazy = new Lazy<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    throw new Exception("Not ready");
+                }
+                return "value";
+            }
+        });
+        QueueExecutor executor = new QueueExecutor();
+
+        lazy.prefetch(executor);
+        executor.runAll();
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(lazy.get()).isEqualTo("value");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void proxyDelegatesToValue() {
+        @SuppressWarnings("unchecked")
+        List<String> list = Lazy.create(List.class, new Callable<List>() {
+            @Override
+            public List call() {
+                return new ArrayList<>();
+            }
+        });
+
+        list.add("value");
+
+        assertThat(list).containsExactly("value");
+    }
+
+    private static final class QueueExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            tasks.add(runnable);
+        }
+
+        void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
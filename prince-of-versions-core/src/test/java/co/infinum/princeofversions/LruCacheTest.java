@@ -0,0 +1,34 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LruCacheTest {
+
+    @Test
+    public void leastRecentlyAddedEntriesAreDroppedWhenFull() {
+        LruCache<Integer, String> cache = new LruCache<>(4);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "value" + i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(4);
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(4)).isEqualTo("value4");
+    }
+
+    @Test
+    public void recentlyUsedEntriesAreKept() {
+        LruCache<Integer, String> cache = new LruCache<>(4);
+        for (int i = 0; i < 4; i++) {
+            cache.put(i, "value" + i);
+        }
+        cache.get(0);
+        cache.put(4, "value4");
+
+        assertThat(cache.get(0)).isEqualTo("value0");
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(4)).isEqualTo("value4");
+    }
+}
@@ -0,0 +1,156 @@
+package co.infinum.princeofversions;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MappedFileStorageTest {
+
+    private static final int THREADS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "versions/state");
+    }
+
+    @Test
+    public void defaultValueIsReturnedWhenNothingIsSaved() {
+        MappedFileStorage storage = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+
+        assertThat(storage.lastNotifiedVersion(null)).isNull();
+        assertThat(storage.lastNotifiedVersion(5)).isEqualTo(5);
+        assertThat(storage.getChangeCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void savedVersionIsSharedBetweenInstances() {
+        new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT).rememberLastNotifiedVersion(-7);
+
+        MappedFileStorage storage = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(-7);
+        storage.rememberLastNotifiedVersion(null);
+        assertThat(storage.lastNotifiedVersion(5)).isEqualTo(5);
+        assertThat(storage.getChangeCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void slotsAreIndependent() {
+        MappedFileStorage prince = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+        MappedFileStorage queen = new MappedFileStorage(file, MappedFileStorage.QUEEN_OF_VERSIONS_SLOT);
+
+        prince.rememberLastNotifiedVersion(10);
+        queen.rememberLastNotifiedVersion(20);
+
+        assertThat(prince.lastNotifiedVersion(null)).isEqualTo(10);
+        assertThat(queen.lastNotifiedVersion(null)).isEqualTo(20);
+        assertThat(file.length()).isEqualTo(16 + MappedFileStorage.SLOTS * 16);
+    }
+
+    @Test
+    public void versionIsSavedOnInterruptedThreadAndAfterwards() {
+        MappedFileStorage storage = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+        storage.rememberLastNotifiedVersion(10);
+
+        Thread.currentThread().interrupt();
+        storage.rememberLastNotifiedVersion(11);
+        boolean interrupted = Thread.interrupted();
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(11);
+        storage.rememberLastNotifiedVersion(12);
+
+        assertThat(interrupted).isTrue();
+        assertThat(new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT).lastNotifiedVersion(null)).isEqualTo(12);
+        assertThat(storage.getChangeCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void sameVersionIsNotCountedAsChange() {
+        MappedFileStorage storage = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+
+        storage.rememberLastNotifiedVersion(10);
+        storage.rememberLastNotifiedVersion(10);
+
+        assertThat(storage.getChangeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void compareAndSetSavesOnlyExpectedVersion() {
+        MappedFileStorage storage = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+
+        assertThat(storage.compareAndSetLastNotifiedVersion(null, 10)).isTrue();
+        assertThat(storage.compareAndSetLastNotifiedVersion(null, 20)).isFalse();
+        assertThat(storage.compareAndSetLastNotifiedVersion(10, 20)).isTrue();
+
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(20);
+        assertThat(storage.getChangeCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void onlyOneOfConcurrentCompareAndSetsWins() throws InterruptedException {
+        final MappedFileStorage storage = new MappedFileStorage(file, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicInteger winners = new AtomicInteger();
+        for (int i = 0; i < THREADS; i++) {
+            final int version = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        if (storage.compareAndSetLastNotifiedVersion(null, version)) {
+                            winners.incrementAndGet();
+                        }
+                    } catch (InterruptedException ignored) {
+                        // test fails on missing winner
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(winners.get()).isEqualTo(1);
+        assertThat(storage.getChangeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void fileWithUnknownLayoutIsCleared() throws IOException {
+        File other = folder.newFile();
+        FileOutputStream out = new FileOutputStream(other);
+        try {
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+        } finally {
+            out.close();
+        }
+
+        MappedFileStorage storage = new MappedFileStorage(other, MappedFileStorage.PRINCE_OF_VERSIONS_SLOT);
+
+        assertThat(storage.lastNotifiedVersion(null)).isNull();
+        storage.rememberLastNotifiedVersion(10);
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slotOutOfRangeIsRejected() {
+        new MappedFileStorage(file, MappedFileStorage.SLOTS);
+    }
+}
@@ -0,0 +1,197 @@
+package co.infinum.princeofversions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.princeofversions.mocks.MockStorage;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MemoizingInteractorTest {
+
+    private static final Map<String, String> DEFAULT_METADATA = new HashMap<>();
+
+    @Mock
+    Interactor delegate;
+
+    private final Loader loader = new NetworkLoader("http://example.com/update.json");
+
+    @Mock
+    ApplicationConfiguration appConfig;
+
+    @Mock
+    UpdateInfo updateInfo;
+
+    private CheckResult checkResult;
+
+    @Before
+    public void setUp() {
+        checkResult = CheckResult.optionalUpdate(12, NotificationType.ONCE, DEFAULT_METADATA, updateInfo);
+    }
+
+    @Test
+    public void resultIsReusedWithinTtl() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(checkResult);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        assertThat(interactor.check(loader, appConfig)).isSameAs(checkResult);
+        assertThat(interactor.check(loader, appConfig)).isSameAs(checkResult);
+
+        verify(delegate, times(1)).check(loader, appConfig);
+    }
+
+    @Test
+    public void resultIsCheckedAgainAfterTtl() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(checkResult);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.MILLISECONDS);
+
+        interactor.check(loader, appConfig);
+        Thread.sleep(5);
+        interactor.check(loader, appConfig);
+
+        verify(delegate, times(2)).check(loader, appConfig);
+    }
+
+    @Test
+    public void invalidatedResultIsCheckedAgain() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(checkResult);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        interactor.check(loader, appConfig);
+        interactor.invalidate(LoaderKeys.of(loader));
+        interactor.check(loader, appConfig);
+        interactor.invalidateAll();
+        interactor.check(loader, appConfig);
+
+        verify(delegate, times(3)).check(loader, appConfig);
+    }
+
+    @Test
+    public void networkResultIsSharedBetweenLoadersOfSameUrl() throws Throwable {
+        Loader first = new NetworkLoader("http://example.com/update.json");
+        Loader second = new NetworkLoader("http://example.com/update.json");
+        when(delegate.check(first, appConfig)).thenReturn(checkResult);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        interactor.check(first, appConfig);
+
+        assertThat(interactor.check(second, appConfig)).isSameAs(checkResult);
+    }
+
+    @Test
+    public void resultIsNotSharedBetweenDifferentRequestsOfSameUrl() throws Throwable {
+        String url = "http://example.com/update.json";
+        Loader first = new NetworkLoader(url, "user", "first");
+        Loader second = new NetworkLoader(url, "user", "second");
+        Loader cached = new CachingLoader(new NetworkLoader(url, "user", "first"), new File(CachingLoader.fileNameFor(url)), 1,
+            TimeUnit.HOURS);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        interactor.check(first, appConfig);
+        interactor.check(second, appConfig);
+        interactor.check(cached, appConfig);
+
+        verify(delegate, times(1)).check(first, appConfig);
+        verify(delegate, times(1)).check(second, appConfig);
+        verify(delegate, times(1)).check(cached, appConfig);
+        assertThat(interactor.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void subclassedNetworkLoaderIsNotRemembered() throws Throwable {
+        Loader subclassed = new NetworkLoader("http://example.com/update.json") {
+        };
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        interactor.check(subclassed, appConfig);
+        interactor.check(subclassed, appConfig);
+
+        verify(delegate, times(2)).check(subclassed, appConfig);
+        assertThat(interactor.size()).isZero();
+    }
+
+    @Test
+    public void loaderWithoutStableKeyIsNotRemembered() throws Throwable {
+        Loader customLoader = mock(Loader.class);
+        when(delegate.check(customLoader, appConfig)).thenReturn(checkResult);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        interactor.check(customLoader, appConfig);
+        interactor.check(customLoader, appConfig);
+
+        verify(delegate, times(2)).check(customLoader, appConfig);
+        assertThat(interactor.size()).isZero();
+    }
+
+    @Test
+    public void oldestResultsAreForgottenWhenFull() throws Throwable {
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+        Loader oldest = new NetworkLoader("http://example.com/0.json");
+        when(delegate.check(oldest, appConfig)).thenReturn(checkResult);
+        interactor.check(oldest, appConfig);
+        for (int i = 1; i <= MemoizingInteractor.MAX_ENTRIES; i++) {
+            interactor.check(new NetworkLoader("http://example.com/" + i + ".json"), appConfig);
+        }
+
+        assertThat(interactor.size()).isEqualTo(MemoizingInteractor.MAX_ENTRIES);
+        interactor.check(oldest, appConfig);
+        verify(delegate, times(2)).check(oldest, appConfig);
+    }
+
+    @Test
+    public void expiredResultsAreForgottenWhenFull() throws Throwable {
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < MemoizingInteractor.MAX_ENTRIES; i++) {
+            interactor.check(new NetworkLoader("http://example.com/" + i + ".json"), appConfig);
+        }
+        Thread.sleep(5);
+
+        interactor.check(loader, appConfig);
+
+        assertThat(interactor.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void errorIsNotRemembered() throws Throwable {
+        IOException error = new IOException();
+        when(delegate.check(loader, appConfig)).thenThrow(error).thenReturn(checkResult);
+        MemoizingInteractor interactor = new MemoizingInteractor(delegate, 1, TimeUnit.HOURS);
+
+        try {
+            interactor.check(loader, appConfig);
+            fail("Error expected");
+        } catch (IOException expected) {
+            assertThat(expected).isSameAs(error);
+        }
+
+        assertThat(interactor.check(loader, appConfig)).isSameAs(checkResult);
+    }
+
+    @Test
+    public void notificationRulesAreAppliedToRememberedResult() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(checkResult);
+        PresenterImpl presenter = new PresenterImpl(new MemoizingInteractor(delegate, 1, TimeUnit.HOURS), new MockStorage());
+
+        UpdateResult first = presenter.check(loader, appConfig);
+        UpdateResult second = presenter.check(loader, appConfig);
+
+        assertThat(first.getStatus()).isEqualTo(UpdateStatus.NEW_UPDATE_AVAILABLE);
+        assertThat(second.getStatus()).isEqualTo(UpdateStatus.NO_UPDATE_AVAILABLE);
+        verify(delegate, times(1)).check(loader, appConfig);
+    }
+}
@@ -0,0 +1,224 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class MirrorLoaderTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    public void nextMirrorIsUsedWhenFirstFails() throws Throwable {
+        FakeMirror first = new FakeMirror("first");
+        FakeMirror second = new FakeMirror("second");
+        first.failing = true;
+        MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(first)
+            .withMirror(second)
+            .build();
+
+        assertThat(loader.load()).isEqualTo("second");
+        assertThat(loader.rankedFactories()).containsExactly(second, first);
+    }
+
+    @Test
+    public void hedgedRequestIsUsedWhenMirrorIsSlowAndSlowRequestIsCanceled() throws Throwable {
+        FakeMirror slow = new FakeMirror("slow");
+        FakeMirror fast = new FakeMirror("fast");
+        slow.blocking = true;
+        MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(slow)
+            .withMirror(fast)
+            .withInitialHedgeDelay(10, TimeUnit.MILLISECONDS)
+            .build();
+
+        assertThat(loader.load()).isEqualTo("fast");
+        assertThat(slow.canceled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void errorOfFirstMirrorIsReportedWhenAllMirrorsFail() throws Throwable {
+        FakeMirror first = new FakeMirror("first");
+        FakeMirror second = new FakeMirror("second");
+        first.failing = true;
+        second.failing = true;
+        MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(first)
+            .withMirror(second)
+            .build();
+
+        try {
+            loader.load();
+            fail("Load should fail");
+        } catch (IOException error) {
+            assertThat(error).hasMessage("first failed");
+        }
+    }
+
+    @Test
+    public void fastestHealthyMirrorIsTriedFirst() throws Throwable {
+        FakeMirror slow = new FakeMirror("slow");
+        FakeMirror fast = new FakeMirror("fast");
+        slow.delayMilliseconds = 50;
+        MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(slow)
+            .withMirror(fast)
+            .withFailureBackoff(0, TimeUnit.MILLISECONDS)
+            .build();
+
+        // both mirrors get measured, each after the other one failed
+        slow.failing = true;
+        assertThat(loader.load()).isEqualTo("fast");
+        slow.failing = false;
+        fast.failing = true;
+        assertThat(loader.load()).isEqualTo("slow");
+        fast.failing = false;
+
+        assertThat(loader.rankedFactories()).containsExactly(fast, slow);
+    }
+
+    @Test
+    public void failedMirrorIsTriedLastDuringBackoff() throws Throwable {
+        FakeMirror first = new FakeMirror("first");
+        FakeMirror second = new FakeMirror("second");
+        MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(first)
+            .withMirror(second)
+            .withFailureBackoff(1, TimeUnit.HOURS)
+            .build();
+        assertThat(loader.load()).isEqualTo("first");
+
+        first.failing = true;
+        assertThat(loader.load()).isEqualTo("second");
+        first.failing = false;
+
+        assertThat(loader.rankedFactories()).containsExactly(second, first);
+    }
+
+    @Test
+    public void cancelAbortsLoadInProgress() throws Throwable {
+        FakeMirror blocked = new FakeMirror("blocked");
+        blocked.blocking = true;
+        final MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(blocked)
+            .build();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = loadInBackground(loader, error);
+        assertThat(blocked.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        loader.cancel();
+        thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+        assertThat(error.get()).isInstanceOf(IOException.class);
+        assertThat(blocked.canceled.getCount()).isZero();
+    }
+
+    @Test
+    public void concurrentLoadsUseTheirOwnLoadersAndAreAllCanceled() throws Throwable {
+        FakeMirror blocked = new FakeMirror("blocked");
+        blocked.blocking = true;
+        final MirrorLoader loader = new MirrorLoader.Builder()
+            .withMirror(blocked)
+            .build();
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        final AtomicReference<Throwable> secondError = new AtomicReference<>();
+        Thread first = loadInBackground(loader, firstError);
+        Thread second = loadInBackground(loader, secondError);
+        assertThat(blocked.startedTwice.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        loader.cancel();
+        first.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        second.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+        assertThat(blocked.created.get()).isEqualTo(2);
+        assertThat(firstError.get()).isInstanceOf(IOException.class);
+        assertThat(secondError.get()).isInstanceOf(IOException.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mirrorIsRequired() {
+        new MirrorLoader.Builder().build();
+    }
+
+    private static Thread loadInBackground(final MirrorLoader loader, final AtomicReference<Throwable> error) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loader.load();
+                } catch (Throwable loadError) {
+                    error.set(loadError);
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Mirror whose loaders return its name, fail or block until they are canceled.
+     */
+    private static final class FakeMirror implements MirrorLoader.LoaderFactory {
+
+        private final String name;
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch startedTwice = new CountDownLatch(2);
+
+        private final CountDownLatch canceled = new CountDownLatch(1);
+
+        private volatile boolean failing;
+
+        private volatile boolean blocking;
+
+        private volatile long delayMilliseconds;
+
+        FakeMirror(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Loader create() {
+            created.incrementAndGet();
+            final CountDownLatch loaderCanceled = new CountDownLatch(1);
+            return new CancelableLoader() {
+                @Override
+                public String load() throws Throwable {
+                    started.countDown();
+                    startedTwice.countDown();
+                    if (blocking) {
+                        loaderCanceled.await();
+                        throw new IOException("Canceled");
+                    }
+                    Thread.sleep(delayMilliseconds);
+                    if (failing) {
+                        throw new IOException(name + " failed");
+                    }
+                    return name;
+                }
+
+                @Override
+                public void cancel() {
+                    loaderCanceled.countDown();
+                    canceled.countDown();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
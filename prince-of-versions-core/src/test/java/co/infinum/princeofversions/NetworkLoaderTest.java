@@ -0,0 +1,330 @@
+package co.infinum.princeofversions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import co.infinum.princeofversions.util.ResourceUtils;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NetworkLoaderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private MockWebServer mockWebServer;
+
+    @Before
+    public void setup() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @Test
+    public void networkNormalTest() throws Throwable {
+        String filename = "valid_update_full.json";
+        MockResponse response = new MockResponse().setBody(ResourceUtils.readFromFile(filename)).setResponseCode(200);
+
+        mockWebServer.enqueue(response);
+
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+
+        String content = networkLoader.load();
+
+        assertJsonEquals(content, ResourceUtils.readFromFile(filename));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void networkTimeoutTest() throws Throwable {
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString(), 1);
+
+        networkLoader.load();
+    }
+
+    @Test
+    public void networkJsonMalformedTest() throws Throwable {
+        String filename = "malformed_json.json";
+        MockResponse response = new MockResponse().setBody(ResourceUtils.readFromFile(filename)).setResponseCode(200);
+
+        mockWebServer.enqueue(response);
+
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+
+        String content = networkLoader.load();
+
+        assertJsonEquals(content, ResourceUtils.readFromFile(filename));
+    }
+
+    @Test
+    public void networkResponseMissingTest() throws Throwable {
+        MockResponse response = new MockResponse().setResponseCode(200);
+
+        mockWebServer.enqueue(response);
+
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+
+        String content = networkLoader.load();
+
+        assertJsonEquals(content, "");
+    }
+
+    @Test
+    public void networkBasicAuthTest() throws Throwable {
+        // credentials of different lengths cover every padding of encoded value
+        String[] usernames = {"user", "user1", "user12", "\u00fcser"};
+        for (String username : usernames) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+            new NetworkLoader(mockWebServer.url("/").toString(), username, "secret").load();
+
+            String expected = "Basic " + Base64.getEncoder().encodeToString((username + ":secret").getBytes(UTF_8));
+            assertThat(mockWebServer.takeRequest().getHeader("Authorization")).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void networkConditionalRequestNotModifiedTest() throws Throwable {
+        String filename = "valid_update_full.json";
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile(filename)).setHeader("ETag", "\"v1\"")
+            .setHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        ConditionalRequestCache cache = new ConditionalRequestCache();
+        String url = mockWebServer.url("/").toString();
+
+        String first = new NetworkLoader(url, cache).load();
+        String second = new NetworkLoader(url, cache).load();
+
+        assertThat(second).isSameAs(first);
+        assertThat(mockWebServer.takeRequest().getHeader("If-None-Match")).isNull();
+        RecordedRequest conditional = mockWebServer.takeRequest();
+        assertThat(conditional.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+        assertThat(conditional.getHeader("If-Modified-Since")).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT");
+    }
+
+    @Test
+    public void networkConditionalRequestModifiedTest() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile("valid_update_full.json")).setHeader("ETag", "v1"));
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile("valid_update_full_b.json")).setHeader("ETag", "v2"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        ConditionalRequestCache cache = new ConditionalRequestCache();
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString(), cache);
+
+        networkLoader.load();
+        String modified = networkLoader.load();
+        String notModified = networkLoader.load();
+
+        assertJsonEquals(modified, ResourceUtils.readFromFile("valid_update_full_b.json"));
+        assertThat(notModified).isSameAs(modified);
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getHeader("If-None-Match")).isEqualTo("v2");
+    }
+
+    @Test
+    public void networkWithoutConditionalRequestCacheTest() throws Throwable {
+        String filename = "valid_update_full.json";
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile(filename)).setHeader("ETag", "v1"));
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile(filename)).setHeader("ETag", "v1"));
+
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+        networkLoader.load();
+        networkLoader.load();
+
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getHeader("If-None-Match")).isNull();
+    }
+
+    @Test
+    public void cancelAbortsLoadInProgress() throws Throwable {
+        // headers arrive right away, but the body would take minutes
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile("valid_update_full.json"))
+            .throttleBody(1, 100, TimeUnit.MILLISECONDS));
+        final NetworkLoader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+        final Throwable[] error = new Throwable[1];
+        Thread loading = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    networkLoader.load();
+                } catch (Throwable t) {
+                    error[0] = t;
+                }
+            }
+        });
+        loading.start();
+        mockWebServer.takeRequest();
+        Thread.sleep(200);
+
+        long canceledAt = System.nanoTime();
+        networkLoader.cancel();
+        loading.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(loading.isAlive()).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - canceledAt)).isLessThan(2);
+        assertThat(error[0]).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void cancelWithoutLoadInProgressIsIgnored() throws Throwable {
+        String filename = "valid_update_full.json";
+        mockWebServer.enqueue(new MockResponse().setBody(ResourceUtils.readFromFile(filename)));
+        NetworkLoader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+
+        networkLoader.cancel();
+
+        assertJsonEquals(networkLoader.load(), ResourceUtils.readFromFile(filename));
+    }
+
+    @Test
+    public void gzipResponseShrinksBytesOnWire() throws Throwable {
+        String content = largeConfig();
+        NegotiatingDispatcher dispatcher = new NegotiatingDispatcher(content);
+        mockWebServer.setDispatcher(dispatcher);
+
+        String loaded = new NetworkLoader(mockWebServer.url("/").toString()).load();
+
+        assertThat(loaded).isEqualTo(content);
+        assertThat(dispatcher.encoding).isEqualTo("gzip");
+        assertThat(dispatcher.sentBytes).isLessThan(content.getBytes(UTF_8).length / 5);
+    }
+
+    @Test
+    public void deflateResponseIsInflated() throws Throwable {
+        String content = largeConfig();
+        mockWebServer.enqueue(new MockResponse().setBody(new Buffer().write(compress(content, false, false)))
+            .setHeader("Content-Encoding", "deflate"));
+        mockWebServer.enqueue(new MockResponse().setBody(new Buffer().write(compress(content, false, true)))
+            .setHeader("Content-Encoding", "deflate"));
+        Loader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+
+        assertThat(networkLoader.load()).isEqualTo(content);
+        assertThat(networkLoader.load()).isEqualTo(content);
+        assertThat(mockWebServer.takeRequest().getHeader("Accept-Encoding")).contains("deflate");
+    }
+
+    @Test
+    public void uncompressedResponseIsReadAsIs() throws Throwable {
+        String content = ResourceUtils.readFromFile("valid_update_full.json");
+        mockWebServer.enqueue(new MockResponse().setBody(content));
+
+        assertThat(new NetworkLoader(mockWebServer.url("/").toString()).load()).isEqualTo(content);
+    }
+
+    @Test
+    public void gzipResponseIsStreamedDecompressed() throws Throwable {
+        String content = largeConfig();
+        mockWebServer.setDispatcher(new NegotiatingDispatcher(content));
+        NetworkLoader networkLoader = new NetworkLoader(mockWebServer.url("/").toString());
+
+        InputStream stream = networkLoader.open();
+        try {
+            assertThat(StreamIo.toString(stream)).isEqualTo(content);
+        } finally {
+            stream.close();
+        }
+    }
+
+    @Test
+    public void streamIsNotOpenedWithConditionalRequestCache() throws Throwable {
+        NetworkLoader networkLoader = new NetworkLoader(mockWebServer.url("/").toString(), new ConditionalRequestCache());
+
+        assertThat(networkLoader.open()).isNull();
+        assertThat(mockWebServer.getRequestCount()).isZero();
+    }
+
+        @After
+    public void cleanup() {
+        try {
+            mockWebServer.shutdown();
+        } catch (Exception ignored) {
+
+        }
+    }
+
+    /**
+     * Creates configuration with many similar updates, as configuration with updates for many segments would be.
+     */
+    private static String largeConfig() {
+        StringBuilder content = new StringBuilder("{\"android2\": [");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) {
+                content.append(',');
+            }
+            content.append("{\"required_version\": ").append(100 + i)
+                .append(", \"requirements\": {\"segment\": \"segment-").append(i).append("\"}")
+                .append(", \"meta\": {\"title\": \"Update for segment ").append(i).append("\", \"url\": \"https://example.com/")
+                .append(i).append("\"}}");
+        }
+        return content.append("]}").toString();
+    }
+
+    private static byte[] compress(String content, boolean gzip, boolean raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = gzip
+            ? new GZIPOutputStream(bytes)
+            : new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, raw));
+        out.write(content.getBytes(UTF_8));
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Compresses response only if client accepts gzip encoding and remembers how many body bytes were sent.
+     */
+    private static final class NegotiatingDispatcher extends Dispatcher {
+
+        private final String content;
+
+        private volatile String encoding;
+
+        private volatile long sentBytes;
+
+        NegotiatingDispatcher(String content) {
+            this.content = content;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String accepted = request.getHeader("Accept-Encoding");
+            try {
+                if (accepted != null && accepted.contains("gzip")) {
+                    byte[] body = compress(content, true, false);
+                    encoding = "gzip";
+                    sentBytes = body.length;
+                    return new MockResponse().setBody(new Buffer().write(body)).setHeader("Content-Encoding", "gzip");
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            encoding = "identity";
+            sentBytes = content.getBytes(UTF_8).length;
+            return new MockResponse().setBody(content);
+        }
+    }
+
+    private static void assertJsonEquals(String actual, String expected) {
+        assertThat(actual.replace("\n", "")).isEqualTo(expected.replace("\n", ""));
+    }
+}
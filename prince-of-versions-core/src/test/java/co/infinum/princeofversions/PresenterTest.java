@@ -6,11 +6,19 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import co.infinum.princeofversions.mocks.SingleThreadExecutor;
 
@@ -307,6 +315,57 @@ public class PresenterTest {
         verify(callback, times(1)).onError(any(Throwable.class));
     }
 
+    @Test
+    public void testAsyncCheckCancelAbortsRunningCheck() throws Throwable {
+        UpdaterCallback callback = mock(UpdaterCallback.class);
+        CancelableLoader cancelableLoader = mock(CancelableLoader.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        when(interactor.check(cancelableLoader, appConfig)).thenAnswer(new Answer<CheckResult>() {
+            @Override
+            public CheckResult answer(InvocationOnMock invocation) throws Throwable {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return CheckResult.noUpdate(10, DEFAULT_METADATA, updateInfo);
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        PrinceOfVersionsCancelable call = presenter.check(cancelableLoader, executor, callback, appConfig);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        call.cancel();
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(cancelableLoader, times(1)).cancel();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verify(callback, times(0)).onSuccess(any(UpdateResult.class));
+        verify(callback, times(0)).onError(any(Throwable.class));
+    }
+
+    @Test
+    public void testAsyncCheckCanceledBeforeStartIsNotRun() throws Throwable {
+        UpdaterCallback callback = mock(UpdaterCallback.class);
+        final List<Runnable> tasks = new ArrayList<>();
+
+        PrinceOfVersionsCancelable call = presenter.check(loader, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                tasks.add(runnable);
+            }
+        }, callback, appConfig);
+        call.cancel();
+        tasks.get(0).run();
+
+        verify(interactor, times(0)).check(any(Loader.class), any(ApplicationConfiguration.class));
+        verify(callback, times(0)).onError(any(Throwable.class));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testSyncCheckError() throws Throwable {
         when(interactor.check(any(Loader.class), any(ApplicationConfiguration.class))).thenThrow(new IllegalStateException());
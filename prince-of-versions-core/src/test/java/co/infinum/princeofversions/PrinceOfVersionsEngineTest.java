@@ -0,0 +1,104 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import co.infinum.princeofversions.mocks.MockApplicationConfiguration;
+import co.infinum.princeofversions.mocks.MockStorage;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class PrinceOfVersionsEngineTest {
+
+    private static final String CONFIG = "{\"android2\": ["
+        + "{\"required_version\": 100, \"last_version_available\": 300, \"requirements\": {\"required_os_version\": 23}},"
+        + "{\"required_version\": 100, \"last_version_available\": 250}"
+        + "]}";
+
+    /**
+     * Returns the same content instance on every load, like a cached loader does.
+     */
+    private final Loader loader = new Loader() {
+        @Override
+        public String load() {
+            return CONFIG;
+        }
+    };
+
+    @Test
+    public void requiredOsVersionIsComparedWithCheckedClient() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().build();
+
+        UpdateResult newDevice = engine.check(loader, new MockApplicationConfiguration(200, 25));
+        UpdateResult oldDevice = engine.check(loader, new MockApplicationConfiguration(200, 21));
+
+        assertThat(newDevice.getUpdateVersion()).isEqualTo(300);
+        assertThat(oldDevice.getUpdateVersion()).isEqualTo(250);
+    }
+
+    @Test
+    public void customRequirementCheckerIsUsed() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder()
+            .addRequirementsChecker("region", new RequirementChecker() {
+                @Override
+                public boolean checkRequirements(String value) {
+                    return "eu".equals(value);
+                }
+            })
+            .build();
+        Loader regionLoader = new Loader() {
+            @Override
+            public String load() {
+                return "{\"android2\": ["
+                    + "{\"required_version\": 100, \"last_version_available\": 300, \"requirements\": {\"region\": \"us\"}},"
+                    + "{\"required_version\": 100, \"last_version_available\": 250, \"requirements\": {\"region\": \"eu\"}}"
+                    + "]}";
+            }
+        };
+
+        UpdateResult result = engine.check(regionLoader, new MockApplicationConfiguration(200, 25));
+
+        assertThat(result.getUpdateVersion()).isEqualTo(250);
+    }
+
+    @Test
+    public void binaryConfigurationIsChecked() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().withBinaryConfiguration(true).build();
+        Loader binaryLoader = new StreamLoader(new ByteArrayInputStream(BinaryConfigurationEncoder.encode(CONFIG)),
+            BinaryConfigurationEncoder.CHARSET);
+
+        UpdateResult result = engine.check(binaryLoader, new MockApplicationConfiguration(200, 21));
+
+        assertThat(result.getUpdateVersion()).isEqualTo(250);
+    }
+
+    @Test
+    public void updateIsReportedEveryTimeWithoutStorage() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().build();
+        ApplicationConfiguration appConfig = new MockApplicationConfiguration(200, 25);
+
+        assertThat(engine.check(loader, appConfig).getStatus()).isEqualTo(UpdateStatus.NEW_UPDATE_AVAILABLE);
+        assertThat(engine.check(loader, appConfig).getStatus()).isEqualTo(UpdateStatus.NEW_UPDATE_AVAILABLE);
+    }
+
+    @Test
+    public void notifiedVersionIsRememberedInProvidedStorage() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().build();
+        ApplicationConfiguration appConfig = new MockApplicationConfiguration(200, 25);
+        Storage storage = new MockStorage();
+
+        assertThat(engine.check(loader, appConfig, storage).getStatus()).isEqualTo(UpdateStatus.NEW_UPDATE_AVAILABLE);
+        assertThat(engine.check(loader, appConfig, storage).getStatus()).isEqualTo(UpdateStatus.NO_UPDATE_AVAILABLE);
+        assertThat(storage.lastNotifiedVersion(null)).isEqualTo(300);
+    }
+
+    @Test
+    public void requiredUpdateIsReported() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().build();
+
+        UpdateResult result = engine.check(loader, new MockApplicationConfiguration(50, 25));
+
+        assertThat(result.getStatus()).isEqualTo(UpdateStatus.REQUIRED_UPDATE_NEEDED);
+    }
+}
@@ -0,0 +1,125 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import co.infinum.princeofversions.mocks.MockApplicationConfiguration;
+import co.infinum.princeofversions.mocks.MockStorage;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class PrinceOfVersionsMetricsTest {
+
+    private static final String CONFIG = "{\"android2\": [{\"required_version\": 100, \"last_version_available\": 300}]}";
+
+    private final PrinceOfVersionsMetrics metrics = new PrinceOfVersionsMetrics();
+
+    private final Loader loader = new Loader() {
+        @Override
+        public String load() {
+            return CONFIG;
+        }
+    };
+
+    @Test
+    public void checksAreMeasuredAndCountedByStatus() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().withEventListener(metrics).build();
+        Storage storage = new MockStorage();
+
+        engine.check(loader, new MockApplicationConfiguration(200, 25), storage);
+        engine.check(loader, new MockApplicationConfiguration(200, 25), storage);
+        engine.check(loader, new MockApplicationConfiguration(50, 25), storage);
+
+        PrinceOfVersionsMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getCheckLatency().getCount()).isEqualTo(3);
+        assertThat(snapshot.getLoadLatency().getCount()).isEqualTo(3);
+        assertThat(snapshot.getParseLatency().getCount()).isEqualTo(3);
+        assertThat(snapshot.getStatusCount(UpdateStatus.NEW_UPDATE_AVAILABLE)).isEqualTo(1);
+        assertThat(snapshot.getStatusCount(UpdateStatus.NO_UPDATE_AVAILABLE)).isEqualTo(1);
+        assertThat(snapshot.getStatusCount(UpdateStatus.REQUIRED_UPDATE_NEEDED)).isEqualTo(1);
+        assertThat(snapshot.getBytesDownloaded()).isZero();
+    }
+
+    @Test
+    public void reusedConfigurationIsCounted() throws Throwable {
+        Interactor interactor = new InteractorImpl(new JsonConfigurationParser(new PrinceOfVersionsRequirementsProcessor()), true);
+        Presenter presenter = new TracingPresenter(new PresenterImpl(interactor, new MockStorage()), metrics);
+        final ConditionalRequestCache.Entry response = new ConditionalRequestCache.Entry("etag", null, CONFIG);
+        // the same response is returned after 304 Not Modified
+        Loader notModifiedLoader = new NetworkLoader("http://localhost/") {
+            @Override
+            ConditionalRequestCache.Entry loadEntry() {
+                return response;
+            }
+        };
+
+        presenter.check(notModifiedLoader, new MockApplicationConfiguration(200, 25));
+        presenter.check(notModifiedLoader, new MockApplicationConfiguration(200, 25));
+
+        PrinceOfVersionsMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getParseLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getReusedConfigurations()).isEqualTo(1);
+        assertThat(snapshot.getCachedResults()).isZero();
+    }
+
+    @Test
+    public void requirementResultLookupsAreCounted() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder()
+            .addRequirementsChecker("abi", new DeterministicRequirementChecker() {
+                @Override
+                public boolean checkRequirements(String value) {
+                    return "arm64".equals(value);
+                }
+            })
+            .withEventListener(metrics)
+            .build();
+        Loader abiLoader = new Loader() {
+            @Override
+            public String load() {
+                return "{\"android2\": [{\"required_version\": 100, \"requirements\": {\"abi\": \"arm64\"}}]}";
+            }
+        };
+
+        engine.check(abiLoader, new MockApplicationConfiguration(200, 25));
+        engine.check(abiLoader, new MockApplicationConfiguration(200, 25));
+
+        PrinceOfVersionsMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getRequirementResultMisses()).isEqualTo(1);
+        assertThat(snapshot.getRequirementResultHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void errorsAreCountedByPhase() {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().withEventListener(metrics).build();
+        Loader failingLoader = new Loader() {
+            @Override
+            public String load() throws IOException {
+                throw new IOException("offline");
+            }
+        };
+        Loader invalidLoader = new Loader() {
+            @Override
+            public String load() {
+                return "[]";
+            }
+        };
+
+        checkIgnoringError(engine, failingLoader);
+        checkIgnoringError(engine, invalidLoader);
+
+        PrinceOfVersionsMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getErrorCount(PrinceOfVersionsMetrics.ErrorType.LOAD)).isEqualTo(1);
+        assertThat(snapshot.getErrorCount(PrinceOfVersionsMetrics.ErrorType.PARSE)).isEqualTo(1);
+        assertThat(snapshot.getErrorCount(PrinceOfVersionsMetrics.ErrorType.OTHER)).isZero();
+        assertThat(snapshot.getCheckLatency().getCount()).isEqualTo(2);
+    }
+
+    private static void checkIgnoringError(PrinceOfVersionsEngine engine, Loader loader) {
+        try {
+            engine.check(loader, new MockApplicationConfiguration(200, 25));
+        } catch (Throwable ignored) {
+            // counted by metrics
+        }
+    }
+}
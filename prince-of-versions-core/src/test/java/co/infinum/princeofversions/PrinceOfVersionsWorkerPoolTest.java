@@ -0,0 +1,155 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class PrinceOfVersionsWorkerPoolTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    public void queuedTasksRunByPriorityThenInOrder() throws InterruptedException {
+        PrinceOfVersionsWorkerPool pool = new PrinceOfVersionsWorkerPool.Builder().withThreads(1).build();
+        CountDownLatch release = block(pool);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch done = new CountDownLatch(4);
+
+        pool.execute(record(order, "low", done), PrinceOfVersionsWorkerPool.Priority.LOW);
+        pool.execute(record(order, "normal 1", done));
+        pool.withPriority(PrinceOfVersionsWorkerPool.Priority.HIGH).execute(record(order, "high", done));
+        pool.execute(record(order, "normal 2", done));
+        assertThat(pool.getQueueDepth()).isEqualTo(4);
+        release.countDown();
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("high", "normal 1", "normal 2", "low");
+    }
+
+    @Test
+    public void fullQueueRejectsTask() throws InterruptedException {
+        PrinceOfVersionsWorkerPool pool = new PrinceOfVersionsWorkerPool.Builder().withThreads(1).withQueueCapacity(1).build();
+        CountDownLatch release = block(pool);
+        pool.execute(noop());
+
+        try {
+            pool.execute(noop());
+            fail("Task should be rejected");
+        } catch (RejectedExecutionException expected) {
+            assertThat(pool.getRejectedTaskCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void fullQueueRunsTaskOnCallerThread() throws InterruptedException {
+        PrinceOfVersionsWorkerPool pool = new PrinceOfVersionsWorkerPool.Builder()
+            .withThreads(1)
+            .withQueueCapacity(1)
+            .withRejectionPolicy(PrinceOfVersionsWorkerPool.RejectionPolicy.CALLER_RUNS)
+            .build();
+        CountDownLatch release = block(pool);
+        pool.execute(noop());
+        final Thread[] thread = new Thread[1];
+
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                thread[0] = Thread.currentThread();
+            }
+        });
+        release.countDown();
+
+        assertThat(thread[0]).isSameAs(Thread.currentThread());
+        assertThat(pool.getRejectedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void waitTimeIsMeasured() throws InterruptedException {
+        PrinceOfVersionsWorkerPool pool = new PrinceOfVersionsWorkerPool.Builder().withThreads(1).build();
+        CountDownLatch release = block(pool);
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(record(new ArrayList<String>(), "waiting", done));
+
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getStartedTaskCount()).isEqualTo(2);
+        assertThat(pool.getMaxWaitTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50);
+        assertThat(pool.getAverageWaitTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(25);
+    }
+
+    @Test
+    public void idleThreadsAreStopped() throws InterruptedException {
+        PrinceOfVersionsWorkerPool pool = new PrinceOfVersionsWorkerPool.Builder()
+            .withThreads(2)
+            .withKeepAlive(10, TimeUnit.MILLISECONDS)
+            .build();
+        CountDownLatch done = new CountDownLatch(2);
+        pool.execute(record(new ArrayList<String>(), "first", done));
+        pool.execute(record(new ArrayList<String>(), "second", done));
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (pool.getThreadCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(pool.getThreadCount()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void poolNeedsThread() {
+        new PrinceOfVersionsWorkerPool.Builder().withThreads(0);
+    }
+
+    /**
+     * Occupies the only thread of the pool until returned latch is released.
+     */
+    private static CountDownLatch block(PrinceOfVersionsWorkerPool pool) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // test is over
+                }
+            }
+        });
+        assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        return release;
+    }
+
+    private static Runnable record(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+                done.countDown();
+            }
+        };
+    }
+
+    private static Runnable noop() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                // nothing to do
+            }
+        };
+    }
+}
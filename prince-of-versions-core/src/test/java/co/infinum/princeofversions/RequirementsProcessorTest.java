@@ -0,0 +1,347 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequirementsProcessorTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    public void checkRequiredOsVersionWhenGreaterThanDevice() {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(23))
+        );
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "25");
+        boolean result = processor.areRequirementsSatisfied(requirements);
+
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void checkRequiredOsVersionWhenLessThanDevice() {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(25))
+        );
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "23");
+        boolean result = processor.areRequirementsSatisfied(requirements);
+
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void checkRequiredOsVersionWhenEqualToDevice() {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(23))
+        );
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "23");
+        boolean result = processor.areRequirementsSatisfied(requirements);
+
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void checkRequiredOsVersionWhenRequirementsAreNull() {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(23))
+        );
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, null);
+        boolean result = processor.areRequirementsSatisfied(requirements);
+
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void checkRequirementWithoutCheckerIsNotSatisfied() {
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(
+            Collections.<String, RequirementChecker>emptyMap()
+        );
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put("unknown", "value");
+
+        assertThat(processor.areRequirementsSatisfied(requirements)).isFalse();
+    }
+
+    @Test
+    public void checkInvalidRequiredOsVersionIsNotSatisfied() {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(23))
+        );
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "twenty");
+
+        assertThat(processor.areRequirementsSatisfied(requirements)).isFalse();
+    }
+
+    @Test
+    public void checkRequirementsWithSameContentAreCompiledOnce() {
+        final AtomicInteger compiled = new AtomicInteger();
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new PrinceOfVersionsDefaultRequirementsChecker(
+            new MockApplicationVersionProvider(23)) {
+            @Override
+            public MinSdkCondition compile(String value) {
+                compiled.incrementAndGet();
+                return super.compile(value);
+            }
+        });
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        for (int i = 0; i < 3; i++) {
+            // every reload of configuration creates new requirements with the same content
+            Map<String, String> requirements = new HashMap<>();
+            requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "21");
+            assertThat(processor.areRequirementsSatisfied(requirements)).isTrue();
+        }
+        Map<String, String> other = new HashMap<>();
+        other.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "25");
+
+        assertThat(processor.areRequirementsSatisfied(other)).isFalse();
+        assertThat(compiled.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void checkCompiledRequirementIsCheckedBeforeCustomChecker() {
+        final AtomicInteger customChecks = new AtomicInteger();
+        Map<String, RequirementChecker> checkers = new LinkedHashMap<>();
+        checkers.put("custom", new RequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                customChecks.incrementAndGet();
+                return true;
+            }
+        });
+        checkers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(23))
+        );
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new LinkedHashMap<>();
+        requirements.put("custom", "value");
+        requirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, "25");
+
+        assertThat(processor.areRequirementsSatisfied(requirements)).isFalse();
+        assertThat(customChecks.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void checkCustomCheckerIsCalledOnEveryCheck() {
+        final AtomicInteger customChecks = new AtomicInteger();
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put("custom", new RequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                return customChecks.incrementAndGet() == 1;
+            }
+        });
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        Map<String, String> requirements = new HashMap<>();
+        requirements.put("custom", "value");
+
+        assertThat(processor.areRequirementsSatisfied(requirements)).isTrue();
+        assertThat(processor.areRequirementsSatisfied(requirements)).isFalse();
+    }
+
+    @Test
+    public void checkDeterministicCheckerIsCalledOncePerValue() {
+        final AtomicInteger checks = new AtomicInteger();
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put("abi", new DeterministicRequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                checks.incrementAndGet();
+                return "arm64".equals(value);
+            }
+        });
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(processor.areRequirementsSatisfied(Collections.singletonMap("abi", "arm64"))).isTrue();
+            assertThat(processor.areRequirementsSatisfied(Collections.singletonMap("abi", "x86"))).isFalse();
+        }
+
+        assertThat(checks.get()).isEqualTo(2);
+        assertThat(processor.getResultCacheMisses()).isEqualTo(2);
+        assertThat(processor.getResultCacheHits()).isEqualTo(4);
+    }
+
+    @Test
+    public void checkDeterministicCheckerErrorIsNotRemembered() {
+        final AtomicInteger checks = new AtomicInteger();
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put("abi", new DeterministicRequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                if (checks.incrementAndGet() == 1) {
+                    throw new IllegalStateException();
+                }
+                return true;
+            }
+        });
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+        Map<String, String> requirements = Collections.singletonMap("abi", "arm64");
+
+        assertThat(processor.areRequirementsSatisfied(requirements)).isFalse();
+        assertThat(processor.areRequirementsSatisfied(requirements)).isTrue();
+        assertThat(processor.areRequirementsSatisfied(requirements)).isTrue();
+        assertThat(checks.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void checkAsyncChecksOfAllCandidatesRunInParallel() {
+        final CountDownLatch allStarted = new CountDownLatch(2);
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put("flag", new TimedRequirementChecker(new AsyncRequirementChecker() {
+            @Override
+            public void checkRequirements(final String value, final Callback callback) {
+                allStarted.countDown();
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            // answers only once checks of both candidates are started
+                            callback.onResult(allStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS) && "on".equals(value));
+                        } catch (InterruptedException error) {
+                            callback.onError(error);
+                        }
+                    }
+                }).start();
+            }
+        }, TIMEOUT_SECONDS, TimeUnit.SECONDS, false));
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        int selected = processor.firstSatisfied(Arrays.asList(
+            Collections.singletonMap("flag", "off"),
+            Collections.singletonMap("flag", "on"),
+            null
+        ));
+
+        assertThat(selected).isEqualTo(1);
+    }
+
+    @Test
+    public void checkFirstSatisfiedCandidateIsSelectedInOrder() {
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put("flag", new TimedRequirementChecker(new AsyncRequirementChecker() {
+            @Override
+            public void checkRequirements(String value, Callback callback) {
+                callback.onResult(true);
+            }
+        }, TIMEOUT_SECONDS, TimeUnit.SECONDS, false));
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        int selected = processor.firstSatisfied(Arrays.asList(
+            Collections.singletonMap("unknown", "value"),
+            Collections.singletonMap("flag", "first"),
+            Collections.singletonMap("flag", "second")
+        ));
+
+        assertThat(selected).isEqualTo(1);
+    }
+
+    @Test
+    public void checkSameAsyncRequirementIsCheckedOnce() {
+        final AtomicInteger checks = new AtomicInteger();
+        Map<String, RequirementChecker> checkers = new HashMap<>();
+        checkers.put("flag", new TimedRequirementChecker(new AsyncRequirementChecker() {
+            @Override
+            public void checkRequirements(String value, Callback callback) {
+                checks.incrementAndGet();
+                callback.onResult("on".equals(value));
+            }
+        }, TIMEOUT_SECONDS, TimeUnit.SECONDS, false));
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(checkers);
+
+        int selected = processor.firstSatisfied(Arrays.asList(
+            Collections.singletonMap("flag", "off"),
+            Collections.singletonMap("flag", "off"),
+            Collections.singletonMap("flag", "on")
+        ));
+
+        assertThat(selected).isEqualTo(2);
+        assertThat(checks.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void checkTimedOutAsyncCheckerUsesVerdict() {
+        AsyncRequirementChecker neverAnswers = new AsyncRequirementChecker() {
+            @Override
+            public void checkRequirements(String value, Callback callback) {
+                // result never arrives
+            }
+        };
+        Map<String, String> requirements = Collections.singletonMap("flag", "on");
+
+        PrinceOfVersionsRequirementsProcessor satisfiedOnTimeout = new PrinceOfVersionsRequirementsProcessor(
+            Collections.<String, RequirementChecker>singletonMap(
+                "flag", new TimedRequirementChecker(neverAnswers, 10, TimeUnit.MILLISECONDS, true)
+            )
+        );
+        PrinceOfVersionsRequirementsProcessor notSatisfiedOnTimeout = new PrinceOfVersionsRequirementsProcessor(
+            Collections.<String, RequirementChecker>singletonMap(
+                "flag", new TimedRequirementChecker(neverAnswers, 10, TimeUnit.MILLISECONDS, false)
+            )
+        );
+
+        assertThat(satisfiedOnTimeout.areRequirementsSatisfied(requirements)).isTrue();
+        assertThat(notSatisfiedOnTimeout.areRequirementsSatisfied(requirements)).isFalse();
+    }
+
+    @Test
+    public void checkOnlyDefaultAndDeterministicCheckersAreDeterministic() {
+        RequirementChecker defaultChecker = new PrinceOfVersionsDefaultRequirementsChecker(new MockApplicationVersionProvider(23));
+        RequirementChecker deterministic = new DeterministicRequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                return true;
+            }
+        };
+        RequirementChecker custom = new RequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                return true;
+            }
+        };
+
+        assertThat(PrinceOfVersionsRequirementsProcessor.areDeterministic(Collections.<RequirementChecker>emptyList())).isTrue();
+        assertThat(PrinceOfVersionsRequirementsProcessor.areDeterministic(Arrays.asList(defaultChecker, deterministic))).isTrue();
+        assertThat(PrinceOfVersionsRequirementsProcessor.areDeterministic(Arrays.asList(defaultChecker, custom))).isFalse();
+    }
+}
@@ -0,0 +1,284 @@
+package co.infinum.princeofversions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SingleFlightPresenterTest {
+
+    @Mock
+    Presenter delegate;
+
+    @Mock
+    Loader loader;
+
+    @Mock
+    ApplicationConfiguration appConfig;
+
+    @Mock
+    UpdaterCallback firstCallback;
+
+    @Mock
+    UpdaterCallback secondCallback;
+
+    private QueueExecutor executor;
+
+    private SingleFlightPresenter presenter;
+
+    private UpdateResult updateResult;
+
+    @Before
+    public void setUp() {
+        executor = new QueueExecutor();
+        presenter = new SingleFlightPresenter(delegate);
+        updateResult = new UpdateResult(null, new HashMap<String, String>(), UpdateStatus.NO_UPDATE_AVAILABLE, 1);
+    }
+
+    @Test
+    public void concurrentChecksShareResult() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(updateResult);
+
+        presenter.check(loader, executor, firstCallback, appConfig);
+        presenter.check(loader, executor, secondCallback, appConfig);
+        executor.runAll();
+
+        verify(delegate, times(1)).check(loader, appConfig);
+        verify(firstCallback, times(1)).onSuccess(updateResult);
+        verify(secondCallback, times(1)).onSuccess(updateResult);
+    }
+
+    @Test
+    public void concurrentChecksShareError() throws Throwable {
+        IOException error = new IOException();
+        when(delegate.check(loader, appConfig)).thenThrow(error);
+
+        presenter.check(loader, executor, firstCallback, appConfig);
+        presenter.check(loader, executor, secondCallback, appConfig);
+        executor.runAll();
+
+        verify(firstCallback, times(1)).onError(error);
+        verify(secondCallback, times(1)).onError(error);
+    }
+
+    @Test
+    public void cancelingOneCallerKeepsSharedCheck() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(updateResult);
+
+        PrinceOfVersionsCancelable first = presenter.check(loader, executor, firstCallback, appConfig);
+        presenter.check(loader, executor, secondCallback, appConfig);
+        first.cancel();
+        executor.runAll();
+
+        assertThat(first.isCanceled()).isTrue();
+        verify(delegate, times(1)).check(loader, appConfig);
+        verify(firstCallback, never()).onSuccess(any(UpdateResult.class));
+        verify(secondCallback, times(1)).onSuccess(updateResult);
+    }
+
+    @Test
+    public void checkIsSkippedWhenEveryCallerCanceled() throws Throwable {
+        presenter.check(loader, executor, firstCallback, appConfig).cancel();
+        presenter.check(loader, executor, secondCallback, appConfig).cancel();
+        executor.runAll();
+
+        verify(delegate, never()).check(any(Loader.class), any(ApplicationConfiguration.class));
+    }
+
+    @Test
+    public void cancelingEveryCallerAbortsRunningCheck() throws Throwable {
+        CancelableLoader cancelableLoader = mock(CancelableLoader.class);
+        final List<PrinceOfVersionsCancelable> calls = new ArrayList<>();
+        when(delegate.check(cancelableLoader, appConfig)).thenAnswer(new Answer<UpdateResult>() {
+            @Override
+            public UpdateResult answer(InvocationOnMock invocation) {
+                for (PrinceOfVersionsCancelable call : calls) {
+                    call.cancel();
+                }
+                return updateResult;
+            }
+        });
+
+        calls.add(presenter.check(cancelableLoader, executor, firstCallback, appConfig));
+        calls.add(presenter.check(cancelableLoader, executor, secondCallback, appConfig));
+        executor.runAll();
+
+        verify(cancelableLoader, times(1)).cancel();
+        verify(firstCallback, never()).onSuccess(any(UpdateResult.class));
+        verify(secondCallback, never()).onSuccess(any(UpdateResult.class));
+    }
+
+    @Test
+    public void cancelingOneCallerDoesNotAbortRunningCheck() throws Throwable {
+        CancelableLoader cancelableLoader = mock(CancelableLoader.class);
+        final List<PrinceOfVersionsCancelable> calls = new ArrayList<>();
+        when(delegate.check(cancelableLoader, appConfig)).thenAnswer(new Answer<UpdateResult>() {
+            @Override
+            public UpdateResult answer(InvocationOnMock invocation) {
+                calls.get(0).cancel();
+                return updateResult;
+            }
+        });
+
+        calls.add(presenter.check(cancelableLoader, executor, firstCallback, appConfig));
+        calls.add(presenter.check(cancelableLoader, executor, secondCallback, appConfig));
+        executor.runAll();
+
+        verify(cancelableLoader, never()).cancel();
+        verify(secondCallback, times(1)).onSuccess(updateResult);
+    }
+
+    @Test
+    public void finishedCheckIsNotShared() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(updateResult);
+
+        presenter.check(loader, executor, firstCallback, appConfig);
+        executor.runAll();
+        presenter.check(loader, executor, secondCallback, appConfig);
+        executor.runAll();
+
+        verify(delegate, times(2)).check(loader, appConfig);
+        verify(secondCallback, times(1)).onSuccess(updateResult);
+    }
+
+    @Test
+    public void checksOfDifferentLoadersAreNotShared() throws Throwable {
+        Loader otherLoader = new StreamLoader(null);
+
+        presenter.check(loader, executor, firstCallback, appConfig);
+        presenter.check(otherLoader, executor, secondCallback, appConfig);
+
+        assertThat(executor.queue).hasSize(2);
+    }
+
+    @Test
+    public void networkLoadersOfSameUrlAreShared() throws Throwable {
+        presenter.check(new NetworkLoader("http://example.com/update.json"), executor, firstCallback, appConfig);
+        presenter.check(new NetworkLoader("http://example.com/update.json"), executor, secondCallback, appConfig);
+        presenter.check(new NetworkLoader("http://example.com/other.json"), executor, secondCallback, appConfig);
+
+        assertThat(executor.queue).hasSize(2);
+    }
+
+    @Test
+    public void networkLoadersOfSameUrlWithDifferentRequestsAreNotShared() throws Throwable {
+        String url = "http://example.com/update.json";
+        presenter.check(new NetworkLoader(url, "user", "first"), executor, firstCallback, appConfig);
+        presenter.check(new NetworkLoader(url, "user", "second"), executor, secondCallback, appConfig);
+        presenter.check(new NetworkLoader(url, 1), executor, secondCallback, appConfig);
+        presenter.check(new NetworkLoader(url, new ConditionalRequestCache()), executor, secondCallback, appConfig);
+        presenter.check(new NetworkLoader(url) {
+        }, executor, secondCallback, appConfig);
+
+        assertThat(executor.queue).hasSize(5);
+    }
+
+    @Test
+    public void cachingLoaderIsNotSharedWithItsDelegate() throws Throwable {
+        String url = "http://example.com/update.json";
+        File file = new File(CachingLoader.fileNameFor(url));
+        presenter.check(new NetworkLoader(url), executor, firstCallback, appConfig);
+        presenter.check(new CachingLoader(new NetworkLoader(url), file, 1, TimeUnit.HOURS), executor, secondCallback, appConfig);
+        presenter.check(new CachingLoader(new NetworkLoader(url), file, 1, TimeUnit.HOURS), executor, secondCallback, appConfig);
+
+        assertThat(executor.queue).hasSize(2);
+    }
+
+    @Test
+    public void synchronousCheckRunsOnCallingThread() throws Throwable {
+        when(delegate.check(loader, appConfig)).thenReturn(updateResult);
+
+        assertThat(presenter.check(loader, appConfig)).isEqualTo(updateResult);
+        assertThat(executor.queue).isEmpty();
+    }
+
+    @Test
+    public void cancelingSynchronousCallerDoesNotAbortSharedCheck() throws Throwable {
+        CancelableLoader cancelableLoader = mock(CancelableLoader.class);
+        final UpdaterCancelable call = new UpdaterCancelable();
+        when(delegate.check(cancelableLoader, appConfig)).thenAnswer(new Answer<UpdateResult>() {
+            @Override
+            public UpdateResult answer(InvocationOnMock invocation) {
+                presenter.check((Loader) invocation.getArgument(0), executor, secondCallback, appConfig);
+                call.cancel();
+                return updateResult;
+            }
+        });
+
+        try {
+            presenter.check(cancelableLoader, appConfig, call);
+            fail("Canceled check should fail");
+        } catch (IOException error) {
+            assertThat(error).hasMessage("Canceled");
+        }
+
+        verify(cancelableLoader, never()).cancel();
+        verify(secondCallback, times(1)).onSuccess(updateResult);
+    }
+
+    @Test
+    public void cancelingOnlySynchronousCallerAbortsRunningCheck() throws Throwable {
+        CancelableLoader cancelableLoader = mock(CancelableLoader.class);
+        final UpdaterCancelable call = new UpdaterCancelable();
+        when(delegate.check(cancelableLoader, appConfig)).thenAnswer(new Answer<UpdateResult>() {
+            @Override
+            public UpdateResult answer(InvocationOnMock invocation) {
+                call.cancel();
+                return updateResult;
+            }
+        });
+
+        try {
+            presenter.check(cancelableLoader, appConfig, call);
+            fail("Canceled check should fail");
+        } catch (IOException error) {
+            assertThat(error).hasMessage("Canceled");
+        }
+
+        verify(cancelableLoader, times(1)).cancel();
+    }
+
+    /**
+     * Executor which runs tasks only when asked to.
+     */
+    private static final class QueueExecutor implements Executor {
+
+        private final List<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(@Nonnull Runnable runnable) {
+            queue.add(runnable);
+        }
+
+        void runAll() {
+            List<Runnable> tasks = new ArrayList<>(queue);
+            queue.clear();
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+}
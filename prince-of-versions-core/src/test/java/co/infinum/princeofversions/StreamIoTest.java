@@ -0,0 +1,82 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import co.infinum.princeofversions.util.ResourceUtils;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class StreamIoTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void newLinesArePreserved() throws IOException {
+        String content = "{\n  \"a\": 1\r\n}\n";
+
+        assertThat(StreamIo.toString(stream(content))).isEqualTo(content);
+    }
+
+    @Test
+    public void multiByteCharactersAreDecoded() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append("\u010d\u0107\u017e\u0161\u0111\u20ac\ud83d\ude00");
+        }
+
+        assertThat(StreamIo.toString(stream(content.toString()))).isEqualTo(content.toString());
+    }
+
+    @Test
+    public void expectedLengthIsOnlyHint() throws IOException {
+        String content = ResourceUtils.readFromFile("valid_update_full.json");
+        int length = content.getBytes(UTF_8).length;
+
+        assertThat(StreamIo.toString(stream(content), length)).isEqualTo(content);
+        assertThat(StreamIo.toString(stream(content), length / 2)).isEqualTo(content);
+        assertThat(StreamIo.toString(stream(content), length * 2)).isEqualTo(content);
+        assertThat(StreamIo.toString(stream(content), StreamIo.UNKNOWN_LENGTH)).isEqualTo(content);
+    }
+
+    @Test
+    public void reusedBufferDoesNotLeakPreviousContent() throws IOException {
+        StreamIo.toString(stream("previous and much longer content"));
+
+        assertThat(StreamIo.toString(stream("short"))).isEqualTo("short");
+        assertThat(StreamIo.toString(stream(""))).isEmpty();
+    }
+
+    @Test
+    public void charSequenceHasSameContent() throws IOException {
+        String content = ResourceUtils.readFromFile("valid_update_full.json") + "\u017e";
+
+        CharSequence chars = StreamIo.toCharSequence(stream(content), StreamIo.UNKNOWN_LENGTH);
+
+        assertThat(chars.toString()).isEqualTo(content);
+    }
+
+    @Test
+    public void streamIsClosed() throws IOException {
+        final boolean[] closed = {false};
+        InputStream is = new ByteArrayInputStream("content".getBytes(UTF_8)) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        StreamIo.toString(is);
+
+        assertThat(closed[0]).isTrue();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(UTF_8));
+    }
+}
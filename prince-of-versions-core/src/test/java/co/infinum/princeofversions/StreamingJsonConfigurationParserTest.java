@@ -0,0 +1,261 @@
+package co.infinum.princeofversions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import co.infinum.princeofversions.mocks.MockDefaultRequirementChecker;
+import co.infinum.princeofversions.util.MapUtil;
+import co.infinum.princeofversions.util.ResourceUtils;
+
+import static co.infinum.princeofversions.util.MapUtil.entry;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class StreamingJsonConfigurationParserTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private JsonConfigurationParser treeParser;
+
+    private StreamingJsonConfigurationParser parser;
+
+    @Before
+    public void setUp() {
+        Map<String, RequirementChecker> defaultRequirements = new HashMap<>();
+        defaultRequirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new MockDefaultRequirementChecker(21));
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(defaultRequirements);
+        treeParser = new JsonConfigurationParser(processor);
+        parser = new StreamingJsonConfigurationParser(processor);
+    }
+
+    @Test
+    public void sameResultAsTreeParserForAllMockData() throws Throwable {
+        assertSameResultAsTreeParserForAllMockData(parser);
+    }
+
+    @Test
+    public void sameResultWithAsyncCheckerForAllMockData() throws Throwable {
+        final RequirementChecker checker = new MockDefaultRequirementChecker(21);
+        Map<String, RequirementChecker> asyncRequirements = new HashMap<>();
+        asyncRequirements.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new TimedRequirementChecker(new AsyncRequirementChecker() {
+            @Override
+            public void checkRequirements(final String value, final Callback callback) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            callback.onResult(checker.checkRequirements(value));
+                        } catch (Throwable error) {
+                            callback.onError(error);
+                        }
+                    }
+                }).start();
+            }
+        }, TIMEOUT_SECONDS, TimeUnit.SECONDS, false));
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(asyncRequirements);
+
+        assertSameResultAsTreeParserForAllMockData(new StreamingJsonConfigurationParser(processor));
+        assertSameResultAsTreeParserForAllMockData(new JsonConfigurationParser(processor));
+    }
+
+    private void assertSameResultAsTreeParserForAllMockData(ConfigurationParser parser) throws Throwable {
+        File directory = new File(getClass().getClassLoader().getResource("mockdata").toURI());
+        File[] files = directory.listFiles();
+        assertThat(files).isNotEmpty();
+        for (File file : files) {
+            String content = ResourceUtils.readFromFile(file.getName());
+            PrinceOfVersionsConfig expected = null;
+            Throwable expectedError = null;
+            try {
+                expected = treeParser.parse(content);
+            } catch (Throwable error) {
+                expectedError = error;
+            }
+            try {
+                PrinceOfVersionsConfig actual = parser.parse(content);
+                if (expectedError != null) {
+                    fail(file.getName() + " should fail with " + expectedError);
+                }
+                assertThat(actual).as(file.getName()).isEqualTo(expected);
+            } catch (RequirementsNotSatisfiedException error) {
+                assertThat(expectedError).as(file.getName()).isInstanceOf(RequirementsNotSatisfiedException.class);
+                assertThat(error.getMetadata()).isEqualTo(((RequirementsNotSatisfiedException) expectedError).getMetadata());
+            } catch (AssertionError error) {
+                throw error;
+            } catch (Throwable error) {
+                assertThat(expectedError).as(file.getName() + " failed with " + error).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    public void contentAfterSelectedUpdateIsNotRead() throws Throwable {
+        PrinceOfVersionsConfig config = parser.parse("{\"meta\": {\"a\": 1}, \"android2\": ["
+            + "{\"required_version\": 10, \"meta\": {\"b\": 2}},"
+            + "{\"required_version\": \"skipped\", this is not json at all");
+
+        assertThat(config).isEqualTo(
+            new PrinceOfVersionsConfig.Builder()
+                .withMandatoryVersion(10)
+                .withMetadata(MapUtil.from(
+                    entry("a", "1"),
+                    entry("b", "2")
+                ))
+                .build()
+        );
+    }
+
+    @Test
+    public void numbersAndNestedValuesAreConvertedAsByTreeParser() throws Throwable {
+        String json = "{\"android2\": {\"required_version\": 10, \"requirements\": {\"a\": 1.50, \"b\": 2e1}}, \"meta\": {"
+            + "\"exponent\": 1e2, \"decimalExponent\": 1.5E3, \"negativeZero\": -0, \"zero\": 0, \"integer\": -12, \"decimal\": 1.50,"
+            + "\"long\": 12345678901, \"array\": [1.0, \"x\", -0, 1e2], \"object\": {\"z\": 1.0, \"a\": {\"b\": 2E-3}, \"m\": \"/\"}}}";
+        RequirementChecker anyValue = new RequirementChecker() {
+            @Override
+            public boolean checkRequirements(String value) {
+                return true;
+            }
+        };
+        Map<String, RequirementChecker> anyRequirements = new HashMap<>();
+        anyRequirements.put("a", anyValue);
+        anyRequirements.put("b", anyValue);
+        PrinceOfVersionsRequirementsProcessor processor = new PrinceOfVersionsRequirementsProcessor(anyRequirements);
+
+        PrinceOfVersionsConfig expected = new JsonConfigurationParser(processor).parse(json);
+        PrinceOfVersionsConfig actual = new StreamingJsonConfigurationParser(processor).parse(json);
+
+        assertThat(new HashMap<>(actual.getMetadata())).isEqualTo(new HashMap<>(expected.getMetadata()));
+        assertThat(actual.getRequirements()).isEqualTo(expected.getRequirements());
+    }
+
+    @Test
+    public void rootMetadataAfterUpdatesIsOverridden() throws Throwable {
+        PrinceOfVersionsConfig config = parser.parse("{\"android2\": ["
+            + "{\"required_version\": 10, \"requirements\": {\"required_os_version\": 25}, \"meta\": {\"x\": \"skipped\"}},"
+            + "{\"required_version\": 11, \"meta\": {\"x\": \"selected\", \"nested\": {\"k\": [1, \"v\", null]}}}"
+            + "], \"meta\": {\"x\": \"root\", \"y\": \"root\"}}");
+
+        assertThat(config).isEqualTo(
+            new PrinceOfVersionsConfig.Builder()
+                .withMandatoryVersion(11)
+                .withMetadata(MapUtil.from(
+                    entry("x", "selected"),
+                    entry("y", "root"),
+                    entry("nested", "{\"k\":[1,\"v\",null]}")
+                ))
+                .build()
+        );
+    }
+
+    @Test
+    public void invalidValueInSkippedUpdateIsIgnored() throws Throwable {
+        PrinceOfVersionsConfig config = parser.parse("{\"android2\": ["
+            + "{\"required_version\": \"1.0\", \"requirements\": {\"required_os_version\": 25}},"
+            + "{\"required_version\": 11}"
+            + "]}");
+
+        assertThat(config.getMandatoryVersion()).isEqualTo(11);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidValueInSelectedUpdateIsReported() throws Throwable {
+        parser.parse("{\"android2\": [{\"required_version\": 1.5}]}");
+    }
+
+    @Test
+    public void fallbackIsUsedWhenAndroid2IsNull() throws Throwable {
+        PrinceOfVersionsConfig config = parser.parse("{\"android\": {\"last_version_available\": 7}, \"android2\": null}");
+
+        assertThat(config.getOptionalVersion()).isEqualTo(7);
+    }
+
+    @Test
+    public void rootMetadataIsReportedWhenRequirementsAreNotSatisfied() throws Throwable {
+        try {
+            parser.parse("{\"android2\": [{\"required_version\": 10, \"requirements\": {\"required_os_version\": 25}}],"
+                + " \"meta\": {\"x\": \"root\"}}");
+            fail("Requirements should not be satisfied");
+        } catch (RequirementsNotSatisfiedException error) {
+            assertThat(error.getMetadata()).isEqualTo(MapUtil.from(entry("x", "root")));
+        }
+    }
+
+    @Test
+    public void charSequenceIsParsedWithoutCopy() throws Throwable {
+        String content = ResourceUtils.readFromFile("valid_update_full.json");
+
+        PrinceOfVersionsConfig config = parser.parse(StreamIo.toCharSequence(
+            new ByteArrayInputStream(content.getBytes(Charset.forName("UTF-8"))), StreamIo.UNKNOWN_LENGTH));
+
+        assertThat(config).isEqualTo(treeParser.parse(content));
+    }
+
+    @Test
+    public void streamIsParsedWhileReadingOneByteAtATime() throws Throwable {
+        String content = ResourceUtils.readFromFile("valid_update_full.json") + "\u00e9";
+
+        PrinceOfVersionsConfig config = parser.parse(new OneByteInputStream(content.getBytes(Charset.forName("UTF-8"))));
+
+        assertThat(config).isEqualTo(treeParser.parse(content));
+    }
+
+    @Test
+    public void streamAfterSelectedUpdateIsNotRead() throws Throwable {
+        StringBuilder content = new StringBuilder("{\"meta\": {\"a\": 1}, \"android2\": [{\"required_version\": 10}, ");
+        for (int i = 0; i < 10000; i++) {
+            content.append("{\"required_version\": ").append(i).append("}, ");
+        }
+        byte[] bytes = content.append("{}]}").toString().getBytes(Charset.forName("UTF-8"));
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+
+        PrinceOfVersionsConfig config = parser.parse(stream);
+
+        assertThat(config.getMandatoryVersion()).isEqualTo(10);
+        assertThat(stream.available()).isGreaterThan(bytes.length / 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void streamReadErrorIsReported() throws Throwable {
+        parser.parse(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("offline");
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedJson() throws Throwable {
+        parser.parse(ResourceUtils.readFromFile("malformed_json.json"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void invalidUpdateNoAndroid() throws Throwable {
+        parser.parse(ResourceUtils.readFromFile("invalid_update_no_android.json"));
+    }
+
+    /**
+     * Returns at most one byte per read, as a slow network would.
+     */
+    private static final class OneByteInputStream extends FilterInputStream {
+
+        OneByteInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 1));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import co.infinum.princeofversions.mocks.MockApplicationConfiguration;
+import co.infinum.princeofversions.mocks.MockStorage;
+import co.infinum.princeofversions.mocks.SingleThreadExecutor;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class TracingPresenterTest {
+
+    private static final String CONFIG = "{\"android2\": ["
+        + "{\"required_version\": 100, \"last_version_available\": 300, \"requirements\": {\"required_os_version\": 23}},"
+        + "{\"required_version\": 100, \"last_version_available\": 250}"
+        + "]}";
+
+    private final Loader loader = new Loader() {
+        @Override
+        public String load() {
+            return CONFIG;
+        }
+    };
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void phasesOfCheckAreReportedInOrder() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().withEventListener(listener).build();
+
+        engine.check(loader, new MockApplicationConfiguration(200, 25), new MockStorage());
+
+        assertThat(listener.events).containsExactly(
+            "checkStart",
+            "loadStart",
+            "loadEnd -1 -1",
+            "parseStart",
+            "requirements {required_os_version=23} true",
+            "parseEnd",
+            "decision NEW_UPDATE_AVAILABLE 300",
+            "storageRead null",
+            "storageWrite 300",
+            "result NEW_UPDATE_AVAILABLE",
+            "checkEnd null"
+        );
+        assertThat(listener.checkIds).hasSize(1);
+    }
+
+    @Test
+    public void everyCheckHasItsOwnId() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().withEventListener(listener).build();
+
+        engine.check(loader, new MockApplicationConfiguration(200, 25));
+        engine.check(loader, new MockApplicationConfiguration(200, 25));
+
+        assertThat(listener.checkIds).hasSize(2);
+    }
+
+    @Test
+    public void failedCheckReportsError() {
+        final IOException error = new IOException("offline");
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder().withEventListener(listener).build();
+
+        try {
+            engine.check(new Loader() {
+                @Override
+                public String load() throws IOException {
+                    throw error;
+                }
+            }, new MockApplicationConfiguration(200, 25));
+        } catch (Throwable ignored) {
+            // reported to listener
+        }
+
+        assertThat(listener.events).containsExactly("checkStart", "loadStart", "checkEnd offline");
+        assertThat(CheckTrace.current()).isNull();
+    }
+
+    @Test
+    public void callbackDispatchIsReportedWithinCheck() {
+        Interactor interactor = new InteractorImpl(new JsonConfigurationParser(new PrinceOfVersionsRequirementsProcessor()));
+        Presenter presenter = new TracingPresenter(new PresenterImpl(interactor, new MockStorage()), listener);
+        final List<String> callbackEvents = new ArrayList<>();
+
+        presenter.check(loader, new SingleThreadExecutor(), new UpdaterCallback() {
+            @Override
+            public void onSuccess(@Nonnull UpdateResult result) {
+                callbackEvents.addAll(listener.events);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                callbackEvents.add("error");
+            }
+        }, new MockApplicationConfiguration(200, 25));
+
+        assertThat(callbackEvents).endsWith("callbackDispatch");
+        assertThat(listener.events).endsWith("callbackDispatch", "checkEnd null");
+        assertThat(listener.checkIds).hasSize(1);
+    }
+
+    @Test
+    public void errorOfAsynchronousCheckIsReportedAtItsEnd() {
+        Interactor interactor = new InteractorImpl(new JsonConfigurationParser(new PrinceOfVersionsRequirementsProcessor()));
+        Presenter presenter = new TracingPresenter(new PresenterImpl(interactor, new MockStorage()), listener);
+
+        presenter.check(new Loader() {
+            @Override
+            public String load() throws IOException {
+                throw new IOException("offline");
+            }
+        }, new SingleThreadExecutor(), new UpdaterCallback() {
+            @Override
+            public void onSuccess(@Nonnull UpdateResult result) {
+            }
+
+            @Override
+            public void onError(Throwable error) {
+            }
+        }, new MockApplicationConfiguration(200, 25));
+
+        assertThat(listener.events).containsExactly("checkStart", "loadStart", "callbackDispatch", "checkEnd offline");
+    }
+
+    private static final class RecordingListener extends PrinceOfVersionsEventListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        private final Set<Long> checkIds = new HashSet<>();
+
+        private long lastTime = Long.MIN_VALUE;
+
+        @Override
+        public void onCheckStart(long checkId, long timeNanos) {
+            record(checkId, timeNanos, "checkStart");
+        }
+
+        @Override
+        public void onLoadStart(long checkId, long timeNanos) {
+            record(checkId, timeNanos, "loadStart");
+        }
+
+        @Override
+        public void onLoadEnd(long checkId, long timeNanos, long bytes, int httpStatus) {
+            record(checkId, timeNanos, "loadEnd " + bytes + " " + httpStatus);
+        }
+
+        @Override
+        public void onParseStart(long checkId, long timeNanos) {
+            record(checkId, timeNanos, "parseStart");
+        }
+
+        @Override
+        public void onParseEnd(long checkId, long timeNanos) {
+            record(checkId, timeNanos, "parseEnd");
+        }
+
+        @Override
+        public void onRequirementsEvaluated(long checkId, long startNanos, long endNanos, Map<String, String> requirements,
+            boolean satisfied) {
+            assertThat(endNanos).isGreaterThanOrEqualTo(startNanos);
+            record(checkId, endNanos, "requirements " + requirements + " " + satisfied);
+        }
+
+        @Override
+        public void onDecision(long checkId, long timeNanos, UpdateStatus status, int updateVersion) {
+            record(checkId, timeNanos, "decision " + status + " " + updateVersion);
+        }
+
+        @Override
+        public void onResult(long checkId, long timeNanos, UpdateStatus status) {
+            record(checkId, timeNanos, "result " + status);
+        }
+
+        @Override
+        public void onStorageRead(long checkId, long startNanos, long endNanos, @Nullable Integer version) {
+            record(checkId, endNanos, "storageRead " + version);
+        }
+
+        @Override
+        public void onStorageWrite(long checkId, long startNanos, long endNanos, int version) {
+            record(checkId, endNanos, "storageWrite " + version);
+        }
+
+        @Override
+        public void onCallbackDispatch(long checkId, long timeNanos) {
+            record(checkId, timeNanos, "callbackDispatch");
+        }
+
+        @Override
+        public void onCheckEnd(long checkId, long timeNanos, @Nullable Throwable error) {
+            record(checkId, timeNanos, "checkEnd " + (error != null ? error.getMessage() : null));
+        }
+
+        private void record(long checkId, long timeNanos, String event) {
+            assertThat(timeNanos).isGreaterThanOrEqualTo(lastTime);
+            lastTime = timeNanos;
+            checkIds.add(checkId);
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package co.infinum.princeofversions;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import co.infinum.princeofversions.mocks.MockApplicationConfiguration;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.entry;
+
+public class UpdateResultMetadataTest {
+
+    private static final String CONFIG = "{\"meta\": {\"count\": 3, \"enabled\": false, \"channel\": \"beta\"},"
+        + "\"android2\": [{\"required_version\": 100, \"last_version_available\": 300, \"meta\": {"
+        + "\"count\": 7, \"big\": 5000000000, \"text\": \"12\", \"flag\": \"TRUE\", \"fraction\": 1.5, \"none\": null,"
+        + "\"object\": {\"a\": 1, \"b\": [true, null], \"c\": \"x\"}, \"array\": [1, \"two\", {\"three\": 3}],"
+        + "\"objectText\": \"{\\\"a\\\": 2}\", \"brokenText\": \"{\\\"a\\\"\""
+        + "}}]}";
+
+    private final MockApplicationConfiguration appConfig = new MockApplicationConfiguration(200, 25);
+
+    @Test
+    public void streamingParserMetadataIsReadByType() throws Throwable {
+        assertTypedValues(check(new PrinceOfVersionsEngine.Builder().build()));
+    }
+
+    @Test
+    public void jsonParserMetadataIsReadByType() throws Throwable {
+        PrinceOfVersionsEngine engine = new PrinceOfVersionsEngine.Builder()
+            .withParser(new JsonConfigurationParser(new PrinceOfVersionsRequirementsProcessor(
+                Collections.<String, RequirementChecker>emptyMap())))
+            .build();
+
+        assertTypedValues(check(engine));
+    }
+
+    @Test
+    public void typedValuesAreDecodedFromStringMetadata() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("count", "7");
+        metadata.put("object", "{\"a\":1}");
+        metadata.put("array", "[1,\"two\"]");
+        UpdateResult result = new UpdateResult(
+            new UpdateInfo(null, 300, Collections.<String, String>emptyMap(), 200, NotificationType.ONCE),
+            metadata,
+            UpdateStatus.NEW_UPDATE_AVAILABLE,
+            300);
+
+        assertThat(result.getMetadataInt("count", 0)).isEqualTo(7);
+        assertThat(result.getMetadataObject("object")).containsExactly(entry("a", "1"));
+        assertThat(result.getMetadataArray("array")).containsExactly("1", "two");
+    }
+
+    private UpdateResult check(PrinceOfVersionsEngine engine) throws Throwable {
+        return engine.check(new Loader() {
+            @Override
+            public String load() {
+                return CONFIG;
+            }
+        }, appConfig);
+    }
+
+    private static void assertTypedValues(UpdateResult result) {
+        assertThat(result.getMetadataInt("count", 0)).isEqualTo(7);
+        assertThat(result.getMetadataInt("big", -1)).isEqualTo(-1);
+        assertThat(result.getMetadataLong("big", -1)).isEqualTo(5000000000L);
+        assertThat(result.getMetadataInt("text", 0)).isEqualTo(12);
+        assertThat(result.getMetadataInt("fraction", 0)).isEqualTo(0);
+        assertThat(result.getMetadataInt("channel", 0)).isEqualTo(0);
+        assertThat(result.getMetadataInt("missing", 4)).isEqualTo(4);
+        assertThat(result.getMetadataBoolean("enabled", true)).isFalse();
+        assertThat(result.getMetadataBoolean("flag", false)).isTrue();
+        assertThat(result.getMetadataBoolean("none", true)).isTrue();
+
+        assertThat(result.getMetadataObject("object")).containsOnly(entry("a", "1"), entry("b", "[true,null]"), entry("c", "x"));
+        assertThat(result.getMetadataObject("objectText")).containsOnly(entry("a", "2"));
+        assertThat(result.getMetadataObject("brokenText")).isNull();
+        assertThat(result.getMetadataObject("array")).isNull();
+        assertThat(result.getMetadataObject("missing")).isNull();
+
+        assertThat(result.getMetadataArray("array")).containsExactly("1", "two", "{\"three\":3}");
+        assertThat(result.getMetadataArray("object")).isNull();
+
+        assertThat(result.getMetadata()).contains(entry("count", "7"), entry("channel", "beta"), entry("none", null));
+    }
+}
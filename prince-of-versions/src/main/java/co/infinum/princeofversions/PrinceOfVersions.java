@@ -1,10 +1,13 @@
 package co.infinum.princeofversions;
 
 import android.content.Context;
+import android.os.Build;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -37,9 +40,20 @@ import androidx.annotation.VisibleForTesting;
  */
 public final class PrinceOfVersions {
 
+    /**
+     * Default storage shared by all instances, since they all keep the version in the same preferences file. Separate caches of the
+     * same file would each serve their own version and persist over each other.
+     */
+    @Nullable
+    private static Storage defaultStorage;
+
     private final Presenter presenter;
     private final ApplicationConfiguration appConfig;
     private final Executor callbackExecutor;
+    private final Executor checkExecutor;
+    private final NetworkLoaderFactory networkLoaderFactory;
+    @Nullable
+    private final MemoizingInteractor resultCache;
 
     /**
      * Creates {@link PrinceOfVersions} using provided {@link Context}.
@@ -47,42 +61,75 @@ public final class PrinceOfVersions {
      * @param context context which will be used for checking application version.
      */
     public PrinceOfVersions(Context context) {
-        this(createDefaultParser(), createDefaultStorage(context),
+        this(createDefaultParser(), true, createDefaultStorage(context),
             createDefaultCallbackExecutor(),
-            createAppConfig(context));
+            createAppConfig(context), new NetworkLoaderFactory(), 0, createDefaultCheckExecutor(), null);
     }
 
     @VisibleForTesting
     PrinceOfVersions(Storage storage, Executor callbackExecutor, ApplicationConfiguration appConfig) {
-        this(createDefaultParser(), storage, callbackExecutor, appConfig);
+        this(createDefaultParser(), true, storage, callbackExecutor, appConfig, new NetworkLoaderFactory(), 0,
+            createDefaultCheckExecutor(), null);
     }
 
     @VisibleForTesting
     PrinceOfVersions(Storage storage, Executor callbackExecutor, ApplicationConfiguration appConfig,
         Map<String, RequirementChecker> checkers) {
-        this(createMockedParser(checkers), storage, callbackExecutor, appConfig);
+        this(createMockedParser(checkers), PrinceOfVersionsRequirementsProcessor.areDeterministic(checkers.values()), storage,
+            callbackExecutor, appConfig, new NetworkLoaderFactory(), 0,
+            createDefaultCheckExecutor(), null);
     }
 
-    private PrinceOfVersions(ConfigurationParser configurationParser, Storage storage,
-        Executor callbackExecutor, ApplicationConfiguration appConfig) {
-        this.presenter = new PresenterImpl(
-            new InteractorImpl(configurationParser),
+    /**
+     * Creates instance with all its parts.
+     *
+     * @param reuseParsedConfiguration whether configuration of a response which wasn't modified is reused, which is valid only if
+     *                                 requirement checkers evaluate the same requirements the same way on every check.
+     */
+    private PrinceOfVersions(ConfigurationParser configurationParser, boolean reuseParsedConfiguration, Storage storage,
+        Executor callbackExecutor, ApplicationConfiguration appConfig, NetworkLoaderFactory networkLoaderFactory,
+        long resultCacheTtlMilliseconds, Executor checkExecutor, @Nullable PrinceOfVersionsEventListener eventListener) {
+        Interactor interactor = new InteractorImpl(configurationParser, reuseParsedConfiguration);
+        if (resultCacheTtlMilliseconds > 0) {
+            this.resultCache = new MemoizingInteractor(interactor, resultCacheTtlMilliseconds, TimeUnit.MILLISECONDS);
+            interactor = resultCache;
+        } else {
+            this.resultCache = null;
+        }
+        Presenter presenter = new SingleFlightPresenter(new PresenterImpl(
+            interactor,
             storage
-        );
+        ));
+        this.presenter = eventListener != null ? new TracingPresenter(presenter, eventListener) : presenter;
         this.callbackExecutor = callbackExecutor;
+        this.checkExecutor = checkExecutor;
         this.appConfig = appConfig;
+        this.networkLoaderFactory = networkLoaderFactory;
     }
 
-    private static ConfigurationParser createDefaultParser(Map<String, RequirementChecker> requirementCheckers) {
-        requirementCheckers.put(PrinceOfVersionsDefaultRequirementsChecker.KEY, new PrinceOfVersionsDefaultRequirementsChecker());
-        return new JsonConfigurationParser(new PrinceOfVersionsRequirementsProcessor(
-            requirementCheckers
-        ));
+    private static ConfigurationParser createDefaultParser(Map<String, RequirementChecker> requirementCheckers, boolean streaming,
+        boolean binary) {
+        requirementCheckers.put(
+            PrinceOfVersionsDefaultRequirementsChecker.KEY,
+            new PrinceOfVersionsDefaultRequirementsChecker(new PrinceOfVersionsDefaultRequirementsChecker.ApplicationVersionProvider() {
+                @Override
+                public int provide() {
+                    return Build.VERSION.SDK_INT;
+                }
+            })
+        );
+        PrinceOfVersionsRequirementsProcessor requirementsProcessor = new PrinceOfVersionsRequirementsProcessor(requirementCheckers);
+        if (binary) {
+            return new BinaryConfigurationParser(requirementsProcessor);
+        } else if (streaming) {
+            return new StreamingJsonConfigurationParser(requirementsProcessor);
+        }
+        return new JsonConfigurationParser(requirementsProcessor);
     }
 
     private static ConfigurationParser createDefaultParser() {
         Map<String, RequirementChecker> checkers = new HashMap<>();
-        return createDefaultParser(checkers);
+        return createDefaultParser(checkers, false, false);
     }
 
     private static ConfigurationParser createMockedParser(Map<String, RequirementChecker> requirementCheckers) {
@@ -91,8 +138,15 @@ public final class PrinceOfVersions {
         ));
     }
 
-    private static Storage createDefaultStorage(Context context) {
-        return new PrinceOfVersionsDefaultNamedPreferenceStorage(context);
+    private static synchronized Storage createDefaultStorage(Context context) {
+        if (defaultStorage == null) {
+            // storage lives as long as the process, so it must not keep an activity
+            Context applicationContext = context.getApplicationContext();
+            defaultStorage = new CachingStorage(new PrinceOfVersionsDefaultNamedPreferenceStorage(
+                applicationContext != null ? applicationContext : context
+            ));
+        }
+        return defaultStorage;
     }
 
     private static ApplicationConfiguration createAppConfig(Context context) {
@@ -103,6 +157,14 @@ public final class PrinceOfVersions {
         return new PrinceOfVersionsCallbackExecutor();
     }
 
+    private static Executor createDefaultCheckExecutor() {
+        return new PrinceOfVersionsDefaultExecutor();
+    }
+
+    private Loader createNetworkLoader(String url) {
+        return networkLoaderFactory.create(url);
+    }
+
     /**
      * Start asynchronous check for update using provided {@link Executor} and {@link String}. Notifies result to provided {@link
      * UpdaterCallback}.
@@ -112,7 +174,7 @@ public final class PrinceOfVersions {
      * @return instance through which is possible to cancel the call.
      */
     public PrinceOfVersionsCancelable checkForUpdates(String url, UpdaterCallback callback) {
-        return checkForUpdates(new PrinceOfVersionsDefaultExecutor(), new NetworkLoader(url), callback);
+        return checkForUpdates(checkExecutor, createNetworkLoader(url), callback);
     }
 
     /**
@@ -124,7 +186,7 @@ public final class PrinceOfVersions {
      * @return instance through which is possible to cancel the call.
      */
     public PrinceOfVersionsCancelable checkForUpdates(Loader loader, UpdaterCallback callback) {
-        return checkForUpdates(new PrinceOfVersionsDefaultExecutor(), loader, callback);
+        return checkForUpdates(checkExecutor, loader, callback);
     }
 
     /**
@@ -137,7 +199,7 @@ public final class PrinceOfVersions {
      * @return instance through which is possible to cancel the call.
      */
     public PrinceOfVersionsCancelable checkForUpdates(Executor executor, String url, UpdaterCallback callback) {
-        return checkForUpdates(executor, new NetworkLoader(url), callback);
+        return checkForUpdates(executor, createNetworkLoader(url), callback);
     }
 
     /**
@@ -166,7 +228,7 @@ public final class PrinceOfVersions {
      * @throws Throwable if error occurred.
      */
     public UpdateResult checkForUpdates(String url) throws Throwable {
-        return checkForUpdates(new NetworkLoader(url));
+        return checkForUpdates(createNetworkLoader(url));
     }
 
     /**
@@ -180,6 +242,18 @@ public final class PrinceOfVersions {
         return presenter.check(loader, appConfig);
     }
 
+    /**
+     * Start synchronous check for update which is canceled with the call, without aborting checks shared with other callers.
+     *
+     * @param loader Instance for loading update config resource.
+     * @param call   Call of the caller.
+     * @return result of update check.
+     * @throws Throwable if error occurred or the call was canceled.
+     */
+    UpdateResult checkForUpdates(Loader loader, UpdaterCancelable call) throws Throwable {
+        return presenter.check(loader, appConfig, call);
+    }
+
     /**
      * Creates new call object which will load configuration from specified url.
      *
@@ -187,7 +261,7 @@ public final class PrinceOfVersions {
      * @return Call with ability to execute or enqueue the check.
      */
     public PrinceOfVersionsCall newCall(String url) {
-        return newCall(new NetworkLoader(url));
+        return newCall(createNetworkLoader(url));
     }
 
     /**
@@ -200,6 +274,39 @@ public final class PrinceOfVersions {
         return new UpdaterCall(this, loader);
     }
 
+    /**
+     * Forgets in-memory result of the last check which loaded update config from provided URL, so the next check loads it again.
+     * Useful when application gets notified that a new update config is published, e.g. through a push message.
+     * Has no effect if result cache is not enabled using {@link Builder#withResultCache(long, TimeUnit)}.
+     *
+     * @param url Url from where update config is loaded.
+     */
+    public void invalidate(String url) {
+        invalidate(createNetworkLoader(url));
+    }
+
+    /**
+     * Forgets in-memory result of the last check which used provided loader, so the next check loads update config again.
+     * Has no effect if result cache is not enabled using {@link Builder#withResultCache(long, TimeUnit)}.
+     *
+     * @param loader Instance for loading update config resource.
+     */
+    public void invalidate(Loader loader) {
+        if (resultCache != null) {
+            resultCache.invalidate(LoaderKeys.of(loader));
+        }
+    }
+
+    /**
+     * Forgets in-memory results of all previous checks, so next checks load update config again.
+     * Has no effect if result cache is not enabled using {@link Builder#withResultCache(long, TimeUnit)}.
+     */
+    public void invalidateAll() {
+        if (resultCache != null) {
+            resultCache.invalidateAll();
+        }
+    }
+
     /**
      * Helper class for building {@link PrinceOfVersions} object.
      * All methods are optional.
@@ -216,6 +323,18 @@ public final class PrinceOfVersions {
         private ApplicationConfiguration appConfig;
         @Nullable
         private Executor callbackExecutor;
+        @Nullable
+        private Executor checkExecutor;
+        @Nullable
+        private ConditionalRequestCache conditionalRequestCache;
+        @Nullable
+        private File responseCacheDirectory;
+        private long responseCacheTtlMilliseconds;
+        private long resultCacheTtlMilliseconds;
+        private boolean streamingParser;
+        private boolean binaryConfiguration;
+        @Nullable
+        private PrinceOfVersionsEventListener eventListener;
 
         /**
          * Set a new configuration parser used to parse configuration file into the model.
@@ -228,6 +347,34 @@ public final class PrinceOfVersions {
             return this;
         }
 
+        /**
+         * Set whether the default JSON configuration parser should read configuration as a stream of tokens.
+         * Streaming parser stops as soon as it finds the first feasible update and skips the rest of the configuration, instead of
+         * building the whole JSON tree first. Configuration loaded from URL without conditional requests is parsed while it is being
+         * received. It has no effect if custom parser is set.
+         *
+         * @param streamingParser true to use streaming parser
+         * @return this builder
+         */
+        public Builder withStreamingParser(boolean streamingParser) {
+            this.streamingParser = streamingParser;
+            return this;
+        }
+
+        /**
+         * Set whether configuration is in binary format created by {@link BinaryConfigurationEncoder} instead of JSON.
+         * Binary configuration is read without parsing text, and updates which are not feasible are skipped without reading them.
+         * Loaders created for checks started with URL decode it with {@link BinaryConfigurationEncoder#CHARSET}, custom loaders have
+         * to do the same unless they implement {@link StreamingLoader}. It has no effect on parsing if custom parser is set.
+         *
+         * @param binaryConfiguration true if configuration is binary
+         * @return this builder
+         */
+        public Builder withBinaryConfiguration(boolean binaryConfiguration) {
+            this.binaryConfiguration = binaryConfiguration;
+            return this;
+        }
+
         /**
          * Set a new implementation of the storage used to store internal metadata about update check.
          *
@@ -250,6 +397,74 @@ public final class PrinceOfVersions {
             return this;
         }
 
+        /**
+         * Set a new executor which runs checks started without explicit executor, usually a {@link PrinceOfVersionsWorkerPool}.
+         * By default, checks run on a small pool of background threads shared by all {@link PrinceOfVersions} instances.
+         *
+         * @param checkExecutor Check executor
+         * @return this builder
+         */
+        public Builder withExecutor(@Nullable Executor checkExecutor) {
+            this.checkExecutor = checkExecutor;
+            return this;
+        }
+
+        /**
+         * Set a cache which enables conditional requests when update configuration is loaded from URL.
+         * If configuration hasn't changed since the last check, it won't be downloaded nor parsed again.
+         *
+         * @param conditionalRequestCache Cache of previous responses
+         * @return this builder
+         */
+        public Builder withConditionalRequestCache(@Nullable ConditionalRequestCache conditionalRequestCache) {
+            this.conditionalRequestCache = conditionalRequestCache;
+            return this;
+        }
+
+        /**
+         * Set a directory where the last update configuration loaded from URL is saved, usually {@link Context#getCacheDir()}.
+         * While saved configuration is younger than TTL, check doesn't use network at all. Once it gets older, saved configuration is
+         * used immediately and a fresh one is loaded in background for the next check.
+         *
+         * @param directory Directory for saved configurations
+         * @param ttl       Freshness TTL
+         * @param unit      Time unit of freshness TTL
+         * @return this builder
+         */
+        public Builder withResponseCache(File directory, long ttl, TimeUnit unit) {
+            this.responseCacheDirectory = directory;
+            this.responseCacheTtlMilliseconds = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * Set for how long the result of a check is kept in memory.
+         * While the result is younger than TTL, checks of the same update config return it without loading nor parsing the config.
+         * Notification rules (e.g. whether optional update was already notified) are still applied to every check.
+         * Only results of configs loaded from a URL are kept, results of custom loaders are never reused.
+         * Results can be forgotten earlier using {@link PrinceOfVersions#invalidate(String)} or {@link PrinceOfVersions#invalidateAll()}.
+         *
+         * @param ttl  Result TTL, zero disables the cache
+         * @param unit Time unit of result TTL
+         * @return this builder
+         */
+        public Builder withResultCache(long ttl, TimeUnit unit) {
+            this.resultCacheTtlMilliseconds = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * Set a listener which is notified about phases of every check, e.g. to measure their duration.
+         * Without listener nothing is measured.
+         *
+         * @param eventListener Listener of check events
+         * @return this builder
+         */
+        public Builder withEventListener(PrinceOfVersionsEventListener eventListener) {
+            this.eventListener = eventListener;
+            return this;
+        }
+
         /**
          * Add a new custom requirements checker that's used in process of parsing JSON
          *
@@ -262,6 +477,31 @@ public final class PrinceOfVersions {
             return this;
         }
 
+        /**
+         * Add a new custom asynchronous requirements checker that's used in process of parsing JSON.
+         * Asynchronous checks of all updates in configuration run in parallel.
+         *
+         * @param key                 Key with which we are going to get a wanted requirement from JSON
+         * @param requirementsChecker Asynchronous requirements checker
+         * @param timeout             Time after which check is abandoned, positive
+         * @param unit                Time unit of timeout
+         * @param timeoutVerdict      Whether requirement is considered satisfied when check times out
+         * @return this builder
+         */
+        public Builder addAsyncRequirementChecker(
+            String key,
+            AsyncRequirementChecker requirementsChecker,
+            long timeout,
+            TimeUnit unit,
+            boolean timeoutVerdict
+        ) {
+            if (timeout <= 0) {
+                throw new IllegalArgumentException("Timeout should be positive, but " + timeout + " was set.");
+            }
+            this.requirementCheckers.put(key, new TimedRequirementChecker(requirementsChecker, timeout, unit, timeoutVerdict));
+            return this;
+        }
+
         /**
          * Remove custom requirements checker that's used in process of parsing JSON
          *
@@ -285,6 +525,19 @@ public final class PrinceOfVersions {
             return this;
         }
 
+        /**
+         * Configuration of a response which wasn't modified is reused only if it was parsed by the default parser, with checkers which
+         * evaluate the same requirements the same way on every check. Otherwise it is parsed again.
+         */
+        private boolean canReuseParsedConfiguration() {
+            return configurationParser == null && PrinceOfVersionsRequirementsProcessor.areDeterministic(requirementCheckers.values());
+        }
+
+        private NetworkLoaderFactory createNetworkLoaderFactory() {
+            return new NetworkLoaderFactory(conditionalRequestCache, responseCacheDirectory, responseCacheTtlMilliseconds,
+                binaryConfiguration ? BinaryConfigurationEncoder.CHARSET : null);
+        }
+
         /**
          * Create the {@link PrinceOfVersions} instance using the configured values.
          *
@@ -293,10 +546,17 @@ public final class PrinceOfVersions {
          */
         public PrinceOfVersions build(Context context) {
             return new PrinceOfVersions(
-                configurationParser != null ? configurationParser : createDefaultParser(requirementCheckers),
+                configurationParser != null
+                    ? configurationParser
+                    : createDefaultParser(requirementCheckers, streamingParser, binaryConfiguration),
+                canReuseParsedConfiguration(),
                 storage != null ? storage : createDefaultStorage(context),
                 callbackExecutor != null ? callbackExecutor : createDefaultCallbackExecutor(),
-                appConfig != null ? appConfig : createAppConfig(context)
+                appConfig != null ? appConfig : createAppConfig(context),
+                createNetworkLoaderFactory(),
+                resultCacheTtlMilliseconds,
+                checkExecutor != null ? checkExecutor : createDefaultCheckExecutor(),
+                eventListener
             );
         }
 
@@ -313,10 +573,17 @@ public final class PrinceOfVersions {
                     "You must define storage and application configuration if you don't provide Context.");
             }
             return new PrinceOfVersions(
-                configurationParser != null ? configurationParser : createDefaultParser(requirementCheckers),
+                configurationParser != null
+                    ? configurationParser
+                    : createDefaultParser(requirementCheckers, streamingParser, binaryConfiguration),
+                canReuseParsedConfiguration(),
                 storage,
                 callbackExecutor != null ? callbackExecutor : createDefaultCallbackExecutor(),
-                appConfig
+                appConfig,
+                createNetworkLoaderFactory(),
+                resultCacheTtlMilliseconds,
+                checkExecutor != null ? checkExecutor : createDefaultCheckExecutor(),
+                eventListener
             );
         }
     }
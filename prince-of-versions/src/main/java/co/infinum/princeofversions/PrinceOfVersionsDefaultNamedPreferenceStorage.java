@@ -4,30 +4,42 @@ import android.content.Context;
 import android.content.SharedPreferences;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nullable;
 
+/**
+ * Default {@link Storage} which keeps the last notified version in a private {@link SharedPreferences} file.
+ * <p>
+ * Preferences file is loaded on a background thread as soon as the storage is created, and accessed directly afterwards.
+ * </p>
+ */
 final class PrinceOfVersionsDefaultNamedPreferenceStorage implements Storage {
 
     private static final String KEY = "PrinceOfVersions_LastNotifiedUpdate";
     private static final String PREF_FILE_NAME = "co.infinum.princeofversions.PREF_FILE";
 
-    private final SharedPreferences sp;
+    private final Lazy<SharedPreferences> sp;
 
     PrinceOfVersionsDefaultNamedPreferenceStorage(final Context context) {
-        sp = Lazy.create(SharedPreferences.class, new Callable<SharedPreferences>() {
+        this(context, new PrinceOfVersionsDefaultExecutor(PrinceOfVersionsWorkerPool.Priority.LOW));
+    }
+
+    PrinceOfVersionsDefaultNamedPreferenceStorage(final Context context, Executor prefetchExecutor) {
+        sp = new Lazy<>(new Callable<SharedPreferences>() {
             @Override
             public SharedPreferences call() {
                 return context.getSharedPreferences(PREF_FILE_NAME, Context.MODE_PRIVATE);
             }
         });
+        sp.prefetch(prefetchExecutor);
     }
 
     @Nullable
     @Override
     public Integer lastNotifiedVersion(@Nullable Integer defaultValue) {
         try {
-            String value = sp.getString(KEY, String.valueOf(defaultValue));
+            String value = sp.get().getString(KEY, String.valueOf(defaultValue));
             if (value != null) {
                 return Integer.valueOf(value);
             } else {
@@ -40,6 +52,6 @@ final class PrinceOfVersionsDefaultNamedPreferenceStorage implements Storage {
 
     @Override
     public void rememberLastNotifiedVersion(@Nullable Integer version) {
-        sp.edit().putString(KEY, String.valueOf(version)).apply();
+        sp.get().edit().putString(KEY, String.valueOf(version)).apply();
     }
 }
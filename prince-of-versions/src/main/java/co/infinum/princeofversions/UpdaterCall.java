@@ -21,8 +21,13 @@ public final class UpdaterCall implements PrinceOfVersionsCall {
     private final AtomicBoolean executed = new AtomicBoolean(false);
     private final AtomicBoolean canceled = new AtomicBoolean(false);
 
+    /**
+     * Cancels synchronous execution of this call only, checks shared with other callers keep running.
+     */
+    private final UpdaterCancelable execution = new UpdaterCancelable();
+
     @Nullable
-    private PrinceOfVersionsCancelable cancelable;
+    private volatile PrinceOfVersionsCancelable cancelable;
 
     UpdaterCall(final PrinceOfVersions core, final Loader loader) {
         this.core = core;
@@ -37,7 +42,7 @@ public final class UpdaterCall implements PrinceOfVersionsCall {
         if (canceled.get()) {
             throw new IOException("Canceled!");
         }
-        return core.checkForUpdates(loader);
+        return core.checkForUpdates(loader, execution);
     }
 
     @Override
@@ -49,6 +54,7 @@ public final class UpdaterCall implements PrinceOfVersionsCall {
             callback.onError(new IOException("Canceled"));
         }
         cancelable = core.checkForUpdates(loader, callback);
+        cancelIfCanceled();
     }
 
     @Override
@@ -60,14 +66,26 @@ public final class UpdaterCall implements PrinceOfVersionsCall {
             callback.onError(new IOException("Canceled"));
         }
         cancelable = core.checkForUpdates(executor, loader, callback);
+        cancelIfCanceled();
     }
 
     @Override
     public void cancel() {
         canceled.set(true);
+        execution.cancel();
+        PrinceOfVersionsCancelable current = cancelable;
+        if (current != null) {
+            current.cancel();
+        }
+    }
 
-        if (cancelable != null) {
-            cancelable.cancel();
+    /**
+     * Cancels check which was started while the call was being canceled, after {@link #cancel()} already looked for it.
+     */
+    private void cancelIfCanceled() {
+        PrinceOfVersionsCancelable current = cancelable;
+        if (canceled.get() && current != null) {
+            current.cancel();
         }
     }
 
@@ -1,23 +0,0 @@
-package co.infinum.princeofversions;
-
-/**
- * This class represents a started check for update request which can be canceled.
- */
-public class UpdaterCancelable implements PrinceOfVersionsCancelable {
-
-    /**
-     * Flag.
-     * {@code true} if call is canceled, {@code false} otherwise
-     */
-    private boolean flag;
-
-    @Override
-    public void cancel() {
-        this.flag = true;
-    }
-
-    @Override
-    public boolean isCanceled() {
-        return flag;
-    }
-}